@@ -0,0 +1,185 @@
+package com.algorithm;
+
+/*
+ * Class BitDomain is used to record which values of a task's domain are still available
+ * during search. Bit i is set iff the time slice at index i of the task's domain is available.
+ */
+class BitDomain {
+    private static final int WORD_SHIFT = 6;
+    private static final long WORD_MASK = 0xffffffffffffffffL;
+
+    private final long[] words;
+    private final int size;// number of values in the domain, available or not
+    private int count;// number of values still available
+
+    BitDomain(int size) {
+        this.size = size;
+        words = new long[(size + 63) >>> WORD_SHIFT];
+        for (int w = 0; w < words.length; w++) {
+            words[w] = WORD_MASK;
+        }
+        if ((size & 63) != 0) {
+            // clear the unused bits of the last word
+            words[words.length - 1] = WORD_MASK >>> (64 - (size & 63));
+        }
+        count = size;
+    }
+
+    // copy the available values of other
+    BitDomain(BitDomain other) {
+        size = other.size;
+        words = other.words.clone();
+        count = other.count;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int count() {
+        return count;
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    boolean isAvailable(int i) {
+        return (words[i >>> WORD_SHIFT] & (1L << i)) != 0;
+    }
+
+    /**
+     * return the index of the first available value at or after from, or -1 if there is none
+     */
+    int nextAvailable(int from) {
+        if (from >= size) {
+            return -1;
+        }
+        int w = from >>> WORD_SHIFT;
+        long word = words[w] & (WORD_MASK << from);
+        while (true) {
+            if (word != 0) {
+                return (w << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == words.length) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+
+    /**
+     * return the index of the last available value at or before from, or -1 if there is none
+     */
+    int prevAvailable(int from) {
+        if (from >= size) {
+            from = size - 1;
+        }
+        if (from < 0) {
+            return -1;
+        }
+        int w = from >>> WORD_SHIFT;
+        long word = words[w] & (WORD_MASK >>> (63 - (from & 63)));
+        while (true) {
+            if (word != 0) {
+                return (w << WORD_SHIFT) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (--w < 0) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+
+    /**
+     * return the number of available values with index in [from, to)
+     */
+    int countRange(int from, int to) {
+        if (to > size) {
+            to = size;
+        }
+        if (from < 0) {
+            from = 0;
+        }
+        if (from >= to) {
+            return 0;
+        }
+        int first = from >>> WORD_SHIFT;
+        int last = (to - 1) >>> WORD_SHIFT;
+        long lastMask = WORD_MASK >>> (63 - ((to - 1) & 63));
+        if (first == last) {
+            return Long.bitCount(words[first] & (WORD_MASK << from) & lastMask);
+        }
+        int result = Long.bitCount(words[first] & (WORD_MASK << from));
+        for (int w = first + 1; w < last; w++) {
+            result += Long.bitCount(words[w]);
+        }
+        return result + Long.bitCount(words[last] & lastMask);
+    }
+
+    /**
+     * mark the value at index i as unavailable, saving the overwritten word on the trail
+     * so that the change can be repealed later
+     *
+     * @return true if the value was available before this call
+     */
+    boolean remove(int i, int taskId, DomainTrail trail) {
+        int w = i >>> WORD_SHIFT;
+        long bit = 1L << i;
+        if ((words[w] & bit) == 0) {
+            return false;
+        }
+        trail.save(taskId, w, words[w]);
+        words[w] &= ~bit;
+        count--;
+        return true;
+    }
+
+    /**
+     * mark every value with index in [from, to) as unavailable, saving each overwritten word on
+     * the trail
+     *
+     * @return the number of values which were available before this call
+     */
+    int removeRange(int from, int to, int taskId, DomainTrail trail) {
+        if (to > size) {
+            to = size;
+        }
+        if (from < 0) {
+            from = 0;
+        }
+        if (from >= to) {
+            return 0;
+        }
+        int removed = 0;
+        int first = from >>> WORD_SHIFT;
+        int last = (to - 1) >>> WORD_SHIFT;
+        for (int w = first; w <= last; w++) {
+            long mask = WORD_MASK;
+            if (w == first) {
+                mask &= WORD_MASK << from;
+            }
+            if (w == last) {
+                mask &= WORD_MASK >>> (63 - ((to - 1) & 63));
+            }
+            long cleared = words[w] & mask;
+            if (cleared != 0) {
+                trail.save(taskId, w, words[w]);
+                words[w] &= ~mask;
+                removed += Long.bitCount(cleared);
+            }
+        }//for
+        count -= removed;
+        return removed;
+    }
+
+    long getWord(int w) {
+        return words[w];
+    }
+
+    // used by DomainTrail to undo changes
+    void restoreWord(int w, long word) {
+        count += Long.bitCount(word) - Long.bitCount(words[w]);
+        words[w] = word;
+    }
+}
@@ -82,6 +82,9 @@ public class CSP {
             Task task = new FlexibleTask(duration, taskCount++);
             taskMap.put(task.getTaskId(), task);
             flexibleTaskIdSet.add(task.getTaskId());
+            if (constraints != null) {
+                constraints.addVertex();
+            }
         } else {
             overtime = true;
             System.out.println("not enough remaining working time for this flexible task");
@@ -104,6 +107,9 @@ public class CSP {
             Task task = new FixedTask(startTime, endTime, taskCount++);
             taskMap.put(task.getTaskId(), task);
             fixedTaskIdSet.add(task.getTaskId());
+            if (constraints != null) {
+                constraints.addVertex();
+            }
         } else {
             overtime = true;
             System.out.println("not enough remaining working time for this fixed task");
@@ -115,8 +121,8 @@ public class CSP {
      * Only provide delete All Tasks method and do not provide delete a task method
      * <p>if deleteAllTasks() method are called, then createConstraintGraph() method must be called
      * after that;
-     * only when the number of tasks are determinate, then you can try to create constraint graph
-     * and add or delete constraints.</p>
+     * tasks added after the constraint graph is created get a vertex of their own, and
+     * removeTask(), changeFlexibleTask() and changeFixedTask() keep the graph up to date.</p>
      */
     void deleteAllTasks() {
         accumulatedTime = new Time(dayStart);
@@ -124,20 +130,134 @@ public class CSP {
         taskMap.clear();
     }
 
+    /**
+     * remove task id together with its constraints; the last task takes its id, so that ids
+     * stay 0 .. getTaskCount() - 1
+     */
+    void removeTask(final int id) {
+        Task task = getTask(id);
+        accumulatedTime = accumulatedTime.subtractTime(task.getDuration());
+        int last = taskCount - 1;
+        setTask(id, null);
+        if (id != last) {
+            Task moved = taskMap.get(last);
+            setTask(last, null);
+            if (moved instanceof FixedTask) {
+                setTask(id, new FixedTask(moved.getDomain().getTimeSlice(0).getStartTime(),
+                        moved.getDomain().getTimeSlice(0).getEndTime(), id));
+            } else {
+                setTask(id, new FlexibleTask(moved.getDuration(), id));
+            }
+        }
+        taskCount--;
+        if (constraints != null) {
+            constraints.removeVertex(id);
+        }
+    }
+
+    /**
+     * make task id a flexible task of the given duration, keeping its constraints
+     *
+     * @return boolean true if the change resulted in a overtime, then the task is unchanged
+     */
+    boolean changeFlexibleTask(final int id, final Time duration) {
+        if (!replaceDuration(getTask(id), duration)) {
+            return overtime;
+        }
+        setTask(id, new FlexibleTask(duration, id));
+        return overtime;
+    }
+
+    /**
+     * make task id a fixed task from startTime to endTime, keeping its constraints
+     *
+     * @return boolean true if the change resulted in a overtime, then the task is unchanged
+     */
+    boolean changeFixedTask(final int id, final Time startTime, final Time endTime) {
+        if (!replaceDuration(getTask(id), endTime.subtractTime(startTime))) {
+            return overtime;
+        }
+        setTask(id, new FixedTask(startTime, endTime, id));
+        return overtime;
+    }
+
+    // account for task taking duration instead of its own, unless the day is too short for it
+    private boolean replaceDuration(Task task, Time duration) {
+        Time accumulated = accumulatedTime.subtractTime(task.getDuration()).addTime(duration);
+        if (accumulated.compareTime(dayEnd) > 0) {
+            overtime = true;
+            System.out.println("not enough remaining working time for this task");
+            return false;
+        }
+        accumulatedTime = accumulated;
+        return true;
+    }
+
+    private Task getTask(int id) {
+        Task task = taskMap.get(id);
+        if (task == null) {
+            throw new IllegalArgumentException("no task with id " + id);
+        }
+        return task;
+    }
+
+    // put task at id in the task map and the id sets, or only remove the task there if null
+    private void setTask(int id, Task task) {
+        taskMap.remove(id);
+        fixedTaskIdSet.remove(id);
+        flexibleTaskIdSet.remove(id);
+        if (task == null) {
+            return;
+        }
+        taskMap.put(id, task);
+        if (task instanceof FixedTask) {
+            fixedTaskIdSet.add(id);
+        } else {
+            flexibleTaskIdSet.add(id);
+        }
+    }
+
     public void createConstraintGraph() {
         constraints = new ConstraintGraph(taskCount);
     }
 
-    public void addConstraint(final int id1, final int id2, int weight) {// id1 -> id2 (task with id1 before task with id2)
-        constraints.addConstraint(id1, id2, weight);
+    /**
+     * task id1 has to end at least weight minutes before task id2 starts;
+     * a negative weight counts as 0
+     *
+     * @return false if the constraint is rejected because it closes a cycle of constraints,
+     * then isConstraintsConflict() is true until a deleted constraint breaks the cycle
+     */
+    public boolean addConstraint(final int id1, final int id2, int weight) {// id1 -> id2 (task with id1 before task with id2)
+        return constraints.addConstraint(id1, id2, weight);
+    }
+
+    /**
+     * task id2 has to start at least minGap and at most maxGap minutes after task id1 ends
+     *
+     * @return false if the constraint is rejected because it closes a cycle of constraints,
+     * then isConstraintsConflict() is true until a deleted constraint breaks the cycle
+     */
+    public boolean addConstraint(final int id1, final int id2, int minGap, int maxGap) {
+        if (minGap < 0 || maxGap < minGap) {
+            throw new IllegalArgumentException("gaps have to satisfy 0 <= minGap <= maxGap");
+        }
+        // kept even if the constraint is rejected, for when a deletion lets it in
+        constraints.addMaxGap(id1, id2, maxGap);
+        return constraints.addConstraint(id1, id2, minGap);
     }
 
     void deleteConstraint(final int id1, final int id2, int weight) {
         constraints.deleteConstraint(id1, id2, weight);
     }
 
+    void deleteMaxGap(final int id1, final int id2, int maxGap) {
+        constraints.deleteMaxGap(id1, id2, maxGap);
+    }
+
     /**
-     * detect whether initial constraints conflict with each other
+     * detect whether initial constraints conflict with each other; a conflicting constraint
+     * is found in addConstraint() already, so this takes O(1)
      *
      * @return boolean true if conflict, otherwise false;
      */
@@ -146,18 +266,13 @@ public class CSP {
         return constraints.isCyclic();
     }
 
-    // adjacency list used to return constraint graph as undirected one
-    LinkedList<AdjListNode>[] getUndirectedAdjList() {
-        return constraints.getUndirectedAdjacentList(); // this is a  reference to original object
-    }
-
-    // used to return all the directed arcs of the constraint graph
+    // used to return a copy of all the directed arcs of the constraint graph
     LinkedList<Arc> getConstraintArcs() {
-        return constraints.getArcs(); //this is a  reference reference to original object
+        return constraints.getArcs();
     }
 
-    // used to return  matrix representation of constraint graph
-    int[][] getGraphMatrix() {
-        return constraints.getMatrix(); // this is a  reference reference to original object
+    // used to return the arcs limiting the time between two tasks
+    LinkedList<Arc> getMaxGaps() {
+        return constraints.getMaxGaps();
     }
 }
\ No newline at end of file
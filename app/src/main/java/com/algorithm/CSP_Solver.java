@@ -1,300 +1,597 @@
 package com.algorithm;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 public class CSP_Solver {
+    // nogoods kept by the search, and the longest nogood kept
+    private static final int NOGOOD_CAPACITY = 256;
+    private static final int NOGOOD_MAX_LENGTH = 8;
+
     private CSP problem;
 
     private ConstraintGraph constraints;
     private Map<Integer, Task> taskMap;// <identifier, task>
-    private LinkedList<AdjListNode> undirectedAdj[];
-    private LinkedList<Arc> arcs;
-    private int[][] graphMatrix;
+    // the constraints with their gaps, and the precedences added to break symmetries, as
+    // bounds between start times
+    private TemporalNetwork network;
 
     private int taskCount;
-    private List<TaskAssignment> assignment;
-    private Map<Integer, TimeSlice> assignedMap;// <identifier, TimeSlice>
+    // start and end minute of the slice currently assigned to each task, indexed by task id
+    private int[] assignedStart;
+    private int[] assignedEnd;
     private List<List<TaskAssignment>> solutions;
-    private int solutionCountMax;
+    // adds to solutions, shared with the workers of a parallel search and with the other
+    // solvers of a PortfolioSolver
+    private SolutionCollector collector;
+    // set by cancel(), shared with the workers of a parallel search
+    private AtomicBoolean cancelled;
+    // steps getSolutions() searches with, from coarse to fine
+    private List<Time> stepList;
+    // System.nanoTime() at which a search with a time budget stops
+    private boolean hasDeadline;
+    private long deadline;
+    // whether the last search was stopped by its time budget or by cancel()
+    private boolean truncated;
+    // System.nanoTime() at which a pull of a solution iterator with a time budget pauses the
+    // search, which the next pull goes on with
+    private boolean hasPullDeadline;
+    private long pullDeadline;
+    // whether the search is paused at the deadline of a pull
+    private boolean paused;
+
+    // domain of each task, indexed by task id
+    private Domain[] taskDomains;
+    // available values of each task's domain, indexed by task id
+    private BitDomain[] domains;
+    // undo stack for changes made to domains during search
+    private DomainTrail trail;
+    // removes values breaking precedence constraints
+    private PrecedencePropagator propagator;
+    // removes values which cannot fit among the other tasks of the day, null when disabled
+    private DisjunctivePropagator disjunctive;
+    // reason on all tasks of the day together, enabled by default
+    private boolean disjunctiveReasoning;
+
+    // carry step-independent pruning from one step to the next in getSolutions()
+    private boolean incrementalRefinement;
+    // bounds on the start minute of each task which hold for every step, indexed by task id
+    private int[] earliestStart;
+    private int[] latestStart;
+
+    // chooses which task the search branches on next
+    private VariableOrderingStrategy variableOrdering;
+    // chooses the order in which the values of that task are tried
+    private ValueOrderingStrategy valueOrdering;
+    // visited[id] is true iff task id has got an assignment in the current search path
+    private boolean[] visited;
+    // explicit stack of the search, level d assigns the d-th task: it branches on task
+    // branchTask[d] and tries valueBuffers[d][nextValue[d] .. valueEnd[d]) in this order.
+    // if valueDirection[d] is 1 (or -1), the values are instead found one at a time in the
+    // bit domain of the task, in ascending (descending) order from index nextValue[d]
+    private int[] branchTask;
+    private int[][] valueBuffers;
+    private int[] nextValue;
+    private int[] valueEnd;
+    private int[] valueDirection;
+    // direction of the values tried at every level if valueOrdering tries them in domain
+    // order, 0 if it reorders them
+    private int valueOrderDirection;
+    // trail mark taken before the value tried last at each level, -1 once it is repealed
+    private int[] levelMarks;
+    // deepest level of the search, rootLevel - 1 when the search tree is exhausted
+    private int level;
+    // first level of the search, above 0 for the workers of a parallel search
+    private int rootLevel;
+    // index in stepList of the step being searched
+    private int stepIndex;
+
+    // conflict-directed backjumping, enabled by default
+    private boolean backjumping;
+    // levels whose assignments removed values of each task
+    private ConflictSets conflictSets;
+    // conflictSets mark taken before the value tried last at each level
+    private int[] conflictMarks;
+    // levels explaining why the values tried at each level failed
+    private long[][] levelConflicts;
+    // true for levels which cannot backjump, because a solution was found below them or the
+    // failure below them depends on every assignment
+    private boolean[] chronological;
+    // level each assigned task was assigned at
+    private int[] taskLevel;
+    // assignments proven to have no solution with the domains of the current step
+    private NogoodStore nogoods;
+    private int[] nogoodTasks;
+    private int[] nogoodStarts;
+
+    // domains of flexible tasks shared with other solvers of the same day, may be null
+    private DomainCache domainCache;
+    // bounds and pre-processed domains kept from earlier searches of the day, may be null
+    private PropagatedState propagatedState;
+    // tasks of symmetry breaking precedences propagatedState did not know, whose kept
+    // domains have to be propagated again
+    private boolean[] newPrecedenceTasks;
+    // order interchangeable tasks by id while searching solutions, disabled by default
+    private boolean symmetryBreaking;
+    // tasks with different keys are never interchangeable, indexed by task id; may be null
+    private Object[] equivalenceKeys;
+
+    // objective of getBestSolution(), null when searching for any solutions
+    private ScheduleObjective objective;
+    // cost of the best complete assignment found by getBestSolution() so far
+    private long bestCost;
+
+    // number of threads searching in getSolutions(), 1 searches in the calling thread only
+    private int parallelism;
+    // runs the subtrees of a parallel search, null while not searching in parallel
+    private ExecutorService executor;
+    // subtrees submitted to executor and not yet waited for, returning the stats of their search
+    private List<Future<SolverStats>> pendingWorkers;
+
+    // statistics of the last search, and the listener told about its progress, may be null
+    private SolverStats stats;
+    private SolverListener listener;
 
     public CSP_Solver(CSP problem1) {
-        this.problem = problem1;
-        constraints = problem.getConstraints();
-        taskMap = problem.getTaskMap();
-        undirectedAdj = constraints.getUndirectedAdjacentList();// reference to original object
-        arcs = constraints.getArcs();// reference to original object
-        graphMatrix = constraints.getMatrix(); // reference to original object
-        taskCount = problem.getTaskCount();
-        assignment = new ArrayList<TaskAssignment>(problem.getTaskCount());
-        assignedMap = new HashMap<Integer, TimeSlice>();
-        solutions = new LinkedList<>();
-        solutionCountMax = 5;
+        this(problem1, 5);
     }
 
     public CSP_Solver(CSP problem1, int solutionCountMax) {
+        this(problem1, new SolutionCollector(solutionCountMax));
+    }
+
+    /*
+     * create a solver adding its solutions to collector, which may be shared with other solvers
+     */
+    CSP_Solver(CSP problem1, SolutionCollector collector) {
         this.problem = problem1;
         constraints = problem.getConstraints();
         taskMap = problem.getTaskMap();
-        undirectedAdj = constraints.getUndirectedAdjacentList();// reference to original object
-        arcs = constraints.getArcs();// reference to original object
-        graphMatrix = constraints.getMatrix(); // reference to original object
         taskCount = problem.getTaskCount();
-        assignment = new ArrayList<TaskAssignment>(problem.getTaskCount());
-        assignedMap = new HashMap<Integer, TimeSlice>();
-        solutions = new LinkedList<>();
-        this.solutionCountMax = solutionCountMax;
+        assignedStart = new int[taskCount];
+        assignedEnd = new int[taskCount];
+        this.collector = collector;
+        solutions = collector.getSolutions();
+        cancelled = new AtomicBoolean(false);
+        stepList = defaultStepList();
+        taskDomains = new Domain[taskCount];
+        domains = new BitDomain[taskCount];
+        trail = new DomainTrail();
+        incrementalRefinement = true;
+        variableOrdering = new TopologicalOrdering();
+        valueOrdering = new EarliestStartValueOrdering();
+        visited = new boolean[taskCount];
+        branchTask = new int[taskCount];
+        valueBuffers = new int[taskCount][];
+        nextValue = new int[taskCount];
+        valueEnd = new int[taskCount];
+        valueDirection = new int[taskCount];
+        levelMarks = new int[taskCount];
+        level = -1;
+        backjumping = true;
+        symmetryBreaking = false;
+        disjunctiveReasoning = true;
+        stats = new SolverStats();
+        conflictSets = new ConflictSets(taskCount);
+        taskLevel = new int[taskCount];
+        createBackjumpingState();
+        parallelism = 1;
+    }
+
+    // state of backjumping which is not shared with or copied from a parent solver
+    private void createBackjumpingState() {
+        conflictMarks = new int[taskCount];
+        levelConflicts = new long[taskCount][ConflictSets.wordCount(taskCount)];
+        chronological = new boolean[taskCount];
+        nogoods = new NogoodStore(NOGOOD_CAPACITY, NOGOOD_MAX_LENGTH);
+        nogoodTasks = new int[NOGOOD_MAX_LENGTH];
+        nogoodStarts = new int[NOGOOD_MAX_LENGTH];
+    }
+
+    /*
+     * create a worker searching a subtree of parent's search in another thread.
+     * the worker gets its own copy of the search state of parent as it is now, and shares
+     * with parent what does not change while searching: the problem, the domains of the
+     * current step, the ordering strategies and the solution collector.
+     */
+    private CSP_Solver(CSP_Solver parent) {
+        problem = parent.problem;
+        constraints = parent.constraints;
+        taskMap = parent.taskMap;
+        network = parent.network;
+        taskCount = parent.taskCount;
+        assignedStart = parent.assignedStart.clone();
+        assignedEnd = parent.assignedEnd.clone();
+        solutions = parent.solutions;
+        collector = parent.collector;
+        cancelled = parent.cancelled;
+        stepList = parent.stepList;
+        hasDeadline = parent.hasDeadline;
+        deadline = parent.deadline;
+        taskDomains = parent.taskDomains;
+        domains = new BitDomain[taskCount];
+        for (int id = 0; id < taskCount; id++) {
+            domains[id] = new BitDomain(parent.domains[id]);
+        }//for
+        trail = new DomainTrail();
+        variableOrdering = parent.variableOrdering;
+        valueOrdering = parent.valueOrdering;
+        valueOrderDirection = parent.valueOrderDirection;
+        visited = parent.visited.clone();
+        // the levels above the worker keep the assignments of parent
+        branchTask = parent.branchTask.clone();
+        valueBuffers = new int[taskCount][];
+        nextValue = new int[taskCount];
+        valueEnd = new int[taskCount];
+        valueDirection = new int[taskCount];
+        levelMarks = new int[taskCount];
+        level = -1;
+        backjumping = parent.backjumping;
+        domainCache = parent.domainCache;
+        // added to the stats of parent when the worker is done
+        stats = new SolverStats();
+        conflictSets = new ConflictSets(parent.conflictSets);
+        taskLevel = parent.taskLevel.clone();
+        createBackjumpingState();
+        parallelism = 1;
+        disjunctiveReasoning = parent.disjunctiveReasoning;
+        createPropagators();
+    }
+
+    // propagators working on the domains of this solver
+    private void createPropagators() {
+        propagator = new PrecedencePropagator(network, taskDomains, domains, trail, visited,
+                assignedStart);
+        disjunctive = null;
+        if (disjunctiveReasoning) {
+            disjunctive = new DisjunctivePropagator(taskDomains, domains, trail, propagator,
+                    visited, assignedStart, assignedEnd);
+        }
+        if (backjumping) {
+            propagator.setConflictSets(conflictSets, taskLevel);
+            if (disjunctive != null) {
+                disjunctive.setConflictSets(conflictSets, taskLevel);
+            }
+        }
     }
 
     /**
-     * check whether domains of related tasks are consistent.
-     * input argument q is a list of arcs need to check
-     * return a hash map recording indices of new unavailable time slice in domain of each
-     * considered task
-     */
-    HashMap<Integer, Set<Integer>> constraintConsistencyCheck(final LinkedList<Arc> q) {
-        LinkedList<Arc> queue = new LinkedList<Arc>(q);
-        Arc edge;
-        // <task id, indices of new unavailable time slice in domain of corresponding task >
-        HashMap<Integer, Set<Integer>> taskDomainChangedSet = new HashMap<Integer, Set<Integer>>();
-        while ((edge = queue.peekFirst()) != null) {// retrieve the fist element
-            int u, v;
-            u = edge.getU();
-            v = edge.getV();
-            Set<Integer> domainChangedSet = new HashSet<Integer>();
-            // edges' direction can be u->v or v->u
-            // check from u to v  and mark inconsistent domain value of vertex u
-            if (markInconsistentValues(u, v, domainChangedSet)) {
-                taskDomainChangedSet.put(u, domainChangedSet);
-                LinkedList<AdjListNode> vertexList = undirectedAdj[u];
-                for (AdjListNode aVertexList : vertexList) {// explore adjacent vertex/task
-                    int v1 = aVertexList.getVertex();
-                    queue.add(new Arc(v1, u, 0));
-                }//while
-            }//if
-            queue.remove();//remove the first element of this list
-        }//while
-        return taskDomainChangedSet;
-    }//method
+     * set the strategy choosing the next task to branch on during search;
+     * the default is TopologicalOrdering
+     */
+    public void setVariableOrderingStrategy(VariableOrderingStrategy variableOrdering) {
+        this.variableOrdering = variableOrdering;
+    }
 
     /**
-     * return true if at least one inconsistent value is marked as unavailable from domain of u
-     * check constraint from u to v for edge u->v or edge v->u
-     * constraint from u to v is valid iff for every domain value of u there exists some applicable
-     * domain value of v
+     * set the listener told when each step and the whole search are finished, or null
      */
-    boolean markInconsistentValues(final int u, final int v, final Set<Integer> domainChangedSet) {
-        boolean inconsistent = false;
-        List<TimeSlice> domainU = taskMap.get(u).getDomainArrayList();
-        List<TimeSlice> domainV = taskMap.get(v).getDomainArrayList();
+    public void setListener(SolverListener listener) {
+        this.listener = listener;
+    }
 
-        //check constraint from u to v
-        for (int i = 0; i < domainU.size(); i++) {
-            if (!domainU.get(i).getAvailable()) continue;
-            TimeSlice timeSliceOfU = domainU.get(i);
-            boolean unavailable = true;
-            for (int j = domainV.size() - 1; j >= 0; j--) {
-                if (!domainV.get(j).getAvailable()) {
-                    continue;
-                }
-                TimeSlice timeSliceOfV = domainV.get(j);
-                if (graphMatrix[u][v] > 0) {// edge is u->v
-                    if (timeSliceOfU.isBefore(timeSliceOfV)) {// there exists at least one timeSliceOfV making timeSliceOfU can keep staying in domainU as available
-                        unavailable = false;// found a timeSliceOfV making  timeSliceOfU available
-                        break;
-                    }//if
-                } else {// edge is v->u
-                    if (timeSliceOfV.isBefore(timeSliceOfU)) {// there exists at least one timeSliceOfV making timeSliceOfU can keep staying in domainU as available
-                        unavailable = false;// found a timeSliceOfV making  timeSliceOfU available
-                        break;
-                    }//if
-                }//if
-            }//for
-            if (unavailable) {
-                inconsistent = true;
-                domainU.get(i).setAvailable(false);//set timeSlice of u's domain  at index i as unavailable
-                domainChangedSet.add(i);
-            }//for
-        }//for
-        return inconsistent;
-    }//method
+    /**
+     * return the statistics of the last getSolutions(), getBestSolution() or solution iterator
+     * search; they are complete once the search has finished
+     */
+    public SolverStats getStats() {
+        return stats;
+    }
 
+    /**
+     * set the strategy choosing the order in which values of a task are tried during search;
+     * the default is EarliestStartValueOrdering
+     */
+    public void setValueOrderingStrategy(ValueOrderingStrategy valueOrdering) {
+        this.valueOrdering = valueOrdering;
+    }
 
     /**
-     * input argument q is a list of arcs say from u to v,where v has got an assignment and u haven't
-     * check constraint from u to v
-     * return a hash map recording indices of new unavailable time slice in domain of each u
-     */
-    HashMap<Integer, Set<Integer>> directedConstraintCheck(LinkedList<Arc> q) {
-        LinkedList<Arc> queue = new LinkedList<Arc>(q);
-        Arc edge;
-        // <task id, indices of new unavailable time slice in domain of corresponding task >
-        HashMap<Integer, Set<Integer>> taskDomainChangedSet = new HashMap<Integer, Set<Integer>>();
-        while ((edge = queue.peekFirst()) != null) {// retrieve the fist element
-            int u, v;
-            u = edge.getU();
-            v = edge.getV();
-
-            Set<Integer> domainChangedSet = new HashSet<Integer>();
-            // edges' direction can be u->v or v->u
-            // check from u to v  and mark inconsistent domain value of vertex u
-            if (markInconsistentValues2(u, v, domainChangedSet)) {
-                taskDomainChangedSet.put(u, domainChangedSet);
-            }//if
-            queue.remove();//remove the first element of this list
-        }//while
-        return taskDomainChangedSet;
-    }//method
+     * set the number of threads getSolutions() searches with (1 by default).
+     * with more than one thread, the values of the first task having more than one value left
+     * are split between the threads, and solutions are returned in the order they are found,
+     * which may differ from one call to the next.
+     * the ordering strategies are shared by all threads and have to be thread-safe.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
 
+    /**
+     * set the steps getSolutions() initializes flexible task domains with, tried in the given
+     * order; the default is 1h, 30, 15, 10, 5 and 1 minutes
+     */
+    public void setStepList(List<Time> stepList) {
+        if (stepList.isEmpty()) {
+            throw new IllegalArgumentException("at least one step is needed");
+        }
+        this.stepList = new ArrayList<Time>(stepList);
+    }
+
+    static List<Time> defaultStepList() {
+        ArrayList<Time> stepList = new ArrayList<Time>();
+        stepList.add(new Time(1, 0)); // 1h
+        stepList.add(new Time(0, 30)); // 30 minutes
+        stepList.add(new Time(0, 15)); // 15 minutes
+        stepList.add(new Time(0, 10)); // 10 minutes
+        stepList.add(new Time(0, 5)); // 5 minutes
+        stepList.add(new Time(0, 1)); // 1 minute
+        return stepList;
+    }
 
     /**
-     * check constraint from  u to v,where v has got an assignment and u haven't been assigned ;
-     * return true if at least one inconsistent value is marked as unavailable from domain of u ;
-     * domain time slice of u will be marked as unavailable,
-     * if it cannot conform the constraint with v for v's specified assigned time slice ;
-     */
-    boolean markInconsistentValues2(final int u, final int v, final Set<Integer> domainChangedSet) {
-        boolean inconsistent = false;
-        List<TimeSlice> domainU = taskMap.get(u).getDomainArrayList();
-        TimeSlice timeSliceOfV = assignedMap.get(v);
-
-        //check constraint from u to v
-        for (int i = 0; i < domainU.size(); i++) {
-            if (!domainU.get(i).getAvailable()) continue;
-            TimeSlice timeSliceOfU = domainU.get(i);
-            boolean unavailable = true;
-            if (graphMatrix[u][v] > 0) {
-                if (timeSliceOfU.isBefore(timeSliceOfV)) {
-                    // there exists at least one timeSliceOfV making timeSliceOfU can keep staying in domainU as available
-                    unavailable = false; // found a timeSliceOfV making  timeSliceOfU available
-                }//if
-            } else {// edge is v->u
-                if (timeSliceOfV.isBefore(timeSliceOfU)) {
-                    // there exists at least one timeSliceOfV making timeSliceOfU can keep staying in domainU as available
-                    unavailable = false;// found a timeSliceOfV making  timeSliceOfU available
-                }//if
-            }//if
-            if (unavailable) {
-                inconsistent = true;
-                domainU.get(i).setAvailable(false);//set timeSlice of u's domain  at index i as unavailable
-                domainChangedSet.add(i);
-            }//for
-        }//for
-        return inconsistent;
-    }//method
+     * stop a running getSolutions() as soon as possible; it returns the solutions found so far.
+     * may be called from any thread, later calls of getSolutions() return without searching
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    // number of solutions found so far
+    int getSolutionCount() {
+        return collector.size();
+    }
+
+    int getTaskCount() {
+        return taskCount;
+    }
+
+    Domain getTaskDomain(int id) {
+        return taskDomains[id];
+    }
+
+    BitDomain getBitDomain(int id) {
+        return domains[id];
+    }
 
     /**
-     * the task with id has got an assignment, using below method to mark others task's
-     * domainArrayList which duplicates with that assignment
+     * return >0 if task u has to happen before task v, <0 if after, 0 if they are not constrained
      */
+    int getConstraintDirection(int u, int v) {
+        return constraints.getDirection(u, v);
+    }
 
-    HashMap<Integer, Set<Integer>> directedCheckAndMarkOverlap(
-            int id,
-            HashMap<Integer, Boolean> visited) {
-        HashMap<Integer, Set<Integer>> taskDomainChangedSet = new HashMap<Integer, Set<Integer>>();
-        TimeSlice timeSlice1 = assignedMap.get(id);
-        int count = taskMap.size();
+    // duration of task id in minutes
+    int getTaskDuration(int id) {
+        return taskMap.get(id).getDuration().toMinutes();
+    }
 
-        for (int i = 0; i < count; i++) {
-            if (i == id || visited.get(i)) continue;
-            List<TimeSlice> domainArrayList = taskMap.get(i).getDomainArrayList();
-            Set<Integer> domainChangedSet = new HashSet<Integer>();
+    // start minute of the slice assigned to task id, valid while isAssigned(id)
+    int getAssignedStart(int id) {
+        return assignedStart[id];
+    }
 
-            for (int j = 0; j < domainArrayList.size(); j++) {
-                if (!domainArrayList.get(j).getAvailable()) continue;
+    // end minute of the slice assigned to task id, valid while isAssigned(id)
+    int getAssignedEnd(int id) {
+        return assignedEnd[id];
+    }
 
-                TimeSlice timeSlice2 = domainArrayList.get(j);
-                if (timeSlice1.isOverlap(timeSlice2)) {
-                    timeSlice2.setAvailable(false);
-                    domainChangedSet.add(j);
-                }
-            }//for
-            taskDomainChangedSet.put(i, domainChangedSet);
+    boolean isAssigned(int id) {
+        return visited[id];
+    }
+
+    // number of values still available in the domain of task id
+    int getDomainCount(int id) {
+        return domains[id].count();
+    }
+
+    // number of constraints between task id and tasks which have not got an assignment yet
+    int getUnassignedDegree(int id) {
+        int degree = 0;
+        for (int i = 0; i < constraints.getNeighbourCount(id); i++) {
+            if (!visited[constraints.getNeighbour(id, i)]) {
+                degree++;
+            }
         }//for
-        return taskDomainChangedSet;
+        return degree;
     }
 
     /**
-     * get a list of arcs connected with vertex u and adjacent
+     * enable or disable incremental step refinement in getSolutions() (enabled by default).
+     * when enabled, start time bounds derived from the constraints are computed once at minute
+     * resolution and applied to the domains of every step, and steps whose domains are emptied
+     * by pre-processing are skipped without searching.
      */
-    LinkedList<Arc> getRelatedArcs(int u, HashMap<Integer, Boolean> visited) {
-        LinkedList<Arc> queue = new LinkedList<Arc>();
-        LinkedList<AdjListNode> vertexList = undirectedAdj[u];
-        for (AdjListNode aVertexList : vertexList) {
-            int v = aVertexList.getVertex();
-            // if task v has already been assigned/visited, its affection to u's domain has already been considered
-            // and also we do not need to consider u's affection to v, as v was  assigned
-            if (!visited.get(v)) {
-                queue.add(new Arc(v, u, 0));// for later check from v to u
-            }
+    public void setIncrementalRefinement(boolean incrementalRefinement) {
+        this.incrementalRefinement = incrementalRefinement;
+    }
+
+    /**
+     * enable or disable conflict-directed backjumping (enabled by default).
+     * when enabled, the search records which assignments removed values of each task. once
+     * every value of a task has failed, it goes back directly to the deepest assignment
+     * responsible for the failures instead of the previous one, and remembers the responsible
+     * assignments as a nogood, which fails at once when the search meets it again.
+     * only parts of the search tree without solution are skipped, so the solutions found are
+     * the same either way
+     */
+    public void setBackjumping(boolean backjumping) {
+        this.backjumping = backjumping;
+    }
+
+    /**
+     * enable or disable symmetry breaking in getSolutions() and solutionIterator() (disabled
+     * by default).
+     * flexible tasks of the same duration with the same constraints can swap their time slices
+     * in every solution. when enabled, such tasks are only tried in ascending order of id, so
+     * each schedule is found once instead of once per order of the interchangeable tasks.
+     * tasks which differ in a way the solver does not see, such as their titles, are different
+     * schedules when swapped; give them different keys with setEquivalenceKeys().
+     * getBestSolution() never breaks symmetries, since its objective may tell the tasks apart
+     */
+    public void setSymmetryBreaking(boolean symmetryBreaking) {
+        this.symmetryBreaking = symmetryBreaking;
+    }
+
+    /**
+     * set the key of each task, indexed by task id, for symmetry breaking: only tasks with
+     * equal keys are interchangeable. null, the default, lets any tasks be interchangeable
+     */
+    public void setEquivalenceKeys(Object[] equivalenceKeys) {
+        if (equivalenceKeys != null && equivalenceKeys.length != taskCount) {
+            throw new IllegalArgumentException("one key is needed for every task");
+        }
+        this.equivalenceKeys = equivalenceKeys == null ? null : equivalenceKeys.clone();
+    }
+
+    /**
+     * enable or disable reasoning on all tasks of the day together (enabled by default).
+     * when enabled, propagation also removes the values of a task which cannot fit among the
+     * other tasks, using their bounds: the part of the day a task surely occupies, sets of
+     * tasks which have to come before or after a task (edge finding) and tasks which cannot be
+     * the first or last of a set. a day whose remaining tasks cannot fit is found out several
+     * levels earlier than by the overlap of assigned tasks alone, and the solutions found are
+     * the same either way
+     */
+    public void setDisjunctiveReasoning(boolean disjunctiveReasoning) {
+        this.disjunctiveReasoning = disjunctiveReasoning;
+    }
+
+    /**
+     * take the domains of flexible tasks from cache instead of building them for every search;
+     * cache has to be made for the day bounds of the problem
+     */
+    void setDomainCache(DomainCache cache) {
+        if (cache != null && !cache.isFor(problem.getDayStart(), problem.getDayEnd())) {
+            throw new IllegalArgumentException("domain cache of another day");
         }
-        return queue;
+        domainCache = cache;
+    }
+
+    /**
+     * start from the bounds and pre-processed domains state kept from earlier searches, and
+     * keep those of this search there; state has to be made for the tasks of the problem
+     */
+    void setPropagatedState(PropagatedState state) {
+        if (state != null && state.getTaskCount() != taskCount) {
+            throw new IllegalArgumentException("propagated state of another problem");
+        }
+        propagatedState = state;
+    }
+
+    /**
+     * check whether domains of related tasks are consistent.
+     * values which cannot satisfy the precedence constraints with the bounds of the other
+     * domains are removed from the bit domains and saved on the trail
+     *
+     * @return the id of a task left without available values, or -1 if there is none
+     */
+    int constraintConsistencyCheck() {
+        propagator.enqueueAll();
+        return propagate();
     }//method
 
+    /*
+     * propagate the queued tasks, counting the removed values and the time it takes.
+     * once the precedences are consistent, the disjunctive propagator reasons on all tasks,
+     * until neither of them removes a value any more
+     */
+    private int propagate() {
+        long removedBefore = propagator.getRemovedCount();
+        long disjunctiveBefore = disjunctive == null ? 0 : disjunctive.getRemovedCount();
+        long start = System.nanoTime();
+        int wipedOut = propagator.propagate();
+        while (wipedOut < 0 && disjunctive != null) {
+            long passBefore = disjunctive.getRemovedCount();
+            wipedOut = disjunctive.propagate();
+            if (wipedOut >= 0) {
+                propagator.clear();
+                break;
+            }
+            if (disjunctive.getRemovedCount() == passBefore) {
+                break;
+            }
+            wipedOut = propagator.propagate();
+        }//while
+        stats.addPropagationNanos(System.nanoTime() - start);
+        stats.addPrunedByConsistency(propagator.getRemovedCount() - removedBefore);
+        if (disjunctive != null) {
+            stats.addPrunedByDisjunctive(disjunctive.getRemovedCount() - disjunctiveBefore);
+        }
+        return wipedOut;
+    }
+
     /**
-     * updating domain mark of tasks affected by  the domain mark change of task whose identifier equals to id
-     * return a hash map recording indices of new unavailable time slice in domain of each affected task
-     */
-    HashMap<Integer, Set<Integer>> updateRelatedDomainMark(
-            int id, HashMap<Integer, Boolean> visited) {
-        LinkedList<Arc> queue;
-        HashMap<Integer, Set<Integer>> taskDomainChangedSet1,
-                taskDomainChangedSet2,
-                taskDomainChangedSet;
-        taskDomainChangedSet = new HashMap<Integer, Set<Integer>>();
-        queue = getRelatedArcs(id, visited);
-
-        taskDomainChangedSet1 = directedConstraintCheck(queue);
-        taskDomainChangedSet2 = directedCheckAndMarkOverlap(id, visited);
+     * the task with id has got an assignment, using below method to mark others task's
+     * domain values which duplicate with that assignment.
+     * domains are sorted by start time, so the overlapping values of each task form one index
+     * range found by two binary searches
+     *
+     * @return the id of a task left without available values, or -1 if there is none
+     */
+    int directedCheckAndMarkOverlap(int id) {
+        int start = assignedStart[id];
+        int end = assignedEnd[id];
         int count = taskMap.size();
 
         for (int i = 0; i < count; i++) {
-            Set<Integer> set1, set2, set;
-            set = new HashSet<Integer>();
-
-            if (taskDomainChangedSet1.get(i) != null && taskDomainChangedSet2.get(i) != null) {
-                set1 = taskDomainChangedSet1.get(i);
-                set2 = taskDomainChangedSet2.get(i);
-                set.addAll(set1);
-                set.addAll(set2);
-            } else if (taskDomainChangedSet1.get(i) != null) {
-                set1 = taskDomainChangedSet1.get(i);
-                set.addAll(set1);
-            } else if (taskDomainChangedSet2.get(i) != null) {
-                set2 = taskDomainChangedSet2.get(i);
-                set.addAll(set2);
-            } else {
-                continue;//both null
+            if (i == id || visited[i]) continue;
+            Domain domain = taskDomains[i];
+            BitDomain bits = domains[i];
+
+            // two slices overlap unless one ends before the other starts
+            int removed = bits.removeRange(domain.firstEndingAfter(start), domain.lowerBound(end),
+                    i, trail);
+            if (removed == 0) continue;
+            stats.addPrunedByOverlap(removed);
+            if (backjumping) {
+                conflictSets.addLevel(i, taskLevel[id]);
+            }
+            if (bits.isEmpty()) {
+                return i;
             }
-            taskDomainChangedSet.put(i, set);
+            // the bounds of task i may have changed
+            propagator.enqueue(i);
         }//for
+        return -1;
+    }
 
-        //return combination of taskDomainChangedSet1 and taskDomainChangedSet2
-        return taskDomainChangedSet;// return task DomainChanged Set
+    /**
+     * updating domain mark of tasks affected by  the domain mark change of task whose identifier equals to id
+     * changes are recorded on the trail and undone by repealDomainMarkUpdate()
+     *
+     * @return the id of a task the assignment of task id left without available values,
+     * or -1 if there is none
+     */
+    int updateRelatedDomainMark(int id) {
+        int wipedOut = directedCheckAndMarkOverlap(id);
+        if (wipedOut < 0) {
+            // the tasks constrained with id only have to be consistent with its assigned slice
+            propagator.enqueue(id);
+            wipedOut = propagate();
+        }
+        if (wipedOut >= 0) {
+            variableOrdering.onWipeout(id, wipedOut);
+        }
+        return wipedOut;
     }//method
 
     /**
-     * set domain mark as available for domain values of each task given in taskDomainChangedSet
+     * set domain mark as available for every domain value removed since the given trail mark
      */
-    void repealDomainMarkUpdate(HashMap<Integer, Set<Integer>> taskDomainChangedSet) {
-        List<TimeSlice> domainArrayList;
-        Set<Integer> indices;
-        for (Integer key : taskDomainChangedSet.keySet()) {
-            indices = taskDomainChangedSet.get(key);
-            domainArrayList = taskMap.get(key).getDomainArrayList();
-            for (Integer i : indices) {
-                // making sure this setting is on the original domain of the task
-                // instead of the copy one
-                domainArrayList.get(i).setAvailable(true);
-            }//for
-        }//for
+    void repealDomainMarkUpdate(int mark) {
+        trail.undoTo(mark, domains);
     }//method
 
     /**
@@ -302,17 +599,143 @@ public class CSP_Solver {
      * fixed task domain is initialized when the task is created
      */
     void domainInitializationForAllTasks(Time step) {
-        // do not forget to set all available  as true when step is give a new value
+        // every value starts out available again when step is given a new value
+        trail.clear();
         for (Integer key : taskMap.keySet()) {
             Task task = taskMap.get(key);
             if (task instanceof FlexibleTask) {
-                task.initializeDomainSet(problem.getDayStart(), problem.getDayEnd(), step);
+                // not task.getDomain(), solvers running at the same time may use other steps
+                if (domainCache != null) {
+                    taskDomains[key] = domainCache.get(task.getDuration(), step);
+                } else {
+                    Domain domain = new Domain();
+                    domain.initializeDomainSet(problem.getDayStart(), problem.getDayEnd(),
+                            task.getDuration(), step);
+                    taskDomains[key] = domain;
+                }
             } else {
-                task.getDomainArrayList().get(0).setAvailable(true);
+                taskDomains[key] = task.getDomain();
             }
+            domains[key] = new BitDomain(taskDomains[key].size());
+        }//for
+    }
+
+    /**
+     * build the temporal network from the constraint graph.
+     * a constraint u -> v with weight w makes v start at least w minutes after u ends, and a
+     * max gap g on it at most g minutes after
+     */
+    void createPrecedenceLists() {
+        network = new TemporalNetwork(taskCount);
+        for (int u = 0; u < taskCount; u++) {
+            int duration = taskMap.get(u).getDuration().toMinutes();
+            for (int i = 0; i < constraints.getOutDegree(u); i++) {
+                network.addEdge(u, constraints.getSuccessor(u, i),
+                        duration + Math.max(0, constraints.getSuccessorWeight(u, i)));
+            }//for
+        }//for
+        for (Arc arc : constraints.getMaxGaps()) {
+            int duration = taskMap.get(arc.getU()).getDuration().toMinutes();
+            network.addEdge(arc.getV(), arc.getU(), -(duration + arc.getWeight()));
         }//for
     }
 
+    /**
+     * add a precedence from every interchangeable task to the next one of its group, so that
+     * the tasks of a group follow each other in ascending order of id.
+     * traverseOrder is changed to stay a topological order
+     *
+     * @return the precedences added, u -> v as u << 32 | v
+     */
+    Set<Long> addSymmetryBreakingPrecedences(int[] traverseOrder) {
+        Set<Long> precedences = new HashSet<Long>();
+        int[] position = new int[taskCount];
+        for (int i = 0; i < traverseOrder.length; i++) {
+            position[traverseOrder[i]] = i;
+        }//for
+        for (int[] group : InterchangeableTasks.find(problem, equivalenceKeys)) {
+            for (int i = 0; i + 1 < group.length; i++) {
+                int u = group[i];
+                int v = group[i + 1];
+                network.addEdge(u, v, taskMap.get(u).getDuration().toMinutes());
+                precedences.add(((long) u << 32) | v);
+            }//for
+            // the tasks of a group have the same predecessors and successors, so handing
+            // their positions out in id order keeps every constraint pointing forward
+            int[] positions = new int[group.length];
+            for (int i = 0; i < group.length; i++) {
+                positions[i] = position[group[i]];
+            }//for
+            Arrays.sort(positions);
+            for (int i = 0; i < group.length; i++) {
+                traverseOrder[positions[i]] = group[i];
+            }//for
+        }//for
+        return precedences;
+    }
+
+    /**
+     * compute earliestStart and latestStart for every task from the day bounds, the fixed task
+     * times and the temporal network, so that the bounds hold along every constraint and gap.
+     * the bounds do not depend on the step, so a start time outside them is infeasible at every step.
+     * traverseOrder has to be a topological order of the constraint graph.
+     * bounds known from earlier searches are started from, and the new ones kept there
+     *
+     * @return false if some task has no feasible start time at all
+     */
+    boolean computeStartBounds(int[] traverseOrder) {
+        int dayStart = problem.getDayStart().toMinutes();
+        int dayEnd = problem.getDayEnd().toMinutes();
+        earliestStart = new int[taskCount];
+        latestStart = new int[taskCount];
+        for (int id = 0; id < taskCount; id++) {
+            Task task = taskMap.get(id);
+            if (task instanceof FixedTask) {
+                earliestStart[id] = task.getDomain().getStart(0);
+                latestStart[id] = earliestStart[id];
+            } else {
+                earliestStart[id] = dayStart;
+                latestStart[id] = dayEnd - task.getDuration().toMinutes();
+            }
+        }//for
+        if (propagatedState != null) {
+            propagatedState.restrictStartBounds(earliestStart, latestStart);
+        }
+        if (!network.tightenBounds(traverseOrder, earliestStart, latestStart)) {
+            return false;
+        }
+        if (propagatedState != null) {
+            propagatedState.setStartBounds(earliestStart, latestStart);
+        }
+        return true;
+    }
+
+    /**
+     * remove domain values starting outside the bounds computed by computeStartBounds()
+     */
+    void restrictToStartBounds() {
+        for (int id = 0; id < taskCount; id++) {
+            Domain domain = taskDomains[id];
+            BitDomain bits = domains[id];
+            // domains are sorted by start time, so only a prefix and a suffix are removed
+            for (int i = 0; i < domain.size() && domain.getStart(i) < earliestStart[id]; i++) {
+                bits.remove(i, id, trail);
+            }//for
+            for (int i = domain.size() - 1; i >= 0 && domain.getStart(i) > latestStart[id]; i--) {
+                bits.remove(i, id, trail);
+            }//for
+        }//for
+    }
+
+    boolean hasEmptyDomain() {
+        for (int id = 0; id < taskCount; id++) {
+            if (domains[id].isEmpty()) {
+                return true;
+            }
+        }//for
+        return false;
+    }
+
     /**
      * return true if any two fixed task overlap with each other
      * otherwise false;
@@ -324,7 +747,7 @@ public class CSP_Solver {
             return false;
         }
         for (Integer id : fixedTaskIdSet) {
-            TimeSlice slice = taskMap.get(id).getDomainArrayList().get(0);
+            TimeSlice slice = taskMap.get(id).getDomain().getTimeSlice(0);
             sliceArrayList.add(slice);
         }
         //Ascending order
@@ -349,179 +772,761 @@ public class CSP_Solver {
         Set<Integer> flexibleTaskIdSet;
         fixedTaskIdSet = problem.getFixedTaskIdSet();
         flexibleTaskIdSet = problem.getFlexibleTaskIdSet();
-        List<TimeSlice> domain2;
+        Domain domain2;
 
         for (Integer id1 : fixedTaskIdSet) {
-            TimeSlice slice1 = taskMap.get(id1).getDomainArrayList().get(0);// fixed task only has one domain variable
+            // fixed task only has one domain variable
+            int start1 = taskDomains[id1].getStart(0);
+            int end1 = taskDomains[id1].getEnd(0);
             for (Integer id2 : flexibleTaskIdSet) {
-                domain2 = taskMap.get(id2).getDomainArrayList();
-                for (int i = 0; i < domain2.size(); i++) {
-                    TimeSlice slice2 = domain2.get(i);
-                    if (slice1.isOverlap(slice2)) {//overlap
-                        slice2.setAvailable(false);
-                    }
-                }//for
+                domain2 = taskDomains[id2];
+                //overlap
+                stats.addPrunedByOverlap(domains[id2].removeRange(domain2.firstEndingAfter(start1),
+                        domain2.lowerBound(end1), id2, trail));
             }//for
         }//for
     }
 
-    // equal: return true
-    // not equal : return false
-    boolean isEqualArrayList(List<TaskAssignment> a1, List<TaskAssignment> a2) {
-        if (a1.size() != a2.size()) {
+    /*
+     * run the checks and the set up which do not depend on the step,
+     * and reset the step loop of nextSolution() to the first step.
+     * package-private for the benchmarks, which time the steps of the search one by one
+     *
+     * @return false if the problem has no solution at any step
+     */
+    boolean prepareSearch() {
+        return prepareSearch(symmetryBreaking);
+    }
+
+    private boolean prepareSearch(boolean breakSymmetries) {
+        stats = new SolverStats();
+        truncated = false;
+        stepIndex = -1;
+        rootLevel = 0;
+        level = -1;
+        if ((problem.getFixedTaskIdSet().size() + problem.getFlexibleTaskIdSet().size())
+                != taskCount) {
+            return false;
+        }
+        if (problem.getOverTime()) {
+            return false;
+        }
+        if (isFixedTaskOverlap()) {
+            return false;
+        }
+        if (taskCount == 0) {
+            return false;
+        }
+        if (problem.getConstraints() != null
+                && problem.isConstraintsConflict()) {
             return false;
         }
 
-        for (int i = 0; i < a1.size(); i++) {
-            if (!a1.get(i).equals(a2.get(i))) {
-                return false;
-            }
-        }//for
+        int[] traverseOrder = constraints.GetTopologicalSort();
+        createPrecedenceLists();
+        // the bounds only depend on the constraints of the day, not on the symmetry breaking
+        // precedences, so that they can be kept for the next search after an edit
+        if (incrementalRefinement && !computeStartBounds(traverseOrder)) {
+            // no step can produce a solution
+            return false;
+        }
+        Set<Long> precedences = Collections.emptySet();
+        if (breakSymmetries) {
+            precedences = addSymmetryBreakingPrecedences(traverseOrder);
+        }
+        if (propagatedState != null) {
+            newPrecedenceTasks = new boolean[taskCount];
+            for (long precedence : propagatedState.updatePrecedences(precedences)) {
+                newPrecedenceTasks[(int) (precedence >>> 32)] = true;
+                newPrecedenceTasks[(int) precedence] = true;
+            }//for
+        }
+        createPropagators();
+        variableOrdering.initialize(this, traverseOrder);
+        valueOrdering.initialize(this);
+        // values tried in domain order need not be collected before branching
+        valueOrderDirection = Integer.signum(valueOrdering.getDomainOrder());
         return true;
     }
 
-    // duplicate: return true
-    //no duplicate: return false
-    boolean isDuplicatedSolution(List<TaskAssignment> a1) {
-        for (List<TaskAssignment> a2 : solutions) {
-            if (isEqualArrayList(a1, a2)) {
-                return true;
+    /*
+     * initialize and pre-process the domains for step.
+     * package-private for the benchmarks, which time the pre-processing of a step on its own
+     *
+     * @return false if pre-processing left some task without available values
+     */
+    boolean prepareStep(Time step) {
+        long start = System.nanoTime();
+        long propagationBefore = stats.getPropagationNanos();
+        try {
+            return prepareDomains(step);
+        } finally {
+            stats.addDomainNanos(System.nanoTime() - start
+                    - (stats.getPropagationNanos() - propagationBefore));
+        }
+    }
+
+    private boolean prepareDomains(Time step) {
+        if (propagatedState != null && propagatedState.isFailedStep(step.toMinutes())) {
+            // an earlier search found no solution at this step, and the day has only been
+            // constrained further since
+            return false;
+        }
+        domainInitializationForAllTasks(step);
+        stats.updatePeakDomainBytes(getDomainBytes());
+        int[] keptCounts = restoreDomains(step);
+        if (incrementalRefinement) {
+            restrictToStartBounds();
+        }
+        markOverlappingDomain();
+        // pre-process the domain constraints
+
+        // this function will mark some values of fixed tasks as unavailable, but doesn't
+        // recover them in next for loop. so domainInitializationForAllTasks() creates fresh
+        // bit domains for every task.
+        int wipedOut;
+        if (keptCounts == null) {
+            wipedOut = constraintConsistencyCheck();
+        } else {
+            enqueueChangedTasks(keptCounts);
+            wipedOut = propagate();
+        }
+        // pre-processing changes are never repealed, so they need not stay on the trail
+        trail.clear();
+        // nogoods only hold for the domains they were found with
+        conflictSets.clear();
+        nogoods.clear();
+        // some task has no value left at this step, or the tasks cannot all fit in the day,
+        // try the next finer step.
+        // without incremental refinement the search finds this out by itself
+        boolean failed = incrementalRefinement && (wipedOut >= 0 || hasEmptyDomain());
+        if (propagatedState != null) {
+            if (failed) {
+                propagatedState.setFailedStep(step.toMinutes());
+            } else if (wipedOut < 0) {
+                propagatedState.setDomains(step.toMinutes(), domains);
             }
         }
-        return false;
+        return !failed;
     }
 
-    ArrayList<TaskAssignment> deepCopyArrayList(List<TaskAssignment> assignList) {
-        ArrayList<TaskAssignment> newAssignment = new ArrayList<TaskAssignment>();
-        for (TaskAssignment item : assignList) {
-            TaskAssignment copy = new TaskAssignment(item);
-            newAssignment.add(copy);
+    /*
+     * replace the fresh bit domains of step by the pre-processed ones kept from an earlier
+     * search, where there are some
+     *
+     * @return the count of each kept domain, -1 for tasks without one, or null if there is
+     * none at all
+     */
+    private int[] restoreDomains(Time step) {
+        if (propagatedState == null) {
+            return null;
+        }
+        int[] keptCounts = null;
+        for (int id = 0; id < taskCount; id++) {
+            BitDomain kept = propagatedState.getDomain(step.toMinutes(), id);
+            if (kept == null || kept.size() != domains[id].size()) {
+                continue;
+            }
+            if (keptCounts == null) {
+                keptCounts = new int[taskCount];
+                Arrays.fill(keptCounts, -1);
+            }
+            domains[id] = new BitDomain(kept);
+            keptCounts[id] = kept.count();
         }//for
+        return keptCounts;
+    }
 
-        return newAssignment;
+    /*
+     * queue the tasks whose domains are not consistent yet: kept domains were consistent with
+     * the constraints they were derived with, so only tasks with fresh domains, their
+     * neighbours, tasks whose kept domains lost values since, and tasks of new symmetry
+     * breaking precedences are propagated
+     */
+    private void enqueueChangedTasks(int[] keptCounts) {
+        for (int id = 0; id < taskCount; id++) {
+            if (keptCounts[id] < 0) {
+                propagator.enqueue(id);
+                for (int neighbour : network.getSuccessors(id)) {
+                    propagator.enqueue(neighbour);
+                }//for
+                for (int neighbour : network.getPredecessors(id)) {
+                    propagator.enqueue(neighbour);
+                }//for
+            } else if (domains[id].count() != keptCounts[id] || newPrecedenceTasks[id]) {
+                propagator.enqueue(id);
+            }
+        }//for
     }
 
     /*
-     * search all possible solutions for the given traverseOrder
+     * estimate the memory taken by the domains and bit domains of the current step
      */
-    void searchSolutions(int count, int[] traverseOrder, HashMap<Integer, Boolean> visited) {
-        if (solutions.size() >= solutionCountMax) {
-            // find at most 5 solutions for the given problem
-            return;
+    private long getDomainBytes() {
+        long bytes = 0;
+        for (int id = 0; id < taskCount; id++) {
+            // stored starts, and one long per 64 values
+            bytes += taskDomains[id].getStartBytes() + 8L * ((domains[id].size() + 63) / 64);
+        }//for
+        return bytes;
+    }
+
+    /*
+     * add the time spent at step since start, and tell the listener the step is over
+     */
+    private void finishStep(Time step, long start) {
+        stats.addStepNanos(step, System.nanoTime() - start);
+        if (listener != null) {
+            listener.onStepFinished(step, stats);
         }
+    }
+
+    private void finishSearch() {
+        if (listener != null) {
+            listener.onSearchFinished(stats);
+        }
+    }
 
-        if (count == taskCount) {
-            // one set of task time slice assignment is complete
-            ArrayList<TaskAssignment> newAssignment = deepCopyArrayList(assignment);
-            Collections.sort(newAssignment);
-            if (!isDuplicatedSolution(newAssignment)) {// do not store duplicated assignment
-                solutions.add(newAssignment);
+    /*
+     * find the next new solution, going on to the next finer step when the search tree of the
+     * current step is exhausted; solutions found with coarser steps are kept
+     *
+     * @return the solution, which has been added to the collector, or null if there is none left
+     * or the search is paused at the deadline of a pull
+     */
+    private List<TaskAssignment> nextSolution() {
+        long start = System.nanoTime();
+        paused = false;
+        while (!isStopped()) {
+            if (level >= rootLevel && advance()) {
+                // one set of task time slice assignment is complete,
+                // the collector does not store duplicated assignment and only creates the
+                // TaskAssignment list of a new one
+                List<TaskAssignment> solution = collector.add(assignedStart, assignedEnd);
+                if (solution != null) {
+                    stats.addStepNanos(stepList.get(stepIndex), System.nanoTime() - start);
+                    return solution;
+                }
+                continue;
+            }
+            if (paused) {
+                // the search stack is left as it is for the next pull
+                stats.addStepNanos(stepList.get(stepIndex), System.nanoTime() - start);
+                return null;
             }
+            if (executor != null) {
+                // the domains are re-initialized for the next step, which workers must not see
+                awaitWorkers();
+                if (isStopped()) {
+                    // the workers may have been stopped before finishing their subtrees
+                    break;
+                }
+            }
+            if (stepIndex >= 0) {
+                finishStep(stepList.get(stepIndex), start);
+                start = System.nanoTime();
+            }
+            if (stepIndex + 1 == stepList.size()) {
+                return null;
+            }
+            stepIndex++;
+            if (prepareStep(stepList.get(stepIndex))) {
+                level = rootLevel;
+                openLevel(level);
+            }
+        }//while
+        if (stepIndex >= 0) {
+            finishStep(stepList.get(stepIndex), start);
+        }
+        return null;
+    }
+
+    // find at most 5 solutions for the given problem, unless the search is cancelled or runs
+    // out of time; getBestSolution() does not add to the collector, so it does not stop when
+    // enough solutions are found. called at every search node
+    private boolean isStopped() {
+        if (objective == null && collector.isFull()) {
+            return true;
+        }
+        if (cancelled.get() || (hasDeadline && System.nanoTime() - deadline >= 0)) {
+            truncated = true;
+            return true;
+        }
+        return false;
+    }
+
+    /*
+     * choose the task to branch on at level d, which is the number of tasks assigned so far,
+     * and prepare to try its available values.
+     * the values of the task itself are not changed by deeper levels, so they can be found in
+     * its bit domain one after another, or collected and ordered once
+     */
+    private void openLevel(int d) {
+        int id = variableOrdering.selectVariable(this);
+        BitDomain bits = domains[id];
+        visited[id] = true;
+        branchTask[d] = id;
+        taskLevel[id] = d;
+        levelMarks[d] = -1;
+        ConflictSets.clear(levelConflicts[d]);
+        chronological[d] = false;
+
+        boolean split = executor != null && bits.count() > 1;
+        if (valueOrderDirection != 0 && !split) {
+            valueDirection[d] = valueOrderDirection;
+            nextValue[d] = valueOrderDirection > 0 ? 0 : bits.size() - 1;
             return;
-        }//if
+        }
+        valueDirection[d] = 0;
+        if (valueBuffers[d] == null || valueBuffers[d].length < bits.count()) {
+            valueBuffers[d] = new int[bits.size()];
+        }
+        int[] values = valueBuffers[d];
+        int valueCount = 0;
+        for (int i = bits.nextAvailable(0); i >= 0; i = bits.nextAvailable(i + 1)) {
+            values[valueCount++] = i;
+        }//for
+        valueOrdering.orderValues(this, id, values, valueCount);
+        nextValue[d] = 0;
+        valueEnd[d] = valueCount;
 
-        // choose one task to be considered
-        // besides topological sort, we can have other choose strategies regarding which variable
-        // should be considered next
-        int id = traverseOrder[count];
-        List<TimeSlice> domainArrayList = taskMap.get(id).getDomainArrayList();
+        if (split) {
+            // first branching level of a parallel search, the workers search below it
+            splitValues(d, valueCount);
+            valueEnd[d] = 0;
+            chronological[d] = true;
+        }
+    }
 
-        for (int i = 0; i < domainArrayList.size(); i++) {
-            if (!domainArrayList.get(i).getAvailable()) {
+    /*
+     * go on with the depth first search until the next complete assignment, which is left in
+     * assignedStart and assignedEnd; the next call goes on from there.
+     * instead of recursing, level d of the explicit stack tries the values of task
+     * branchTask[d] one after another
+     *
+     * @return false if the search tree is exhausted, or the search is stopped or paused
+     */
+    boolean advance() {
+        boolean moved = false;
+        while (level >= rootLevel) {
+            if (moved && hasPullDeadline && System.nanoTime() - pullDeadline >= 0) {
+                // the stack is kept, so the next pull goes on from here. a pull takes at least
+                // one step of the search, so that pulls with a short budget make progress
+                paused = true;
+                truncated = true;
+                return false;
+            }
+            moved = true;
+            int d = level;
+            int id = branchTask[d];
+            if (levelMarks[d] >= 0) {
+                // repeal the value tried last at this level, and the update of domain marks
+                // of related tasks
+                repealLevel(d);
+            }
+            int i = takeNextValue(d);
+            if (i < 0 || isStopped()) {
+                backtrack(d);
                 continue;
             }
-
-            TimeSlice slice = domainArrayList.get(i);
-            if (assignment.size() <= count) {
-                assignment.add(new TaskAssignment(id, slice));
-            } else {
-                assignment.set(count, new TaskAssignment(id, slice));
+            stats.addNode();
+            assignedStart[id] = taskDomains[id].getStart(i);
+            assignedEnd[id] = taskDomains[id].getEnd(i);
+            levelMarks[d] = trail.mark();
+            conflictMarks[d] = conflictSets.mark();
+            if (backjumping) {
+                int nogood = nogoods.findViolated(id, visited, assignedStart);
+                if (nogood >= 0) {
+                    // this combination of assignments has failed before
+                    stats.addNogoodPrune();
+                    for (int k = 0; k < nogoods.getLength(nogood); k++) {
+                        int task = nogoods.getTask(nogood, k);
+                        if (task != id) {
+                            ConflictSets.addLevel(levelConflicts[d], taskLevel[task]);
+                        }
+                    }//for
+                    continue;
+                }
             }
-            assignedMap.put(id, slice);
-            domainArrayList.get(i).setAvailable(false);
-            visited.put(id, true);
-            count++;
             // after each assignment to a task, run domain consistency check for tasks have
-            // constraints with this task and update their domain marks and recorded all the changes
-            // to these related domain, because we need to recover this changes later
-            HashMap<Integer, Set<Integer>> taskDomainChangedSet = updateRelatedDomainMark(
-                    id, visited);
-
+            // constraints with this task and update their domain marks; all the changes are
+            // recorded on the trail, because we need to recover this changes later
+            int wipedOut = updateRelatedDomainMark(id);
+            if (wipedOut >= 0) {
+                if (backjumping) {
+                    // the levels which pruned the wiped out domain explain the failure
+                    conflictSets.addTo(levelConflicts[d], wipedOut);
+                }
+                continue;
+            }
+            if (objective != null && objective.lowerBound(this) >= bestCost) {
+                // branch and bound: no completion can be better than the best schedule so far.
+                // the bound depends on every assignment, so there is nothing to jump over
+                chronological[d] = true;
+                continue;
+            }
+            if (d + 1 == taskCount) {
+                // levels with a solution below them cannot jump over the levels above
+                for (int l = rootLevel; l <= d; l++) {
+                    chronological[l] = true;
+                }//for
+                stats.addSolution();
+                return true;
+            }
             //search valid assignment for next task/vertex
-            searchSolutions(count, traverseOrder, visited);
+            level = d + 1;
+            openLevel(level);
+        }//while
+        return false;
+    }//method
 
-            assignedMap.remove(id);
+    /*
+     * return the index of the next value to try at level d, or -1 if every value has been tried
+     */
+    private int takeNextValue(int d) {
+        int i;
+        if (valueDirection[d] > 0) {
+            i = domains[branchTask[d]].nextAvailable(nextValue[d]);
+            nextValue[d] = i + 1;
+        } else if (valueDirection[d] < 0) {
+            i = domains[branchTask[d]].prevAvailable(nextValue[d]);
+            nextValue[d] = i - 1;
+        } else {
+            i = nextValue[d] < valueEnd[d] ? valueBuffers[d][nextValue[d]++] : -1;
+        }
+        return i;
+    }
 
-            //if previous assignment does not lead to a solution then repeal this assignment
-            domainArrayList.get(i).setAvailable(true);
-            visited.put(id, false);
-            count--;
+    private void repealLevel(int d) {
+        repealDomainMarkUpdate(levelMarks[d]);
+        conflictSets.undoTo(conflictMarks[d]);
+        levelMarks[d] = -1;
+    }
 
-            // repeal previous update of domain marks of related tasks
-            repealDomainMarkUpdate(taskDomainChangedSet);
+    /*
+     * every value of level d has been tried: go back to the previous level, or with
+     * backjumping to the deepest level whose assignment took part in the failures at level d
+     */
+    private void backtrack(int d) {
+        stats.addBacktrack();
+        visited[branchTask[d]] = false;
+        if (!backjumping || chronological[d] || isStopped()) {
+            if (d > rootLevel) {
+                chronological[d - 1] |= chronological[d];
+            }
+            level = d - 1;
+            return;
+        }
+
+        long[] conflict = levelConflicts[d];
+        // values removed before level d was opened have failed as well
+        conflictSets.addTo(conflict, branchTask[d]);
+        recordNogood(conflict, d);
+        int target = ConflictSets.highestBelow(conflict, d);
+        if (target < rootLevel) {
+            // no assignment of this search takes part, so its whole tree has no solution
+            target = rootLevel - 1;
+        } else {
+            ConflictSets.addAllBelow(levelConflicts[target], conflict, target);
+        }
+        if (target + 1 < d) {
+            // repeal the assignments of the levels jumped over
+            stats.addBackjump(d - 1 - target);
+            repealLevel(target + 1);
+            for (int l = target + 1; l < d; l++) {
+                visited[branchTask[l]] = false;
+                levelMarks[l] = -1;
+            }//for
+        }
+        level = target;
+    }
+
+    /*
+     * remember the assignments of the levels in conflict below d as a nogood,
+     * unless there are too many of them
+     */
+    private void recordNogood(long[] conflict, int d) {
+        int length = ConflictSets.countBelow(conflict, d);
+        if (length == 0 || length > nogoods.getMaxLength()) {
+            return;
+        }
+        int n = 0;
+        for (int l = ConflictSets.highestBelow(conflict, d); l >= 0;
+             l = ConflictSets.highestBelow(conflict, l)) {
+            nogoodTasks[n] = branchTask[l];
+            nogoodStarts[n] = assignedStart[branchTask[l]];
+            n++;
         }//for
-    }//method
+        nogoods.add(nogoodTasks, nogoodStarts, n);
+    }
+
+    /*
+     * divide the ordered values of level d into slices and submit one worker per slice to
+     * executor. a few slices per thread keep the threads busy when some subtrees are
+     * much smaller than others
+     */
+    private void splitValues(final int d, int valueCount) {
+        final int id = branchTask[d];
+        int sliceCount = Math.min(valueCount, parallelism * 4);
+        for (int s = 0; s < sliceCount; s++) {
+            int from = (int) ((long) valueCount * s / sliceCount);
+            int to = (int) ((long) valueCount * (s + 1) / sliceCount);
+            final int[] slice = new int[to - from];
+            System.arraycopy(valueBuffers[d], from, slice, 0, slice.length);
+            final CSP_Solver worker = new CSP_Solver(this);
+            pendingWorkers.add(executor.submit(new Callable<SolverStats>() {
+                public SolverStats call() {
+                    worker.searchSlice(d, id, slice);
+                    return worker.stats;
+                }
+            }));
+        }//for
+    }
+
+    /*
+     * search the subtrees below the given values of task id at level d, run by a worker
+     */
+    private void searchSlice(int d, int id, int[] values) {
+        branchTask[d] = id;
+        valueBuffers[d] = values;
+        valueDirection[d] = 0;
+        nextValue[d] = 0;
+        valueEnd[d] = values.length;
+        levelMarks[d] = -1;
+        taskLevel[id] = d;
+        ConflictSets.clear(levelConflicts[d]);
+        chronological[d] = false;
+        rootLevel = d;
+        level = d;
+        while (advance()) {
+            collector.add(assignedStart, assignedEnd);
+        }//while
+    }
+
+    /*
+     * wait for every submitted worker to finish its subtree
+     */
+    private void awaitWorkers() {
+        try {
+            for (Future<SolverStats> worker : pendingWorkers) {
+                stats.add(worker.get());
+            }//for
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while searching solutions", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pendingWorkers.clear();
+        }
+    }
 
     /**
      * this method return a final solution of possible schedule
      */
     public List<List<TaskAssignment>> getSolutions() {
-        if ((problem.getFixedTaskIdSet().size() + problem.getFlexibleTaskIdSet().size())
-                != taskCount) {
+        if (!prepareSearch()) {
+            finishSearch();
             return solutions;
         }
-        if (problem.getOverTime()) {
-            return solutions;
+        if (parallelism > 1) {
+            executor = Executors.newFixedThreadPool(parallelism);
+            pendingWorkers = new ArrayList<Future<SolverStats>>();
         }
-        if (isFixedTaskOverlap()) {
-            return solutions;
+        try {
+            while (nextSolution() != null) {
+                // solutions are gathered by the collector
+            }//while
+            if (executor != null) {
+                // workers may still be running when the search is stopped
+                awaitWorkers();
+            }
+        } finally {
+            if (executor != null) {
+                // stops workers still running after a failure
+                executor.shutdownNow();
+                executor = null;
+            }
         }
-        if (taskCount == 0) {
-            return solutions;
+        finishSearch();
+        return solutions;
+    }//method
+
+    /**
+     * like getSolutions(), but stop searching after budgetMillis milliseconds and return the
+     * solutions found until then; isTruncated() tells whether the time ran out
+     */
+    public List<List<TaskAssignment>> getSolutions(long budgetMillis) {
+        startDeadline(budgetMillis);
+        try {
+            return getSolutions();
+        } finally {
+            hasDeadline = false;
         }
-        if (problem.getConstraints() != null
-                && problem.isConstraintsConflict()) {
-            return solutions;
+    }
+
+    /**
+     * like getBestSolution(objective), but stop searching after budgetMillis milliseconds and
+     * return the best schedule found until then; isTruncated() tells whether the time ran
+     * out, in which case better schedules may exist
+     */
+    public List<TaskAssignment> getBestSolution(ScheduleObjective objective, long budgetMillis) {
+        startDeadline(budgetMillis);
+        try {
+            return getBestSolution(objective);
+        } finally {
+            hasDeadline = false;
+        }
+    }
+
+    private void startDeadline(long budgetMillis) {
+        if (budgetMillis < 0) {
+            throw new IllegalArgumentException("budget must not be negative");
         }
+        hasDeadline = true;
+        deadline = System.nanoTime() + budgetMillis * 1000000L;
+    }
 
-        // other traverse order is also possible, should consider in the future
-        int[] traverseOrder = constraints.GetTopologicalSort();
-        if (traverseOrder == null) {//constraint graph has graph, cannot get TopologicalSort
-            return solutions;
-        }// if
-        HashMap<Integer, Boolean> visited = new HashMap<Integer, Boolean>();// <identifier, true/false>
-        for (int i = 0; i < taskCount; i++) {
-            visited.put(traverseOrder[i], false);
-        }//for
+    /**
+     * return true if the last search stopped before it was complete, because it ran out of
+     * its time budget or was cancelled: there may be solutions it did not find, or a better
+     * schedule than the one returned by getBestSolution().
+     * a search which found solutionCountMax solutions is complete
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
 
-        ArrayList<Time> stepList = new ArrayList<Time>();
-        stepList.add(new Time(1, 0)); // 1h
-        stepList.add(new Time(0, 30)); // 30 minutes
-        stepList.add(new Time(0, 15)); // 15 minutes
-        stepList.add(new Time(0, 10)); // 10 minutes
-        stepList.add(new Time(0, 5)); // 5 minutes
-        stepList.add(new Time(0, 1)); // 1 minute
+    /**
+     * return the schedule with the lowest cost under objective, or null if there is none.
+     * branch and bound search: a partial assignment is abandoned as soon as the lower bound of
+     * objective shows it cannot beat the best schedule found so far. the steps are searched
+     * from coarse to fine, so that a good schedule found with a coarse step prunes the
+     * search of the finer ones; finer steps contain the values of coarser ones, so the result
+     * is the best schedule of the finest step.
+     * parallelism is ignored, and the solutions of getSolutions() are not changed
+     */
+    public List<TaskAssignment> getBestSolution(ScheduleObjective objective) {
+        if (!prepareSearch(false)) {
+            finishSearch();
+            return null;
+        }
+        objective.initialize(this);
+        this.objective = objective;
+        bestCost = Long.MAX_VALUE;
+        int[] bestStart = null;
+        int[] bestEnd = null;
+        try {
+            for (Time step : stepList) {
+                if (isStopped()) {
+                    break;
+                }
+                long start = System.nanoTime();
+                if (prepareStep(step)) {
+                    level = rootLevel;
+                    openLevel(level);
+                    while (advance()) {
+                        long cost = objective.evaluate(this);
+                        if (cost < bestCost) {
+                            bestCost = cost;
+                            bestStart = assignedStart.clone();
+                            bestEnd = assignedEnd.clone();
+                        }
+                    }//while
+                }
+                finishStep(step, start);
+            }//for
+        } finally {
+            this.objective = null;
+        }
+        finishSearch();
+        if (bestStart == null) {
+            return null;
+        }
+        return SolutionCollector.createAssignmentList(bestStart, bestEnd);
+    }
+
+    /**
+     * return an iterator over the solutions getSolutions() would return, in the same order.
+     * the search starts at the first call of hasNext() or next() and stops at each new
+     * solution until the next one is asked for, so the first solution is available before
+     * the others are searched. the solutions are also added to the list getSolutions()
+     * returns. the search runs in the calling thread whatever the parallelism is, and the
+     * solver must not be used otherwise until the iterator is exhausted
+     */
+    public Iterator<List<TaskAssignment>> solutionIterator() {
+        return new SolutionIterator(false, 0);
+    }
 
-        for (Time step : stepList) {
-            domainInitializationForAllTasks(step);
-            markOverlappingDomain();
-            // pre-process the domain constraints
+    /**
+     * like solutionIterator(), but each search for the next solution stops after budgetMillis
+     * milliseconds. hasNext() then returns false and isTruncated() returns true, but the
+     * iterator is not exhausted: the next call of hasNext() goes on searching where the last
+     * one stopped, with a new budget. isTruncated() tells about the last call of hasNext()
+     */
+    public Iterator<List<TaskAssignment>> solutionIterator(long budgetMillis) {
+        if (budgetMillis < 0) {
+            throw new IllegalArgumentException("budget must not be negative");
+        }
+        return new SolutionIterator(true, budgetMillis);
+    }
 
-            // this function will set some tasks' available as false, but doesn't recover it in
-            // next for loop. so in domainInitializationForAllTasks(), we need to reset the
-            // available as true for every fixed task.
-            constraintConsistencyCheck(arcs);
-            searchSolutions(0, traverseOrder, visited);
+    private class SolutionIterator implements Iterator<List<TaskAssignment>> {
+        private final boolean budgeted;
+        private final long budgetMillis;
+        private boolean started = false;
+        private boolean exhausted = false;
+        private List<TaskAssignment> next = null;
 
-            // find at most 5 solutions for the given problem
-            if (solutions.size() >= solutionCountMax) {
-                break;
+        SolutionIterator(boolean budgeted, long budgetMillis) {
+            this.budgeted = budgeted;
+            this.budgetMillis = budgetMillis;
+        }
+
+        public boolean hasNext() {
+            if (next == null && !exhausted) {
+                truncated = false;
+                paused = false;
+                if (budgeted) {
+                    hasPullDeadline = true;
+                    pullDeadline = System.nanoTime() + budgetMillis * 1000000L;
+                }
+                try {
+                    if (!started) {
+                        started = true;
+                        exhausted = !prepareSearch();
+                    }
+                    next = exhausted ? null : nextSolution();
+                } finally {
+                    hasPullDeadline = false;
+                }
+                exhausted = next == null && !paused;
+                if (exhausted) {
+                    finishSearch();
+                }
             }
-        }//for
-        return solutions;
-    }//method
+            return next != null;
+        }
+
+        public List<TaskAssignment> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<TaskAssignment> solution = next;
+            next = null;
+            return solution;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
 
     public String solutionsString() {
+        return solutionsString(solutions);
+    }
+
+    static String solutionsString(List<List<TaskAssignment>> solutions) {
         String solution = "";
         if (solutions.size() == 0) {
             return "No solutions!\n";
@@ -531,7 +1536,7 @@ public class CSP_Solver {
             solution += "Task Id     Start Time     End Time \n";
             // consider sort based on start time, then print
             List<TaskAssignment> assignList = solution1;
-            for (int i = 0; i < taskCount; i++) {
+            for (int i = 0; i < assignList.size(); i++) {
                 TaskAssignment assign = assignList.get(i);
                 solution += "   " + assign.getTaskId() + "		 "
                         + assign.getAssignment().getStartTime().getTimeString()
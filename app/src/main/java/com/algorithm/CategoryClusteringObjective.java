@@ -0,0 +1,100 @@
+package com.algorithm;
+
+import java.util.Arrays;
+
+/*
+ * Class CategoryClusteringObjective prefers schedules which do tasks of the same category one
+ * after another. The cost is the number of times the category changes from one task to the
+ * next in order of start time.
+ */
+public class CategoryClusteringObjective implements ScheduleObjective {
+    private final int[] categories;// category of each task, indexed by task id
+    private int categoryCount;// number of distinct categories
+    // work space of sortAssignedByStart(), made once by initialize() since lowerBound() runs
+    // at every node of the search
+    private long[] keys;
+    private int[] order;
+
+    /**
+     * @param categories category of each task, indexed by task id; tasks of the same category
+     *                   have the same number
+     */
+    public CategoryClusteringObjective(int[] categories) {
+        this.categories = categories.clone();
+    }
+
+    public void initialize(CSP_Solver solver) {
+        if (categories.length != solver.getTaskCount()) {
+            throw new IllegalArgumentException("one category is needed for every task");
+        }
+        int[] sorted = categories.clone();
+        Arrays.sort(sorted);
+        categoryCount = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                categoryCount++;
+            }
+        }//for
+        keys = new long[categories.length];
+        order = new int[categories.length];
+    }
+
+    public long evaluate(CSP_Solver solver) {
+        return countChanges(solver, sortAssignedByStart(solver), 0);
+    }
+
+    /*
+     * every category but the first starts with a change. besides, two assigned tasks of
+     * different categories with no room for an unassigned task between them follow each other
+     * in every completion, so they are a change whatever the other tasks do
+     */
+    public long lowerBound(CSP_Solver solver) {
+        int shortest = Integer.MAX_VALUE;// duration of the shortest unassigned task
+        for (int id = 0; id < categories.length; id++) {
+            if (!solver.isAssigned(id)) {
+                shortest = Math.min(shortest, solver.getTaskDuration(id));
+            }
+        }//for
+        long changes = countChanges(solver, sortAssignedByStart(solver), shortest);
+        return Math.max(categoryCount - 1, changes);
+    }
+
+    /*
+     * put the ids of the assigned tasks in ascending order of start time at the front of order
+     *
+     * @return the number of assigned tasks
+     */
+    private int sortAssignedByStart(CSP_Solver solver) {
+        int count = 0;
+        for (int id = 0; id < categories.length; id++) {
+            if (solver.isAssigned(id)) {
+                // pack start and id, so that sorting orders by start
+                keys[count++] = ((long) solver.getAssignedStart(id) << 32) | id;
+            }
+        }//for
+        Arrays.sort(keys, 0, count);
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) keys[i];
+        }//for
+        return count;
+    }
+
+    /*
+     * count the category changes between the first count tasks of order, which follow each
+     * other, ignoring pairs whose gap is at least minGap
+     */
+    private long countChanges(CSP_Solver solver, int count, int minGap) {
+        long changes = 0;
+        for (int i = 1; i < count; i++) {
+            int previous = order[i - 1];
+            int next = order[i];
+            if (categories[previous] == categories[next]) continue;
+            if (minGap > 0
+                    && solver.getAssignedStart(next) - solver.getAssignedEnd(previous) >= minGap) {
+                continue;
+            }
+            changes++;
+        }//for
+        return changes;
+    }
+}
@@ -0,0 +1,37 @@
+package com.algorithm;
+
+import java.util.List;
+
+/*
+ * Class ClosestToSolutionValueOrdering tries first the time slices starting closest to where
+ * each task starts in a previous solution, so a re-solve stays near the schedule the user has.
+ * Tasks missing from the previous solution are tried from the earliest start on.
+ */
+public class ClosestToSolutionValueOrdering extends KeyedValueOrdering {
+    private final List<TaskAssignment> previous;
+    private int[] previousStart;
+
+    public ClosestToSolutionValueOrdering(List<TaskAssignment> previous) {
+        this.previous = previous;
+    }
+
+    public void initialize(CSP_Solver solver) {
+        previousStart = new int[solver.getTaskCount()];
+        for (int id = 0; id < previousStart.length; id++) {
+            previousStart[id] = -1;
+        }//for
+        for (TaskAssignment assignment : previous) {
+            int id = assignment.getTaskId();
+            if (id >= 0 && id < previousStart.length) {
+                previousStart[id] = assignment.getAssignment().getStartTime().toMinutes();
+            }
+        }//for
+    }
+
+    long getKey(CSP_Solver solver, int id, int value) {
+        if (previousStart[id] < 0) {
+            return 0;
+        }
+        return Math.abs(solver.getTaskDomain(id).getStart(value) - previousStart[id]);
+    }
+}
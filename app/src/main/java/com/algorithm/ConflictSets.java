@@ -0,0 +1,166 @@
+package com.algorithm;
+
+/*
+ * Class ConflictSets is used to record, for every task, the search levels whose assignments
+ * removed values from the task's domain, directly or through constraint propagation.
+ * When a domain is wiped out, these levels explain the failure, and backjumping returns to
+ * the deepest of them instead of the previous level.
+ * Level sets are bitsets stored as long arrays. Changes are recorded on an undo stack, so
+ * that they can be repealed together with the domain changes they explain.
+ */
+class ConflictSets {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int width;// number of words of one level set
+    private final long[] sets;// levels which pruned task id are in sets[id * width .. (id + 1) * width)
+
+    // undo stack of overwritten words of sets
+    private int[] undoIndices;
+    private long[] undoWords;
+    private int top;
+
+    ConflictSets(int taskCount) {
+        width = wordCount(taskCount);
+        sets = new long[taskCount * width];
+        undoIndices = new int[INITIAL_CAPACITY];
+        undoWords = new long[INITIAL_CAPACITY];
+        top = 0;
+    }
+
+    // copy the level sets of other, with an empty undo stack
+    ConflictSets(ConflictSets other) {
+        width = other.width;
+        sets = other.sets.clone();
+        undoIndices = new int[INITIAL_CAPACITY];
+        undoWords = new long[INITIAL_CAPACITY];
+        top = 0;
+    }
+
+    // number of words of a level set for levels 0 .. levelCount - 1
+    static int wordCount(int levelCount) {
+        return (levelCount + 63) >>> 6;
+    }
+
+    int mark() {
+        return top;
+    }
+
+    /**
+     * repeal every change made since mark was taken
+     */
+    void undoTo(int mark) {
+        while (top > mark) {
+            top--;
+            sets[undoIndices[top]] = undoWords[top];
+        }//while
+    }
+
+    /**
+     * forget every level, at the start of a search
+     */
+    void clear() {
+        for (int i = 0; i < sets.length; i++) {
+            sets[i] = 0;
+        }//for
+        top = 0;
+    }
+
+    /**
+     * record that the assignment at level removed values of task id
+     */
+    void addLevel(int id, int level) {
+        setWord(id * width + (level >>> 6), sets[id * width + (level >>> 6)] | (1L << level));
+    }
+
+    /**
+     * record that task from removed values of task id: the levels which pruned from explain
+     * the removal, and so does fromLevel, the level from was assigned at, unless it is negative
+     */
+    void addReasons(int id, int from, int fromLevel) {
+        int offset = id * width;
+        int fromOffset = from * width;
+        for (int w = 0; w < width; w++) {
+            long word = sets[offset + w] | sets[fromOffset + w];
+            if (fromLevel >= 0 && (fromLevel >>> 6) == w) {
+                word |= 1L << fromLevel;
+            }
+            setWord(offset + w, word);
+        }//for
+    }
+
+    /**
+     * add the levels which pruned task id to set
+     */
+    void addTo(long[] set, int id) {
+        int offset = id * width;
+        for (int w = 0; w < width; w++) {
+            set[w] |= sets[offset + w];
+        }//for
+    }
+
+    private void setWord(int index, long word) {
+        if (sets[index] == word) {
+            return;
+        }
+        if (top == undoIndices.length) {
+            int[] newIndices = new int[top * 2];
+            long[] newWords = new long[top * 2];
+            System.arraycopy(undoIndices, 0, newIndices, 0, top);
+            System.arraycopy(undoWords, 0, newWords, 0, top);
+            undoIndices = newIndices;
+            undoWords = newWords;
+        }
+        undoIndices[top] = index;
+        undoWords[top] = sets[index];
+        top++;
+        sets[index] = word;
+    }
+
+    /**
+     * return the highest level in set which is below limit, or -1 if there is none
+     */
+    static int highestBelow(long[] set, int limit) {
+        for (int level = limit - 1; level >= 0; ) {
+            long word = set[level >>> 6] & (-1L >>> (63 - (level & 63)));
+            if (word != 0) {
+                return ((level >>> 6) << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            level = ((level >>> 6) << 6) - 1;
+        }//for
+        return -1;
+    }
+
+    static void addLevel(long[] set, int level) {
+        set[level >>> 6] |= 1L << level;
+    }
+
+    // add the levels of src which are below limit to dst
+    static void addAllBelow(long[] dst, long[] src, int limit) {
+        for (int w = 0; w < dst.length && (w << 6) < limit; w++) {
+            long word = src[w];
+            if ((w << 6) + 64 > limit) {
+                word &= (1L << (limit & 63)) - 1;
+            }
+            dst[w] |= word;
+        }//for
+    }
+
+    static void clear(long[] set) {
+        for (int w = 0; w < set.length; w++) {
+            set[w] = 0;
+        }//for
+    }
+
+    // count the levels in set which are below limit
+    static int countBelow(long[] set, int limit) {
+        int count = 0;
+        for (int w = 0; w < set.length && (w << 6) < limit; w++) {
+            long word = set[w];
+            if ((w << 6) + 64 > limit) {
+                word &= (1L << (limit & 63)) - 1;
+            }
+            count += Long.bitCount(word);
+        }//for
+        return count;
+    }
+}
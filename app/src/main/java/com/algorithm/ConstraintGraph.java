@@ -1,61 +1,166 @@
 package com.algorithm;
 
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.Stack;
+import java.util.ListIterator;
 
 /*
- * Class ConstraintGraph is used to represent graph as 
- * an adjacency list of nodes of type AdjListNode
+ * Class ConstraintGraph is used to represent graph as
+ * arrays of directed edges, together with a hashed set of the edges to find the edges between
+ * two nodes in O(1), and compressed (CSR) adjacency arrays built from the edges when they are
+ * read after a change. Memory grows with the number of edges, not with the square of the
+ * number of vertices.
+ * A topological order is kept up to date as edges are added, so an edge which would close a
+ * cycle is rejected when it is added. No search recurses, so long chains cannot overflow the stack.
  */
 
 public class ConstraintGraph {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int[] NONE = new int[0];
+
     // the number of vertices in total of this graph
     private int VertexCnt;
 
-    // adjacency list used to store this graph as directed one
-    private LinkedList<AdjListNode> adj[];
-
-    // adjacency list used to store this graph as undirected one
-    private LinkedList<AdjListNode> undirectedAdj[];
-
-    // used to store all the directed arcs of this graph
-    private LinkedList<Arc> arcs;
-
-    // using matrix to store this graph
-    private int[][] graphMatrix;
+    // edge i goes from edgeFrom[i] to edgeTo[i] with weight edgeWeight[i], for i < edgeCount
+    private int[] edgeFrom;
+    private int[] edgeTo;
+    private int[] edgeWeight;
+    private int edgeCount;
+
+    // open addressing table holding edge index + 1, or 0 for an empty slot. an edge is placed
+    // by the hash of its two ends, so the edges between two nodes are on one probe sequence
+    private int[] edgeSlots;
+
+    // compressed adjacency, valid while compacted is true: the edges leaving u go to
+    // outTarget[outStart[u] .. outStart[u + 1]) with the weights at the same positions of
+    // outWeight, and the other ends of the edges of u in either direction are
+    // neighbour[neighbourStart[u] .. neighbourStart[u + 1]), both in the order edges were added.
+    // it is built by the first reader after a change; solvers running at the same time on one
+    // problem may all read it first, so it is built under the lock of the graph and published
+    // by the volatile write of compacted. edges must not change while solvers read them
+    private int[] outStart;
+    private int[] outTarget;
+    private int[] outWeight;
+    private int[] neighbourStart;
+    private int[] neighbour;
+    private volatile boolean compacted;
+
+    // after[u][0 .. afterCount[u]) and before[v][0 .. beforeCount[v]) list the other end of
+    // each edge leaving u and entering v, changed with the edges for the topological order
+    private int[][] after;
+    private int[] afterCount;
+    private int[][] before;
+    private int[] beforeCount;
+
+    // order[u] is the position of u in a topological order of the edges, kept up to date as
+    // edges are added, so that an edge closing a cycle is found when it is added.
+    // positions need not be consecutive, a vertex added later gets nextPosition
+    private int[] order;
+    private int nextPosition;
+    // constraints rejected for closing a cycle, added to the graph again when a deletion
+    // lets them in
+    private LinkedList<Arc> rejected;
+    // work space of reorder()
+    private boolean[] marked;
+    private int[] stack;
+    private int[] affected;
+    private int[] positions;
+    private long[] keys;
+
+    // arcs u->v whose weight is the most minutes v may start after u ends
+    private LinkedList<Arc> maxGaps;
 
     //argument v is the number of vertices in total of this graph
     ConstraintGraph(int VertexCnt) {
         this.VertexCnt = VertexCnt;
-        adj = new LinkedList[VertexCnt];
-        undirectedAdj = new LinkedList[VertexCnt];
-        arcs = new LinkedList<Arc>();
-        graphMatrix = new int[VertexCnt][VertexCnt];
-
+        edgeFrom = new int[INITIAL_CAPACITY];
+        edgeTo = new int[INITIAL_CAPACITY];
+        edgeWeight = new int[INITIAL_CAPACITY];
+        edgeSlots = new int[2 * INITIAL_CAPACITY];
+        after = new int[VertexCnt][];
+        afterCount = new int[VertexCnt];
+        before = new int[VertexCnt][];
+        beforeCount = new int[VertexCnt];
+        order = new int[VertexCnt];
         for (int i = 0; i < VertexCnt; ++i) {
-            adj[i] = new LinkedList<AdjListNode>();
-            undirectedAdj[i] = new LinkedList<AdjListNode>();
+            after[i] = NONE;
+            before[i] = NONE;
+            order[i] = i;
         }//for
+        marked = new boolean[VertexCnt];
+        stack = new int[VertexCnt];
+        affected = new int[VertexCnt];
+        positions = new int[VertexCnt];
+        keys = new long[VertexCnt];
+        nextPosition = VertexCnt;
+        rejected = new LinkedList<Arc>();
+        maxGaps = new LinkedList<Arc>();
     }
 
     int getVertexCnt() {
         return VertexCnt;
     }
 
-    LinkedList<AdjListNode>[] getAdjacentList() {
-        return adj;
+    int getEdgeCount() {
+        return edgeCount;
+    }
+
+    // number of constraints from u to a task which has to happen after it
+    int getOutDegree(int u) {
+        compact();
+        return outStart[u + 1] - outStart[u];
+    }
+
+    // the task the i-th constraint from u goes to
+    int getSuccessor(int u, int i) {
+        compact();
+        return outTarget[outStart[u] + i];
     }
 
-    LinkedList<AdjListNode>[] getUndirectedAdjacentList() {
-        return undirectedAdj;
+    // the weight of the i-th constraint from u
+    int getSuccessorWeight(int u, int i) {
+        compact();
+        return outWeight[outStart[u] + i];
     }
 
+    // number of constraints of u in either direction
+    int getNeighbourCount(int u) {
+        compact();
+        return neighbourStart[u + 1] - neighbourStart[u];
+    }
+
+    // the other task of the i-th constraint of u in either direction
+    int getNeighbour(int u, int i) {
+        compact();
+        return neighbour[neighbourStart[u] + i];
+    }
+
+    // a copy of all the directed arcs of this graph
     LinkedList<Arc> getArcs() {
+        LinkedList<Arc> arcs = new LinkedList<Arc>();
+        for (int i = 0; i < edgeCount; i++) {
+            arcs.add(new Arc(edgeFrom[i], edgeTo[i], edgeWeight[i]));
+        }//for
         return arcs;
     }
 
-    int[][] getMatrix() {
-        return graphMatrix;
+    LinkedList<Arc> getMaxGaps() {
+        return maxGaps;
+    }
+
+    /**
+     * return >0 if there is a constraint from u to v, <0 if there is one from v to u,
+     * 0 if u and v are not constrained
+     */
+    int getDirection(int u, int v) {
+        if (findSlot(u, v, 0, false) >= 0) {
+            return 1;
+        }
+        if (findSlot(v, u, 0, false) >= 0) {
+            return -1;
+        }
+        return 0;
     }
 
     /**
@@ -63,29 +168,49 @@ public class ConstraintGraph {
      *
      * @param u      int id(index) of the first node which has to happen before
      * @param v      int id(index) of the second node which has to happen after
-     * @param weight int weight of the constraint
+     * @param weight int the least minutes between the end of u and the start of v
+     * @return false if the constraint is rejected because it would close a cycle; it is kept
+     * aside and added once deleting other constraints breaks the cycle
      */
-    void addConstraint(int u, int v, int weight) {
-        if (u == v) return;
-        AdjListNode node = new AdjListNode(v, weight);
-        if (adj[u].contains(node)) {
+    boolean addConstraint(int u, int v, int weight) {
+        if (u == v) return true;
+        if (findSlot(u, v, weight, true) >= 0) {
             // don't add an duplicate edge
-            return;
+            return true;
         }
+        if (!reorder(u, v)) {
+            Arc arc = new Arc(u, v, weight);
+            if (!rejected.contains(arc)) {
+                rejected.add(arc);
+            }
+            return false;
+        }
+        insertEdge(u, v, weight);
+        return true;
+    }
 
-        // Add v to u's Linked List
-        adj[u].add(node);
-
-        undirectedAdj[u].add(node);
-        undirectedAdj[v].add(new AdjListNode(u, weight));
-
-        arcs.add(new Arc(u, v, weight));
-        graphMatrix[u][v] = 1; // >0 indicating the edge is from u to v;
-        graphMatrix[v][u] = -1; // <0 indicating the edge is from u to v;
+    // store the edge u -> v, which reorder() has already placed in the topological order
+    private void insertEdge(int u, int v, int weight) {
+        if (edgeCount == edgeFrom.length) {
+            int capacity = 2 * edgeFrom.length;
+            edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+            edgeTo = Arrays.copyOf(edgeTo, capacity);
+            edgeWeight = Arrays.copyOf(edgeWeight, capacity);
+            rehash(2 * capacity);
+        }
+        edgeFrom[edgeCount] = u;
+        edgeTo[edgeCount] = v;
+        edgeWeight[edgeCount] = weight;
+        insertSlot(edgeCount);
+        edgeCount++;
+        after[u] = append(after[u], afterCount[u]++, v);
+        before[v] = append(before[v], beforeCount[v]++, u);
+        compacted = false;
     }
 
     /**
-     * Removes a constraint, if it exists.
+     * Removes a constraint, if it exists, and adds the rejected constraints which no longer
+     * close a cycle.
      *
      * @param u      int id(index) of the first node which has to happen before
      * @param v      int id(index) of the second node which has to happen after
@@ -93,108 +218,450 @@ public class ConstraintGraph {
      */
 
     void deleteConstraint(int u, int v, int weight) {// delete edge u->v
-        AdjListNode node = new AdjListNode(v, weight);
-        adj[u].remove(node);
+        int slot = findSlot(u, v, weight, true);
+        if (slot < 0) {
+            rejected.remove(new Arc(u, v, weight));
+            return;
+        }
+        removeEdge(slot);
+        addRejectedConstraints();
+    }
 
-        undirectedAdj[u].remove(node);
-        undirectedAdj[v].remove(new AdjListNode(u, weight));
+    // remove the edge held by slot
+    private void removeEdge(int slot) {
+        int edge = edgeSlots[slot] - 1;
+        int u = edgeFrom[edge];
+        int v = edgeTo[edge];
+        removeSlot(slot);
+        // the last edge takes the place of the deleted one
+        int last = edgeCount - 1;
+        if (edge != last) {
+            int lastSlot = slotOf(last);
+            edgeFrom[edge] = edgeFrom[last];
+            edgeTo[edge] = edgeTo[last];
+            edgeWeight[edge] = edgeWeight[last];
+            edgeSlots[lastSlot] = edge + 1;
+        }
+        edgeCount--;
+        // a topological order stays one when an edge is removed
+        remove(after[u], afterCount[u]--, v);
+        remove(before[v], beforeCount[v]--, u);
+        compacted = false;
+    }
+
+    // add the rejected constraints which no longer close a cycle
+    private void addRejectedConstraints() {
+        for (Iterator<Arc> it = rejected.iterator(); it.hasNext(); ) {
+            Arc arc = it.next();
+            if (reorder(arc.getU(), arc.getV())) {
+                it.remove();
+                insertEdge(arc.getU(), arc.getV(), arc.getWeight());
+            }
+        }//for
+    }
 
-        arcs.remove(new Arc(u, v, weight));
-        graphMatrix[u][v] = 0;
-        graphMatrix[v][u] = 0;
+    /**
+     * Adds a vertex without constraints, placed last in the topological order.
+     *
+     * @return the id of the new vertex
+     */
+    int addVertex() {
+        int v = VertexCnt;
+        if (v == order.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, 2 * v);
+            after = Arrays.copyOf(after, capacity);
+            afterCount = Arrays.copyOf(afterCount, capacity);
+            before = Arrays.copyOf(before, capacity);
+            beforeCount = Arrays.copyOf(beforeCount, capacity);
+            order = Arrays.copyOf(order, capacity);
+            marked = new boolean[capacity];
+            stack = new int[capacity];
+            affected = new int[capacity];
+            positions = new int[capacity];
+            keys = new long[capacity];
+        }
+        after[v] = NONE;
+        afterCount[v] = 0;
+        before[v] = NONE;
+        beforeCount[v] = 0;
+        order[v] = nextPosition++;
+        VertexCnt++;
+        compacted = false;
+        return v;
     }
 
     /**
-     * isCyclic() is used to detect if this graph has a cycle
-     * return true  => has cycle
-     * return false => has no cycle
+     * Removes a vertex together with its constraints, rejected constraints and max gaps, and
+     * adds the rejected constraints which no longer close a cycle.
+     * The last vertex takes the id of the removed one, so that ids stay 0 .. getVertexCnt() - 1.
+     *
+     * @param id int id(index) of the node to remove
      */
-    boolean isCyclic() {
-        boolean visited[] = new boolean[VertexCnt];
-        boolean recursiveStack[] = new boolean[VertexCnt];
-        for (int i = 0; i < VertexCnt; i++) {
-            visited[i] = false;
-            recursiveStack[i] = false;
+    void removeVertex(int id) {
+        while (afterCount[id] > 0) {
+            removeEdge(findSlot(id, after[id][0], 0, false));
+        }//while
+        while (beforeCount[id] > 0) {
+            removeEdge(findSlot(before[id][0], id, 0, false));
+        }//while
+        removeArcs(rejected, id);
+        removeArcs(maxGaps, id);
+
+        int last = VertexCnt - 1;
+        if (id != last) {
+            // the edges of last are slotted by the hash of their ends, which change
+            for (int edge = 0; edge < edgeCount; edge++) {
+                if (edgeFrom[edge] == last || edgeTo[edge] == last) {
+                    removeSlot(slotOf(edge));
+                    edgeFrom[edge] = edgeFrom[edge] == last ? id : edgeFrom[edge];
+                    edgeTo[edge] = edgeTo[edge] == last ? id : edgeTo[edge];
+                    insertSlot(edge);
+                }
+            }//for
+            after[id] = after[last];
+            afterCount[id] = afterCount[last];
+            before[id] = before[last];
+            beforeCount[id] = beforeCount[last];
+            for (int i = 0; i < afterCount[id]; i++) {
+                replace(before[after[id][i]], beforeCount[after[id][i]], last, id);
+            }//for
+            for (int i = 0; i < beforeCount[id]; i++) {
+                replace(after[before[id][i]], afterCount[before[id][i]], last, id);
+            }//for
+            order[id] = order[last];
+            renameArcs(rejected, last, id);
+            renameArcs(maxGaps, last, id);
+        }
+        after[last] = NONE;
+        afterCount[last] = 0;
+        before[last] = NONE;
+        beforeCount[last] = 0;
+        VertexCnt--;
+        compacted = false;
+        addRejectedConstraints();
+    }
+
+    // remove the arcs of arcs with id at either end
+    private static void removeArcs(LinkedList<Arc> arcs, int id) {
+        for (Iterator<Arc> it = arcs.iterator(); it.hasNext(); ) {
+            Arc arc = it.next();
+            if (arc.getU() == id || arc.getV() == id) {
+                it.remove();
+            }
         }//for
+    }
 
-        for (int i = 0; i < VertexCnt; i++) {
-            if (isCyclicHelper(i, visited, recursiveStack)) {
-                // has cycle
-                return true;
+    // give the arcs of arcs ending at from the end to instead
+    private static void renameArcs(LinkedList<Arc> arcs, int from, int to) {
+        for (ListIterator<Arc> it = arcs.listIterator(); it.hasNext(); ) {
+            Arc arc = it.next();
+            if (arc.getU() == from || arc.getV() == from) {
+                it.set(new Arc(arc.getU() == from ? to : arc.getU(),
+                        arc.getV() == from ? to : arc.getV(), arc.getWeight()));
             }
         }//for
-        return false;//no cycle
     }
 
-    private boolean isCyclicHelper(int v, boolean visited[], boolean recursiveStack[]) {
-        if (!visited[v]) {
-            visited[v] = true;
-            recursiveStack[v] = true;
+    /**
+     * Limits the time between two tasks; only meaningful together with a constraint from u to v.
+     *
+     * @param u      int id(index) of the node which happens before
+     * @param v      int id(index) of the node which happens after
+     * @param maxGap int the most minutes between the end of u and the start of v
+     */
+    void addMaxGap(int u, int v, int maxGap) {
+        if (u == v) return;
+        Arc arc = new Arc(u, v, maxGap);
+        if (!maxGaps.contains(arc)) {
+            maxGaps.add(arc);
+        }
+    }
+
+    void deleteMaxGap(int u, int v, int maxGap) {
+        maxGaps.remove(new Arc(u, v, maxGap));
+    }
 
-            for (AdjListNode adjListNode : adj[v]) {
-                int u = adjListNode.getVertex();
-                // If an adjacent is not visited, then recur for that adjacent
-                if (!visited[u]) {
-                    if (isCyclicHelper(u, visited, recursiveStack))
-                        return true;// has cycle
-                }
-                // If an adjacent is visited and in the recursive stack then there is a cycle.
-                else if (recursiveStack[u]) {
-                    // has back edge
-                    // has cycle
-                    return true;
-                }//if
-            }//while
+    /*
+     * the first slot edges from u to v are probed from
+     */
+    private int home(int u, int v) {
+        int hash = u * 0x9E3779B1 + v;
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        return hash & (edgeSlots.length - 1);
+    }
+
+    /*
+     * return the slot of an edge from u to v, with the given weight if matchWeight is true,
+     * or -1 if there is none
+     */
+    private int findSlot(int u, int v, int weight, boolean matchWeight) {
+        int mask = edgeSlots.length - 1;
+        for (int slot = home(u, v); edgeSlots[slot] != 0; slot = (slot + 1) & mask) {
+            int edge = edgeSlots[slot] - 1;
+            if (edgeFrom[edge] == u && edgeTo[edge] == v
+                    && (!matchWeight || edgeWeight[edge] == weight)) {
+                return slot;
+            }
+        }//for
+        return -1;
+    }
+
+    // the slot holding edge
+    private int slotOf(int edge) {
+        int mask = edgeSlots.length - 1;
+        int slot = home(edgeFrom[edge], edgeTo[edge]);
+        while (edgeSlots[slot] != edge + 1) {
+            slot = (slot + 1) & mask;
+        }//while
+        return slot;
+    }
+
+    private void insertSlot(int edge) {
+        int mask = edgeSlots.length - 1;
+        int slot = home(edgeFrom[edge], edgeTo[edge]);
+        while (edgeSlots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }//while
+        edgeSlots[slot] = edge + 1;
+    }
+
+    /*
+     * empty slot and move back the entries after it which would no longer be found
+     */
+    private void removeSlot(int slot) {
+        int mask = edgeSlots.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; edgeSlots[next] != 0; next = (next + 1) & mask) {
+            int edge = edgeSlots[next] - 1;
+            int home = home(edgeFrom[edge], edgeTo[edge]);
+            // the entry may fill the hole iff the hole is on its probe sequence
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                edgeSlots[hole] = edgeSlots[next];
+                hole = next;
+            }
+        }//for
+        edgeSlots[hole] = 0;
+    }
+
+    private void rehash(int capacity) {
+        edgeSlots = new int[capacity];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            insertSlot(edge);
+        }//for
+    }
+
+    /*
+     * build the compressed adjacency from the edges, if they changed since it was built
+     */
+    private void compact() {
+        if (compacted) {
+            return;
+        }
+        synchronized (this) {
+            if (compacted) {
+                return;
+            }
+            int[] starts = new int[VertexCnt + 1];
+            int[] neighbourStarts = new int[VertexCnt + 1];
+            for (int i = 0; i < edgeCount; i++) {
+                starts[edgeFrom[i] + 1]++;
+                neighbourStarts[edgeFrom[i] + 1]++;
+                neighbourStarts[edgeTo[i] + 1]++;
+            }//for
+            for (int u = 0; u < VertexCnt; u++) {
+                starts[u + 1] += starts[u];
+                neighbourStarts[u + 1] += neighbourStarts[u];
+            }//for
+            int[] targets = new int[edgeCount];
+            int[] weights = new int[edgeCount];
+            int[] neighbours = new int[2 * edgeCount];
+            int[] outNext = Arrays.copyOf(starts, VertexCnt);
+            int[] neighbourNext = Arrays.copyOf(neighbourStarts, VertexCnt);
+            for (int i = 0; i < edgeCount; i++) {
+                int u = edgeFrom[i];
+                int v = edgeTo[i];
+                targets[outNext[u]] = v;
+                weights[outNext[u]++] = edgeWeight[i];
+                neighbours[neighbourNext[u]++] = v;
+                neighbours[neighbourNext[v]++] = u;
+            }//for
+            outStart = starts;
+            outTarget = targets;
+            outWeight = weights;
+            neighbourStart = neighbourStarts;
+            neighbour = neighbours;
+            compacted = true;
         }
-        // remove vertex v from recursive stack since all its adjacent vertices are explored
-        recursiveStack[v] = false;
+    }
+
+    /**
+     * isCyclic() is used to detect if the constraints added, together with the rejected ones,
+     * have a cycle; the constraints kept in the graph never have one
+     * return true  => has cycle
+     * return false => has no cycle
+     */
+    boolean isCyclic() {
+        return !rejected.isEmpty();
+    }
 
-        // no cycle
-        return false;
+    // constraints left out of the graph because they would close a cycle
+    LinkedList<Arc> getRejectedConstraints() {
+        return rejected;
     }
 
-    int[] GetTopologicalSort() {
-        if (isCyclic()) {
-            // if a graph has cycle, it doesn't have Topological Sort
-            return null;
+    /*
+     * keep order a topological order when the edge u -> v is added, with the dynamic
+     * algorithm of Pearce and Kelly: only the tasks placed from v to u are looked at, those
+     * v reaches and those reaching u, and they are moved among their own positions
+     *
+     * @return false if v reaches u, then the edge would close a cycle
+     */
+    private boolean reorder(int u, int v) {
+        int lower = order[v];
+        int upper = order[u];
+        if (lower > upper) {
+            return true;
         }
+        // the tasks v reaches which are placed before u
+        int forwardCount = 0;
+        int top = 0;
+        stack[top++] = v;
+        marked[v] = true;
+        while (top > 0) {
+            int x = stack[--top];
+            affected[forwardCount++] = x;
+            for (int i = 0; i < afterCount[x]; i++) {
+                int y = after[x][i];
+                if (y == u) {
+                    unmark(affected, forwardCount);
+                    unmark(stack, top);
+                    return false;
+                }
+                if (!marked[y] && order[y] < upper) {
+                    marked[y] = true;
+                    stack[top++] = y;
+                }
+            }//for
+        }//while
+        // the tasks reaching u which are placed after v
+        int count = forwardCount;
+        stack[top++] = u;
+        marked[u] = true;
+        while (top > 0) {
+            int x = stack[--top];
+            affected[count++] = x;
+            for (int i = 0; i < beforeCount[x]; i++) {
+                int y = before[x][i];
+                if (!marked[y] && order[y] > lower) {
+                    marked[y] = true;
+                    stack[top++] = y;
+                }
+            }//for
+        }//while
 
-        Stack<Integer> stack = new Stack<Integer>();
-        int[] vertexList = new int[VertexCnt];
+        // the tasks reaching u take the first of the positions, keeping their order
+        sortByOrder(0, forwardCount);
+        sortByOrder(forwardCount, count);
+        for (int i = 0; i < count; i++) {
+            positions[i] = order[affected[i]];
+        }//for
+        Arrays.sort(positions, 0, count);
+        int next = 0;
+        for (int i = forwardCount; i < count; i++) {
+            order[affected[i]] = positions[next++];
+        }//for
+        for (int i = 0; i < forwardCount; i++) {
+            order[affected[i]] = positions[next++];
+        }//for
+        unmark(affected, count);
+        return true;
+    }
 
-        boolean visited[] = new boolean[VertexCnt];
-        for (int i = 0; i < VertexCnt; i++) {
-            // mark all vertices as unvisited
-            visited[i] = false;
+    private void unmark(int[] tasks, int count) {
+        for (int i = 0; i < count; i++) {
+            marked[tasks[i]] = false;
         }//for
+    }
 
-        for (int i = 0; i < VertexCnt; i++) {
-            if (!visited[i]) {
-                topologicalSortHelper(i, visited, stack);
-            }//if     
+    // sort affected[from .. to) by position in order
+    private void sortByOrder(int from, int to) {
+        for (int i = from; i < to; i++) {
+            keys[i] = ((long) order[affected[i]] << 32) | affected[i];
+        }//for
+        Arrays.sort(keys, from, to);
+        for (int i = from; i < to; i++) {
+            affected[i] = (int) keys[i];
         }//for
-        int i = 0;
-        while (!stack.empty()) {
-            vertexList[i++] = stack.pop();
-        }//while
-        return vertexList;
     }
 
-    private void topologicalSortHelper(int v, boolean visited[], Stack<Integer> stack) {
-        visited[v] = true;// Mark the current node as visited.
-        int u;
+    private static int[] append(int[] tasks, int count, int task) {
+        if (count == tasks.length) {
+            tasks = Arrays.copyOf(tasks, Math.max(2, 2 * count));
+        }
+        tasks[count] = task;
+        return tasks;
+    }
 
-        // Recur for all the vertices adjacent to this vertex
-        for (AdjListNode adjListNode : adj[v]) {
-            u = adjListNode.getVertex();
-            if (!visited[u]) {
-                topologicalSortHelper(u, visited, stack);
-            }//if
+    // replace every occurrence of task in tasks[0 .. count) with other
+    private static void replace(int[] tasks, int count, int task, int other) {
+        for (int i = 0; i < count; i++) {
+            if (tasks[i] == task) {
+                tasks[i] = other;
+            }
+        }//for
+    }
+
+    // remove one occurrence of task from tasks[0 .. count), which has to hold it
+    private static void remove(int[] tasks, int count, int task) {
+        int i = 0;
+        while (tasks[i] != task) {
+            i++;
         }//while
-        //Note that a vertex is pushed to stack only when all of its adjacent vertices 
-        //(and their adjacent vertices and so on) are already in stack.
-        stack.push(v);
+        tasks[i] = tasks[count - 1];
     }
-}
 
+    /**
+     * return the tasks in an order where every constraint goes forward, the reverse of the
+     * order a depth first search from task 0, 1, ... finishes them. rejected constraints are
+     * left out, so there always is such an order
+     */
+    int[] GetTopologicalSort() {
+        compact();
 
+        int[] vertexList = new int[VertexCnt];
+        int finished = VertexCnt;
+        boolean visited[] = new boolean[VertexCnt];
+        // path of the search, with the position of the next edge to follow from each task
+        int[] path = new int[VertexCnt];
+        int[] nextEdge = new int[VertexCnt];
+        for (int i = 0; i < VertexCnt; i++) {
+            if (visited[i]) {
+                continue;
+            }
+            int depth = 0;
+            path[0] = i;
+            nextEdge[0] = outStart[i];
+            visited[i] = true;
+            while (depth >= 0) {
+                int v = path[depth];
+                if (nextEdge[depth] < outStart[v + 1]) {
+                    int u = outTarget[nextEdge[depth]++];
+                    if (!visited[u]) {
+                        visited[u] = true;
+                        depth++;
+                        path[depth] = u;
+                        nextEdge[depth] = outStart[u];
+                    }//if
+                } else {
+                    //a vertex is finished only when all of its adjacent vertices
+                    //(and their adjacent vertices and so on) are finished
+                    vertexList[--finished] = v;
+                    depth--;
+                }
+            }//while
+        }//for
+        return vertexList;
+    }
+}
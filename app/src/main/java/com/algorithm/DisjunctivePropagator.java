@@ -0,0 +1,299 @@
+package com.algorithm;
+
+import java.util.Arrays;
+
+/*
+ * Class DisjunctivePropagator enforces that no two tasks of the day overlap, reasoning on the
+ * earliest start and latest end of all tasks together instead of one assigned task at a time.
+ * One pass applies, on the bounds as they are at its start:
+ * - timetabling: a task whose latest start is before its earliest end surely occupies that
+ *   part of the day, so no other task can overlap it;
+ * - overload checking and edge finding: if a set of tasks cannot be done before the latest end
+ *   of the set, the search fails; if a task cannot be done together with a set before the
+ *   latest end of the set, it has to start after the whole set (or, mirrored, end before it);
+ * - not-last and not-first: if a set of tasks cannot be done before the latest start of a
+ *   task, that task has to end before the latest start of some task of the set (or, mirrored,
+ *   start after the earliest end of one of them).
+ * Overload checking, edge finding and not-last use the Theta-Lambda tree of Vilim, so a pass
+ * takes O(n log n) besides timetabling. Domains have gaps, so a new bound removes the values
+ * beyond it, which may move the bound further.
+ * Tasks whose values were removed are queued for precedence propagation.
+ */
+class DisjunctivePropagator {
+    private final Domain[] taskDomains;
+    private final BitDomain[] domains;
+    private final DomainTrail trail;
+    private final PrecedencePropagator precedences;
+
+    // an assigned task is treated as having only its assigned slice as value
+    private final boolean[] assigned;
+    private final int[] assignedStart;
+    private final int[] assignedEnd;
+
+    // if not null, records which levels explain each removal, for backjumping
+    private ConflictSets conflicts;
+    private int[] taskLevel;
+    // number of domain values removed so far
+    private long removedCount;
+
+    // bounds of every task at the start of a pass, and the mirrored ones, indexed by task id:
+    // a task in [est, lct) of the mirrored day lies in [-lct, -est) of the real one
+    private final int[] duration;
+    private final int[] earliestStart;
+    private final int[] latestEnd;
+    private final int[] mirroredStart;
+    private final int[] mirroredEnd;
+    // bounds found by the pass
+    private final int[] newStart;
+    private final int[] newEnd;
+    private final int[] newMirroredStart;
+    private final int[] newMirroredEnd;
+
+    private final ThetaLambdaTree tree;
+    private final long[] keys;
+    private final int[] byStart;
+    private final int[] byEnd;
+    private final int[] byLatestStart;
+    // position of each task id in byLatestStart
+    private final int[] latestStartRank;
+    // unassigned tasks whose latest start is before their earliest end
+    private final int[] compulsory;
+    private int compulsoryCount;
+
+    DisjunctivePropagator(Domain[] taskDomains, BitDomain[] domains, DomainTrail trail,
+                          PrecedencePropagator precedences, boolean[] assigned,
+                          int[] assignedStart, int[] assignedEnd) {
+        this.taskDomains = taskDomains;
+        this.domains = domains;
+        this.trail = trail;
+        this.precedences = precedences;
+        this.assigned = assigned;
+        this.assignedStart = assignedStart;
+        this.assignedEnd = assignedEnd;
+        int taskCount = domains.length;
+        duration = new int[taskCount];
+        earliestStart = new int[taskCount];
+        latestEnd = new int[taskCount];
+        mirroredStart = new int[taskCount];
+        mirroredEnd = new int[taskCount];
+        newStart = new int[taskCount];
+        newEnd = new int[taskCount];
+        newMirroredStart = new int[taskCount];
+        newMirroredEnd = new int[taskCount];
+        tree = new ThetaLambdaTree(taskCount);
+        keys = new long[taskCount];
+        byStart = new int[taskCount];
+        byEnd = new int[taskCount];
+        byLatestStart = new int[taskCount];
+        latestStartRank = new int[taskCount];
+        compulsory = new int[taskCount];
+    }
+
+    void setConflictSets(ConflictSets conflicts, int[] taskLevel) {
+        this.conflicts = conflicts;
+        this.taskLevel = taskLevel;
+    }
+
+    long getRemovedCount() {
+        return removedCount;
+    }
+
+    /**
+     * run one pass of the rules and remove the values outside the new bounds
+     *
+     * @return the id of a task left without available values, or of a task in a set of tasks
+     * which cannot be done in time, or -1 if there is none
+     */
+    int propagate() {
+        int taskCount = domains.length;
+        compulsoryCount = 0;
+        for (int id = 0; id < taskCount; id++) {
+            if (!assigned[id] && domains[id].isEmpty()) {
+                return id;
+            }
+            duration[id] = taskDomains[id].getDuration();
+            if (assigned[id]) {
+                earliestStart[id] = assignedStart[id];
+                latestEnd[id] = assignedEnd[id];
+            } else {
+                BitDomain bits = domains[id];
+                earliestStart[id] = taskDomains[id].getStart(bits.nextAvailable(0));
+                latestEnd[id] = taskDomains[id].getEnd(bits.prevAvailable(bits.size() - 1));
+                // assigned tasks were handled when they were assigned
+                if (latestEnd[id] - duration[id] < earliestStart[id] + duration[id]) {
+                    compulsory[compulsoryCount++] = id;
+                }
+            }
+            mirroredStart[id] = -latestEnd[id];
+            mirroredEnd[id] = -earliestStart[id];
+            newStart[id] = earliestStart[id];
+            newEnd[id] = latestEnd[id];
+            newMirroredStart[id] = mirroredStart[id];
+            newMirroredEnd[id] = mirroredEnd[id];
+        }//for
+
+        int failed = findEdges(earliestStart, latestEnd, newStart);
+        if (failed >= 0) {
+            return failed;
+        }
+        failed = findEdges(mirroredStart, mirroredEnd, newMirroredStart);
+        if (failed >= 0) {
+            return failed;
+        }
+        findNotLast(earliestStart, latestEnd, newEnd);
+        findNotLast(mirroredStart, mirroredEnd, newMirroredEnd);
+
+        for (int id = 0; id < taskCount; id++) {
+            if (assigned[id]) continue;
+            int start = Math.max(newStart[id], -newMirroredEnd[id]);
+            int end = Math.min(newEnd[id], -newMirroredStart[id]);
+            Domain domain = taskDomains[id];
+            int removed = domains[id].removeRange(0, domain.lowerBound(start), id, trail)
+                    + domains[id].removeRange(domain.firstEndingAfter(end), domain.size(), id,
+                    trail);
+            removedCount += removed;
+            if (removeCompulsoryParts(id) + removed > 0) {
+                if (domains[id].isEmpty()) {
+                    return id;
+                }
+                precedences.enqueue(id);
+            }
+        }//for
+        return -1;
+    }
+
+    /*
+     * overload checking and edge finding on the tasks with bounds [start, end), raising the
+     * starts in raised
+     *
+     * @return a task of a set which cannot be done in time, or -1 if there is none
+     */
+    private int findEdges(int[] start, int[] end, int[] raised) {
+        int taskCount = start.length;
+        sort(start, byStart);
+        sort(end, byEnd);
+        tree.reset(byStart, taskCount, start, duration, true);
+        tree.insertAll(byStart, taskCount);
+        // Theta holds the tasks byEnd[0 .. k], which end no later than task j
+        for (int k = taskCount - 1; k >= 0; k--) {
+            int j = byEnd[k];
+            if (tree.getEct() > end[j]) {
+                explain(j, byEnd, k + 1, -1);
+                return j;
+            }
+            while (tree.getEctBar() > end[j] && tree.getResponsible() >= 0) {
+                // task i cannot be done with Theta by the end of Theta, so it comes after it
+                int i = tree.getResponsible();
+                if (!assigned[i] && tree.getEct() > raised[i]) {
+                    raised[i] = tree.getEct();
+                    explain(i, byEnd, k + 1, i);
+                }
+                tree.remove(i);
+            }//while
+            tree.gray(j);
+        }//for
+        return -1;
+    }
+
+    /*
+     * not-last rule on the tasks with bounds [start, end), lowering the ends in lowered
+     */
+    private void findNotLast(int[] start, int[] end, int[] lowered) {
+        int taskCount = start.length;
+        for (int id = 0; id < taskCount; id++) {
+            keys[id] = ((long) (end[id] - duration[id]) << 32) | id;
+        }//for
+        Arrays.sort(keys, 0, taskCount);
+        for (int k = 0; k < taskCount; k++) {
+            byLatestStart[k] = (int) keys[k];
+            latestStartRank[byLatestStart[k]] = k;
+        }//for
+        sort(start, byStart);
+        sort(end, byEnd);
+        tree.reset(byStart, taskCount, start, duration, false);
+
+        // Theta holds the tasks byLatestStart[0 .. inserted), which may start before task i
+        // ends; the last of them starts latest
+        int inserted = 0;
+        for (int k = 0; k < taskCount; k++) {
+            int i = byEnd[k];
+            while (inserted < taskCount && end[i] > end[byLatestStart[inserted]]
+                    - duration[byLatestStart[inserted]]) {
+                tree.insert(byLatestStart[inserted++]);
+            }//while
+            if (assigned[i] || inserted == 0) continue;
+            int j = byLatestStart[inserted - 1];
+            // ECT(Theta) bounds ECT(Theta without i), so most tasks need no further look
+            if (end[j] - duration[j] >= lowered[i] || tree.getEct() <= end[i] - duration[i]) {
+                continue;
+            }
+            boolean inTheta = latestStartRank[i] < inserted;
+            if (inTheta) {
+                tree.remove(i);
+            }
+            // the others cannot all be done before i has to start, so i is not last
+            if (tree.getEct() > end[i] - duration[i]) {
+                lowered[i] = end[j] - duration[j];
+                explain(i, byLatestStart, inserted, i);
+            }
+            if (inTheta) {
+                tree.insert(i);
+            }
+        }//for
+    }
+
+    /*
+     * remove the values of task id overlapping the part of the day some other task surely
+     * occupies, from its latest start to its earliest end
+     *
+     * @return the number of values removed
+     */
+    private int removeCompulsoryParts(int id) {
+        Domain domain = taskDomains[id];
+        int removed = 0;
+        for (int k = 0; k < compulsoryCount; k++) {
+            int other = compulsory[k];
+            if (other == id) continue;
+            int from = latestEnd[other] - duration[other];
+            int to = earliestStart[other] + duration[other];
+            int count = domains[id].removeRange(domain.firstEndingAfter(from),
+                    domain.lowerBound(to), id, trail);
+            if (count > 0) {
+                removed += count;
+                if (conflicts != null) {
+                    conflicts.addReasons(id, other, -1);
+                }
+            }
+        }//for
+        removedCount += removed;
+        return removed;
+    }
+
+    /*
+     * record that the bounds of tasks[0 .. count) explain the removal of values of task id;
+     * skip is left out, -1 if none is
+     */
+    private void explain(int id, int[] tasks, int count, int skip) {
+        if (conflicts == null) {
+            return;
+        }
+        for (int k = 0; k < count; k++) {
+            int x = tasks[k];
+            if (x != skip) {
+                conflicts.addReasons(id, x, assigned[x] ? taskLevel[x] : -1);
+            }
+        }//for
+    }
+
+    // fill order with the task ids in ascending order of key
+    private void sort(int[] key, int[] order) {
+        int taskCount = key.length;
+        for (int id = 0; id < taskCount; id++) {
+            keys[id] = ((long) key[id] << 32) | id;
+        }//for
+        Arrays.sort(keys, 0, taskCount);
+        for (int k = 0; k < taskCount; k++) {
+            order[k] = (int) keys[k];
+        }//for
+    }
+}
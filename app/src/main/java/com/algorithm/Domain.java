@@ -5,68 +5,177 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+/*
+ * Class Domain holds the possible time slices of a task.
+ * Time slices are stored by their start, in minutes since midnight, sorted by start time; every
+ * slice of a domain has the same duration, so ends are not stored. When the starts are evenly
+ * spaced, which is the case for most steps, they are not stored either but computed from the
+ * first start and the spacing. TimeSlice objects are only created when requested through
+ * getDomainArrayList(), getDomainSet() or getTimeSlice().
+ */
 public class Domain {
-    // a set of possible time slice
-    private Set<TimeSlice> domainSet;
+    // start of each possible time slice in ascending order, null if the starts are
+    // first, first + stride, ... first + (count - 1) * stride
+    private int[] starts;
+    private int first;
+    private int stride;
+    private int count;
+    // every time slice of a domain has the same length
+    private int duration;
 
-    // possible time slice stored in an array list
+    // possible time slice stored in an array list, created on demand
     private List<TimeSlice> domainArrayList;
 
     Domain() {
-        domainSet = new HashSet<TimeSlice>();
-        domainArrayList = new ArrayList<TimeSlice>();
+        setEvenlySpaced(0, 1, 0);
+    }
+
+    private void setEvenlySpaced(int first, int stride, int count) {
+        starts = null;
+        this.first = first;
+        this.stride = stride;
+        this.count = count;
+    }
+
+    int size() {
+        return count;
+    }
+
+    int getStart(int i) {
+        return starts == null ? first + i * stride : starts[i];
+    }
+
+    int getEnd(int i) {
+        return getStart(i) + duration;
+    }
+
+    /**
+     * return the index of the first time slice starting at or after minute,
+     * or size() if there is none
+     */
+    int lowerBound(int minute) {
+        if (starts == null) {
+            if (minute <= first) {
+                return 0;
+            }
+            // round up to the next start
+            long index = ((long) minute - first + stride - 1) / stride;
+            return (int) Math.min(index, count);
+        }
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < minute) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }//while
+        return low;
+    }
+
+    /**
+     * return the index of the first time slice ending after minute, or size() if there is none;
+     * the time slices overlapping [start, end) are those with index in
+     * [firstEndingAfter(start), lowerBound(end))
+     */
+    int firstEndingAfter(int minute) {
+        return lowerBound(minute - duration + 1);
+    }
+
+    int getDuration() {
+        return duration;
+    }
+
+    // true if the starts are computed rather than stored
+    boolean isEvenlySpaced() {
+        return starts == null;
+    }
+
+    // memory taken by the stored starts
+    int getStartBytes() {
+        return starts == null ? 0 : 4 * starts.length;
+    }
+
+    TimeSlice getTimeSlice(int i) {
+        return new TimeSlice(Time.fromMinutes(getStart(i)), Time.fromMinutes(getEnd(i)), true);
     }
 
     Set<TimeSlice> getDomainSet() {
-        return domainSet;
+        return new HashSet<TimeSlice>(getDomainArrayList());
     }
 
     List<TimeSlice> getDomainArrayList() {
+        if (domainArrayList == null) {
+            domainArrayList = new ArrayList<TimeSlice>(count);
+            for (int i = 0; i < count; i++) {
+                domainArrayList.add(getTimeSlice(i));
+            }
+        }
         return domainArrayList;
     }
 
-    private void insertTimeSlice(Time start, Time end, boolean available) {
-        TimeSlice slice = new TimeSlice(start, end, available);
-        domainSet.add(slice);
-    }//function
-
     //for fixed task domain initialization
     void initializeDomainSet(Time startTime, Time endTime) {
-        domainSet.clear();
-        insertTimeSlice(startTime, endTime, true);
-        domainArrayList.clear();
-        domainArrayList = new ArrayList<TimeSlice>(domainSet);
+        setEvenlySpaced(startTime.toMinutes(), 1, 1);
+        duration = endTime.toMinutes() - startTime.toMinutes();
+        domainArrayList = null;
     }//function
 
-    //for flexible task domain initialization
+    /**
+     * for flexible task domain initialization: a slice may start at every step from dayStart,
+     * and right after any slice of the same duration which may start there, as long as it ends
+     * by dayEnd
+     */
     void initializeDomainSet(Time dayStart, Time dayEnd, Time duration, Time step) {
-        domainSet.clear();
-        Time start, end, startPoint;
-        startPoint = new Time(dayStart);
-        for (int i = 1; startPoint.addTime(duration).compareTime(dayEnd) <= 0; i++) {
-            start = new Time(startPoint);
-            end = start.addTime(duration);
-
-            while (end.compareTime(dayEnd) <= 0) {
-                insertTimeSlice(start, end, true);
-                start = new Time(end);
-                end = start.addTime(duration);
-            }//while
-
-            if (i != 0) {
-                startPoint = startPoint.addTime(step);
-            }//if
-        }//for
-        domainArrayList.clear();
-        domainArrayList = new ArrayList<TimeSlice>(domainSet);
+        int first = dayStart.toMinutes();
+        int length = duration.toMinutes();
+        int stepLength = step.toMinutes();
+        // the latest start, as an offset from first
+        int window = dayEnd.toMinutes() - length - first;
+        this.duration = length;
+        domainArrayList = null;
+
+        if (window < 0) {
+            setEvenlySpaced(first, 1, 0);
+        } else if (stepLength <= 0 && length <= 0) {
+            setEvenlySpaced(first, 1, 1);
+        } else if (stepLength <= 0) {
+            // a single chain of slices from first
+            setEvenlySpaced(first, length, window / length + 1);
+        } else if (length % stepLength == 0) {
+            // the chains only reach starts at a step
+            setEvenlySpaced(first, stepLength, window / stepLength + 1);
+        } else {
+            // offset o is a start iff it is at a step, or a slice ending at o starts
+            boolean[] reachable = new boolean[window + 1];
+            int n = 0;
+            for (int o = 0; o <= window; o++) {
+                reachable[o] = o % stepLength == 0 || (o >= length && reachable[o - length]);
+                if (reachable[o]) {
+                    n++;
+                }
+            }//for
+            int[] newStarts = new int[n];
+            n = 0;
+            for (int o = 0; o <= window; o++) {
+                if (reachable[o]) {
+                    newStarts[n++] = first + o;
+                }
+            }//for
+            starts = newStarts;
+            count = n;
+        }
     }//function
 
     @Override
     public int hashCode() {
         final int prime = 31;
-        int result = 1;
-        result = prime * result
-                + ((domainSet == null) ? 0 : domainSet.hashCode());
+        int result = duration;
+        for (int i = 0; i < count; i++) {
+            result = prime * result + getStart(i);
+        }//for
         return result;
     }
 
@@ -82,11 +191,14 @@ public class Domain {
             return false;
         }
         final Domain other = (Domain) obj;
-        if (domainSet == null) {
-            if (other.domainSet != null)
-                return false;
-        } else if (!domainSet.equals(other.domainSet))
+        if (count != other.count || (count > 0 && duration != other.duration)) {
             return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (getStart(i) != other.getStart(i)) {
+                return false;
+            }
+        }//for
         return true;
     }
 }
@@ -0,0 +1,47 @@
+package com.algorithm;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Class DomainCache is used to share the domains of flexible tasks between solvers of the
+ * same day. The domain of a flexible task only depends on the day bounds, its duration and the
+ * step, and is never changed by the search, so solving the day again after a small edit does
+ * not have to build it again.
+ */
+class DomainCache {
+    private final Time dayStart;
+    private final Time dayEnd;
+    // key is duration minutes in the high half, step minutes in the low half
+    private final Map<Long, Domain> domains;
+
+    DomainCache(Time dayStart, Time dayEnd) {
+        this.dayStart = dayStart;
+        this.dayEnd = dayEnd;
+        domains = new HashMap<Long, Domain>();
+    }
+
+    /**
+     * return the domain of a flexible task of the given duration at step, creating it if needed;
+     * called by the workers of a parallel search at the same time
+     */
+    synchronized Domain get(Time duration, Time step) {
+        Long key = ((long) duration.toMinutes() << 32) | step.toMinutes();
+        Domain domain = domains.get(key);
+        if (domain == null) {
+            domain = new Domain();
+            domain.initializeDomainSet(dayStart, dayEnd, duration, step);
+            domains.put(key, domain);
+        }
+        return domain;
+    }
+
+    // true if the domains of this cache are made for the given day bounds
+    boolean isFor(Time start, Time end) {
+        return dayStart.equals(start) && dayEnd.equals(end);
+    }
+
+    synchronized int size() {
+        return domains.size();
+    }
+}
@@ -0,0 +1,69 @@
+package com.algorithm;
+
+/*
+ * Class DomainTrail is an undo stack of overwritten BitDomain words.
+ * Search takes a mark() before an assignment and calls undoTo(mark) to repeal every
+ * domain change made since then.
+ */
+class DomainTrail {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] taskIds;
+    private int[] wordIndices;
+    private long[] words;
+    private int top;
+
+    DomainTrail() {
+        taskIds = new int[INITIAL_CAPACITY];
+        wordIndices = new int[INITIAL_CAPACITY];
+        words = new long[INITIAL_CAPACITY];
+        top = 0;
+    }
+
+    int mark() {
+        return top;
+    }
+
+    int size() {
+        return top;
+    }
+
+    void clear() {
+        top = 0;
+    }
+
+    void save(int taskId, int wordIndex, long word) {
+        if (top == taskIds.length) {
+            grow();
+        }
+        taskIds[top] = taskId;
+        wordIndices[top] = wordIndex;
+        words[top] = word;
+        top++;
+    }
+
+    /**
+     * restore the domains to the state they had when mark was taken
+     *
+     * @param domains domains indexed by task id
+     */
+    void undoTo(int mark, BitDomain[] domains) {
+        while (top > mark) {
+            top--;
+            domains[taskIds[top]].restoreWord(wordIndices[top], words[top]);
+        }
+    }
+
+    private void grow() {
+        int capacity = taskIds.length * 2;
+        int[] newTaskIds = new int[capacity];
+        int[] newWordIndices = new int[capacity];
+        long[] newWords = new long[capacity];
+        System.arraycopy(taskIds, 0, newTaskIds, 0, top);
+        System.arraycopy(wordIndices, 0, newWordIndices, 0, top);
+        System.arraycopy(words, 0, newWords, 0, top);
+        taskIds = newTaskIds;
+        wordIndices = newWordIndices;
+        words = newWords;
+    }
+}
@@ -0,0 +1,17 @@
+package com.algorithm;
+
+/*
+ * Class EarliestStartValueOrdering tries the time slices of a task from the earliest start on.
+ */
+public class EarliestStartValueOrdering implements ValueOrderingStrategy {
+    public void initialize(CSP_Solver solver) {
+    }
+
+    public void orderValues(CSP_Solver solver, int id, int[] values, int count) {
+        // values are already in ascending order of start time
+    }
+
+    public int getDomainOrder() {
+        return 1;
+    }
+}
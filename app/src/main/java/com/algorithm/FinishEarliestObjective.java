@@ -0,0 +1,23 @@
+package com.algorithm;
+
+/*
+ * Class FinishEarliestObjective prefers schedules whose last task ends earliest.
+ * The cost is the end minute of the last task.
+ */
+public class FinishEarliestObjective implements ScheduleObjective {
+
+    public void initialize(CSP_Solver solver) {
+    }
+
+    public long evaluate(CSP_Solver solver) {
+        long end = 0;
+        for (int id = 0; id < solver.getTaskCount(); id++) {
+            end = Math.max(end, solver.getAssignedEnd(id));
+        }//for
+        return end;
+    }
+
+    public long lowerBound(CSP_Solver solver) {
+        return ObjectiveBounds.latestEarliestEnd(solver);
+    }
+}
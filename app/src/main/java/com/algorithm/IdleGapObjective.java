@@ -0,0 +1,35 @@
+package com.algorithm;
+
+/*
+ * Class IdleGapObjective prefers schedules with the least idle time between the first and
+ * the last task, so that the work of the day is done in one piece.
+ * The cost is the number of minutes between the start of the first task and the end of the
+ * last one which no task is assigned to.
+ */
+public class IdleGapObjective implements ScheduleObjective {
+    private long workMinutes;// total duration of all tasks
+
+    public void initialize(CSP_Solver solver) {
+        workMinutes = 0;
+        for (int id = 0; id < solver.getTaskCount(); id++) {
+            workMinutes += solver.getTaskDuration(id);
+        }//for
+    }
+
+    public long evaluate(CSP_Solver solver) {
+        long start = Long.MAX_VALUE;
+        long end = 0;
+        for (int id = 0; id < solver.getTaskCount(); id++) {
+            start = Math.min(start, solver.getAssignedStart(id));
+            end = Math.max(end, solver.getAssignedEnd(id));
+        }//for
+        // tasks do not overlap, so the work covers exactly workMinutes of the span
+        return end - start - workMinutes;
+    }
+
+    public long lowerBound(CSP_Solver solver) {
+        long span = (long) ObjectiveBounds.latestEarliestEnd(solver)
+                - ObjectiveBounds.earliestLatestStart(solver);
+        return Math.max(0, span - workMinutes);
+    }
+}
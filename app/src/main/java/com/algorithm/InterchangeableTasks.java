@@ -0,0 +1,96 @@
+package com.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Class InterchangeableTasks is used to find flexible tasks which can swap their time slices in
+ * any schedule: tasks of the same duration and the same key whose constraints come from and go
+ * to the same tasks with the same weights and max gaps. Swapping two such tasks in a solution gives another solution which
+ * is the same schedule, so the search only needs the schedules in which they follow each other
+ * in ascending order of id.
+ */
+class InterchangeableTasks {
+    private InterchangeableTasks() {
+    }
+
+    /**
+     * return the groups of at least two interchangeable flexible tasks of problem, each in
+     * ascending order of id. no task is in more than one group, and tasks of a group have no
+     * constraint between them
+     */
+    static List<int[]> find(CSP problem) {
+        return find(problem, null);
+    }
+
+    /**
+     * like find(problem), but tasks are only interchangeable if they have equal keys, indexed
+     * by task id; keys may be null
+     */
+    static List<int[]> find(CSP problem, Object[] keys) {
+        int taskCount = problem.getTaskCount();
+        Map<Integer, Task> taskMap = problem.getTaskMap();
+        Set<Integer> flexibleTaskIdSet = problem.getFlexibleTaskIdSet();
+        ConstraintGraph constraints = problem.getConstraints();
+        List<Set<AdjListNode>> outgoing = new ArrayList<Set<AdjListNode>>(taskCount);
+        List<Set<AdjListNode>> incoming = new ArrayList<Set<AdjListNode>>(taskCount);
+        for (int v = 0; v < taskCount; v++) {
+            outgoing.add(new HashSet<AdjListNode>());
+            incoming.add(new HashSet<AdjListNode>());
+        }//for
+        for (int u = 0; u < taskCount; u++) {
+            for (int i = 0; i < constraints.getOutDegree(u); i++) {
+                int v = constraints.getSuccessor(u, i);
+                int weight = constraints.getSuccessorWeight(u, i);
+                outgoing.get(u).add(new AdjListNode(v, weight));
+                incoming.get(v).add(new AdjListNode(u, weight));
+            }//for
+        }//for
+        // max gaps leaving and entering each task, which its twin needs as well; a gap
+        // entering from task u is kept with vertex -1 - u
+        List<Set<AdjListNode>> gaps = new ArrayList<Set<AdjListNode>>(taskCount);
+        for (int id = 0; id < taskCount; id++) {
+            gaps.add(new HashSet<AdjListNode>());
+        }//for
+        for (Arc arc : problem.getMaxGaps()) {
+            gaps.get(arc.getU()).add(new AdjListNode(arc.getV(), arc.getWeight()));
+            gaps.get(arc.getV()).add(new AdjListNode(-1 - arc.getU(), arc.getWeight()));
+        }//for
+
+        // two tasks with a constraint between them never get the same key: one of them has
+        // the other among its neighbours, but no task has itself
+        Map<List<Object>, List<Integer>> groups = new LinkedHashMap<List<Object>, List<Integer>>();
+        for (int id = 0; id < taskCount; id++) {
+            if (!flexibleTaskIdSet.contains(id)) {
+                continue;
+            }
+            List<Object> key = Arrays.<Object>asList(taskMap.get(id).getDuration().toMinutes(),
+                    outgoing.get(id), incoming.get(id), gaps.get(id),
+                    keys == null ? null : keys[id]);
+            List<Integer> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<Integer>();
+                groups.put(key, group);
+            }
+            group.add(id);
+        }//for
+
+        List<int[]> result = new ArrayList<int[]>();
+        for (List<Integer> group : groups.values()) {
+            if (group.size() < 2) {
+                continue;
+            }
+            int[] ids = new int[group.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = group.get(i);
+            }//for
+            result.add(ids);
+        }//for
+        return result;
+    }
+}
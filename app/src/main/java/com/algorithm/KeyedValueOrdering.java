@@ -0,0 +1,34 @@
+package com.algorithm;
+
+import java.util.Arrays;
+
+/*
+ * Class KeyedValueOrdering tries values in ascending order of a non-negative key computed per
+ * value; values with equal keys are tried in ascending order of start time.
+ */
+abstract class KeyedValueOrdering implements ValueOrderingStrategy {
+    public void initialize(CSP_Solver solver) {
+    }
+
+    /**
+     * return the key of the value at index value in the domain of task id, at most Integer.MAX_VALUE
+     */
+    abstract long getKey(CSP_Solver solver, int id, int value);
+
+    public void orderValues(CSP_Solver solver, int id, int[] values, int count) {
+        // not kept in a field, parallel search calls this from several threads
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            // pack key and index so that sorting orders by key, then by index
+            keys[i] = (getKey(solver, id, values[i]) << 32) | values[i];
+        }//for
+        Arrays.sort(keys, 0, count);
+        for (int i = 0; i < count; i++) {
+            values[i] = (int) keys[i];
+        }//for
+    }
+
+    public int getDomainOrder() {
+        return 0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.algorithm;
+
+/*
+ * Class LatestStartValueOrdering tries the time slices of a task from the latest start on.
+ */
+public class LatestStartValueOrdering implements ValueOrderingStrategy {
+    public void initialize(CSP_Solver solver) {
+    }
+
+    public void orderValues(CSP_Solver solver, int id, int[] values, int count) {
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }//for
+    }
+
+    public int getDomainOrder() {
+        return -1;
+    }
+}
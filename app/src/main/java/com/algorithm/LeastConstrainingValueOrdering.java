@@ -0,0 +1,25 @@
+package com.algorithm;
+
+/*
+ * Class LeastConstrainingValueOrdering tries first the time slices which remove the fewest
+ * available values from the domains of unassigned tasks, counting values which would overlap
+ * and values which would break a precedence constraint with the task.
+ */
+public class LeastConstrainingValueOrdering extends KeyedValueOrdering {
+    long getKey(CSP_Solver solver, int id, int value) {
+        Domain domain = solver.getTaskDomain(id);
+        int start = domain.getStart(value);
+        int end = domain.getEnd(value);
+        long removed = 0;
+        for (int j = 0; j < solver.getTaskCount(); j++) {
+            if (j == id || solver.isAssigned(j)) continue;
+            Domain other = solver.getTaskDomain(j);
+            int direction = solver.getConstraintDirection(id, j);
+            // indices of j's values which overlap with or have to happen before/after the value
+            int from = direction > 0 ? 0 : other.firstEndingAfter(start);
+            int to = direction < 0 ? other.size() : other.lowerBound(end);
+            removed += solver.getBitDomain(j).countRange(from, to);
+        }//for
+        return Math.min(removed, Integer.MAX_VALUE);
+    }
+}
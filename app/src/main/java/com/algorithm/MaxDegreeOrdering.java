@@ -0,0 +1,35 @@
+package com.algorithm;
+
+/*
+ * Class MaxDegreeOrdering assigns the task with the most constraints to unassigned tasks first,
+ * as its assignment prunes the most other domains.
+ * Ties are broken by the fewest available values, then by topological order.
+ */
+public class MaxDegreeOrdering implements VariableOrderingStrategy {
+    private int[] order;
+
+    public void initialize(CSP_Solver solver, int[] topologicalOrder) {
+        order = topologicalOrder;
+    }
+
+    public int selectVariable(CSP_Solver solver) {
+        int best = -1;
+        int bestDegree = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int id : order) {
+            if (solver.isAssigned(id)) continue;
+            int degree = solver.getUnassignedDegree(id);
+            if (degree < bestDegree) continue;
+            int count = solver.getDomainCount(id);
+            if (degree > bestDegree || count < bestCount) {
+                best = id;
+                bestDegree = degree;
+                bestCount = count;
+            }
+        }//for
+        return best;
+    }
+
+    public void onWipeout(int culprit, int wipedOut) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.algorithm;
+
+/*
+ * Class MinimumRemainingValuesOrdering assigns the task with the fewest available values first,
+ * so that a task about to run out of values fails the branch as early as possible.
+ * Ties are broken by the larger number of constraints with unassigned tasks, then by
+ * topological order.
+ */
+public class MinimumRemainingValuesOrdering implements VariableOrderingStrategy {
+    private int[] order;
+
+    public void initialize(CSP_Solver solver, int[] topologicalOrder) {
+        order = topologicalOrder;
+    }
+
+    public int selectVariable(CSP_Solver solver) {
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        int bestDegree = -1;
+        for (int id : order) {
+            if (solver.isAssigned(id)) continue;
+            int count = solver.getDomainCount(id);
+            if (count > bestCount) continue;
+            int degree = solver.getUnassignedDegree(id);
+            if (count < bestCount || degree > bestDegree) {
+                best = id;
+                bestCount = count;
+                bestDegree = degree;
+            }
+        }//for
+        return best;
+    }
+
+    public void onWipeout(int culprit, int wipedOut) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.algorithm;
+
+/*
+ * Class NogoodStore is used to remember combinations of assignments which backjumping has
+ * proven to have no solution, so that the search fails at once when it meets one of them
+ * again in another part of the search tree.
+ * A nogood is a list of (task id, start minute) pairs. At most capacity nogoods of at most
+ * maxLength pairs are kept; once the store is full, each new nogood replaces the oldest one.
+ * A nogood only holds for the domains it was found with, so the store is cleared whenever
+ * the domains are initialized again.
+ */
+class NogoodStore {
+    private final int capacity;
+    private final int maxLength;
+    // pair i of nogood n is (tasks[n * maxLength + i], starts[n * maxLength + i])
+    private final int[] tasks;
+    private final int[] starts;
+    private final int[] lengths;
+    private int next;// slot the next nogood is stored in
+    private int count;
+    // nogoods are found by their first pair, the assignment made last when it was recorded:
+    // bucket b chains heads[b] - 1, chain[heads[b] - 1] - 1, ... until 0
+    private final int[] heads;
+    private final int[] chain;
+
+    NogoodStore(int capacity, int maxLength) {
+        this.capacity = capacity;
+        this.maxLength = maxLength;
+        tasks = new int[capacity * maxLength];
+        starts = new int[capacity * maxLength];
+        lengths = new int[capacity];
+        int buckets = 1;
+        while (buckets < capacity * 2) {
+            buckets <<= 1;
+        }//while
+        heads = new int[buckets];
+        chain = new int[capacity];
+    }
+
+    int getMaxLength() {
+        return maxLength;
+    }
+
+    int size() {
+        return count;
+    }
+
+    void clear() {
+        for (int b = 0; b < heads.length; b++) {
+            heads[b] = 0;
+        }//for
+        next = 0;
+        count = 0;
+    }
+
+    private int bucket(int task, int start) {
+        return ((task * 0x9E3779B1) ^ (start * 0x85EBCA6B)) >>> 16 & (heads.length - 1);
+    }
+
+    /**
+     * add the nogood made of the pairs (nogoodTasks[i], nogoodStarts[i]) for i below length;
+     * the first pair should be the assignment made last.
+     * nogoods longer than maxLength are not stored
+     */
+    void add(int[] nogoodTasks, int[] nogoodStarts, int length) {
+        if (length > maxLength || length == 0 || capacity == 0) {
+            return;
+        }
+        int n = next;
+        next = (next + 1) % capacity;
+        if (count == capacity) {
+            // forget the oldest nogood
+            unlink(n);
+        } else {
+            count++;
+        }
+        lengths[n] = length;
+        System.arraycopy(nogoodTasks, 0, tasks, n * maxLength, length);
+        System.arraycopy(nogoodStarts, 0, starts, n * maxLength, length);
+        int b = bucket(nogoodTasks[0], nogoodStarts[0]);
+        chain[n] = heads[b];
+        heads[b] = n + 1;
+    }
+
+    /**
+     * return a nogood whose first pair is the assignment of task id and whose pairs all hold in
+     * the current assignment, or -1 if there is none
+     *
+     * @param assigned      assigned[t] is true iff task t is assigned
+     * @param assignedStart start minute of each assigned task
+     */
+    int findViolated(int id, boolean[] assigned, int[] assignedStart) {
+        int start = assignedStart[id];
+        for (int e = heads[bucket(id, start)]; e != 0; e = chain[e - 1]) {
+            int n = e - 1;
+            int offset = n * maxLength;
+            if (tasks[offset] != id || starts[offset] != start) continue;
+            boolean violated = true;
+            for (int i = 1; i < lengths[n] && violated; i++) {
+                int task = tasks[offset + i];
+                violated = assigned[task] && assignedStart[task] == starts[offset + i];
+            }//for
+            if (violated) {
+                return n;
+            }
+        }//for
+        return -1;
+    }
+
+    int getLength(int nogood) {
+        return lengths[nogood];
+    }
+
+    int getTask(int nogood, int i) {
+        return tasks[nogood * maxLength + i];
+    }
+
+    private void unlink(int n) {
+        int b = bucket(tasks[n * maxLength], starts[n * maxLength]);
+        if (heads[b] == n + 1) {
+            heads[b] = chain[n];
+            return;
+        }
+        for (int e = heads[b]; e != 0; e = chain[e - 1]) {
+            if (chain[e - 1] == n + 1) {
+                chain[e - 1] = chain[n];
+                return;
+            }
+        }//for
+    }
+}
@@ -0,0 +1,54 @@
+package com.algorithm;
+
+/*
+ * Class ObjectiveBounds is used to compute bounds on start and end times of a partial
+ * assignment, shared by the ScheduleObjective implementations.
+ * An assigned task starts and ends at its assigned slice, an unassigned task at one of its
+ * available values. Domains are sorted by start and all values of a task have the same
+ * duration, so its first available value also ends first.
+ */
+class ObjectiveBounds {
+
+    private ObjectiveBounds() {
+    }
+
+    // earliest end minute of task id
+    static int earliestEnd(CSP_Solver solver, int id) {
+        if (solver.isAssigned(id)) {
+            return solver.getAssignedEnd(id);
+        }
+        int first = solver.getBitDomain(id).nextAvailable(0);
+        return first < 0 ? 0 : solver.getTaskDomain(id).getEnd(first);
+    }
+
+    // latest start minute of task id
+    static int latestStart(CSP_Solver solver, int id) {
+        if (solver.isAssigned(id)) {
+            return solver.getAssignedStart(id);
+        }
+        int last = solver.getBitDomain(id).prevAvailable(Integer.MAX_VALUE);
+        return last < 0 ? Integer.MAX_VALUE : solver.getTaskDomain(id).getStart(last);
+    }
+
+    /**
+     * return a minute the last task of every completion ends at or after
+     */
+    static int latestEarliestEnd(CSP_Solver solver) {
+        int end = 0;
+        for (int id = 0; id < solver.getTaskCount(); id++) {
+            end = Math.max(end, earliestEnd(solver, id));
+        }//for
+        return end;
+    }
+
+    /**
+     * return a minute the first task of every completion starts at or before
+     */
+    static int earliestLatestStart(CSP_Solver solver) {
+        int start = Integer.MAX_VALUE;
+        for (int id = 0; id < solver.getTaskCount(); id++) {
+            start = Math.min(start, latestStart(solver, id));
+        }//for
+        return start;
+    }
+}
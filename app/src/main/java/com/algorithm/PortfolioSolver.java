@@ -0,0 +1,188 @@
+package com.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * Class PortfolioSolver is used to search solutions of a CSP with several CSP_Solver
+ * configurations at the same time, one thread each. All solvers add to one solution
+ * collector, and every solver stops as soon as solutionCountMax solutions are collected.
+ * Unlike CSP_Solver.getSolutions(), a day without solution at the coarse steps does not
+ * wait for those steps to fail one after another.
+ */
+public class PortfolioSolver {
+    private CSP problem;
+    private int solutionCountMax;
+    private List<Configuration> configurations;
+    // solvers of the running getSolutions() call, used by cancel()
+    private volatile List<CSP_Solver> solvers;
+    private volatile boolean cancelled;
+    // result of the last getSolutions() call
+    private List<List<TaskAssignment>> solutions;
+    // whether the last getSolutions() call was stopped by its time budget or by cancel()
+    private boolean truncated;
+
+    /*
+     * steps and orderings of one solver of the portfolio
+     */
+    private static class Configuration {
+        final List<Time> stepList;
+        final VariableOrderingStrategy variableOrdering;
+        final ValueOrderingStrategy valueOrdering;
+
+        Configuration(List<Time> stepList, VariableOrderingStrategy variableOrdering,
+                      ValueOrderingStrategy valueOrdering) {
+            this.stepList = stepList;
+            this.variableOrdering = variableOrdering;
+            this.valueOrdering = valueOrdering;
+        }
+    }
+
+    public PortfolioSolver(CSP problem1) {
+        this(problem1, 5);
+    }
+
+    public PortfolioSolver(CSP problem1, int solutionCountMax) {
+        this.problem = problem1;
+        this.solutionCountMax = solutionCountMax;
+        configurations = new ArrayList<Configuration>();
+        solvers = Collections.emptyList();
+        solutions = new LinkedList<List<TaskAssignment>>();
+    }
+
+    /**
+     * add a solver searching with the given steps and orderings.
+     * strategies keep state about the search, so every configuration needs its own instances.
+     * if no configuration is added, getSolutions() runs one solver per step of
+     * CSP_Solver.defaultStepList() with the default orderings
+     */
+    public void addConfiguration(List<Time> stepList, VariableOrderingStrategy variableOrdering,
+                                 ValueOrderingStrategy valueOrdering) {
+        if (stepList.isEmpty()) {
+            throw new IllegalArgumentException("at least one step is needed");
+        }
+        configurations.add(new Configuration(new ArrayList<Time>(stepList), variableOrdering,
+                valueOrdering));
+    }
+
+    /**
+     * run every configuration and return the collected solutions, at most solutionCountMax
+     * and without duplicates, in the order they were found
+     */
+    public List<List<TaskAssignment>> getSolutions() {
+        return search(false, 0);
+    }
+
+    /**
+     * like getSolutions(), but every solver stops searching after budgetMillis milliseconds;
+     * isTruncated() tells whether the time ran out before the search was complete
+     */
+    public List<List<TaskAssignment>> getSolutions(long budgetMillis) {
+        if (budgetMillis < 0) {
+            throw new IllegalArgumentException("budget must not be negative");
+        }
+        return search(true, budgetMillis);
+    }
+
+    /**
+     * return true if the last getSolutions() call stopped before it was complete, because
+     * its solvers ran out of their time budget or were cancelled.
+     * a search which collected solutionCountMax solutions is complete
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    private List<List<TaskAssignment>> search(final boolean budgeted, final long budgetMillis) {
+        List<Configuration> portfolio = configurations;
+        if (portfolio.isEmpty()) {
+            portfolio = new ArrayList<Configuration>();
+            for (Time step : CSP_Solver.defaultStepList()) {
+                portfolio.add(new Configuration(Collections.singletonList(step),
+                        new TopologicalOrdering(), new EarliestStartValueOrdering()));
+            }//for
+        }
+
+        SolutionCollector collector = new SolutionCollector(solutionCountMax);
+        List<CSP_Solver> newSolvers = new ArrayList<CSP_Solver>();
+        for (Configuration configuration : portfolio) {
+            CSP_Solver solver = new CSP_Solver(problem, collector);
+            solver.setStepList(configuration.stepList);
+            solver.setVariableOrderingStrategy(configuration.variableOrdering);
+            solver.setValueOrderingStrategy(configuration.valueOrdering);
+            newSolvers.add(solver);
+        }//for
+        solvers = newSolvers;
+        solutions = collector.getSolutions();
+        truncated = cancelled;
+        if (cancelled) {
+            return solutions;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(newSolvers.size());
+        try {
+            CompletionService<Void> completion = new ExecutorCompletionService<Void>(executor);
+            for (final CSP_Solver solver : newSolvers) {
+                completion.submit(new Callable<Void>() {
+                    public Void call() {
+                        if (budgeted) {
+                            solver.getSolutions(budgetMillis);
+                        } else {
+                            solver.getSolutions();
+                        }
+                        return null;
+                    }
+                });
+            }//for
+            for (int i = 0; i < newSolvers.size(); i++) {
+                completion.take().get();
+                if (collector.isFull()) {
+                    // the remaining solvers stop at their next search node
+                    cancelSolvers();
+                }
+            }//for
+        } catch (InterruptedException e) {
+            cancelSolvers();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while searching solutions", e);
+        } catch (ExecutionException e) {
+            cancelSolvers();
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        if (!collector.isFull()) {
+            for (CSP_Solver solver : newSolvers) {
+                truncated |= solver.isTruncated();
+            }//for
+        }
+        return solutions;
+    }
+
+    /**
+     * stop a running getSolutions() as soon as possible; it returns the solutions found so far.
+     * may be called from any thread, later calls of getSolutions() return without searching
+     */
+    public void cancel() {
+        cancelled = true;
+        cancelSolvers();
+    }
+
+    private void cancelSolvers() {
+        for (CSP_Solver solver : solvers) {
+            solver.cancel();
+        }//for
+    }
+
+    public String solutionsString() {
+        return CSP_Solver.solutionsString(solutions);
+    }
+}
@@ -0,0 +1,162 @@
+package com.algorithm;
+
+/*
+ * Class PrecedencePropagator enforces bounds consistency on the edges of a TemporalNetwork,
+ * "v starts at least d minutes after u starts", which covers "u before v" constraints with
+ * their gaps. Domains are sorted by start time, so a value of u has a support in v iff it
+ * starts no later than the latest available start of v minus d, and a value of v has a support
+ * in u iff it starts no earlier than the earliest available start of u plus d.
+ * Each revision therefore removes a prefix or a suffix of a domain with one binary search and
+ * word-level bit operations, instead of comparing every pair of values.
+ * Tasks whose bounds may have changed wait in a queue which holds every task at most once,
+ * which makes the propagation an incremental Bellman-Ford on the network.
+ */
+class PrecedencePropagator {
+    private final TemporalNetwork network;
+    private final Domain[] taskDomains;
+    private final BitDomain[] domains;
+    private final DomainTrail trail;
+
+    // an assigned task is treated as having only its assigned slice as value
+    private final boolean[] assigned;
+    private final int[] assignedStart;
+
+    // if not null, records which levels explain each removal, for backjumping;
+    // taskLevel[x] is the level assigned task x was assigned at
+    private ConflictSets conflicts;
+    private int[] taskLevel;
+    // number of domain values removed so far
+    private long removedCount;
+
+    // circular queue of task ids whose bounds have to be propagated
+    private final int[] queue;
+    private final boolean[] inQueue;
+    private int head;
+    private int size;
+
+    PrecedencePropagator(TemporalNetwork network, Domain[] taskDomains, BitDomain[] domains,
+                         DomainTrail trail, boolean[] assigned, int[] assignedStart) {
+        this.network = network;
+        this.taskDomains = taskDomains;
+        this.domains = domains;
+        this.trail = trail;
+        this.assigned = assigned;
+        this.assignedStart = assignedStart;
+        queue = new int[network.getTaskCount()];
+        inQueue = new boolean[network.getTaskCount()];
+    }
+
+    void setConflictSets(ConflictSets conflicts, int[] taskLevel) {
+        this.conflicts = conflicts;
+        this.taskLevel = taskLevel;
+    }
+
+    void enqueue(int id) {
+        if (inQueue[id]) {
+            return;
+        }
+        inQueue[id] = true;
+        queue[(head + size) % queue.length] = id;
+        size++;
+    }
+
+    long getRemovedCount() {
+        return removedCount;
+    }
+
+    void enqueueAll() {
+        for (int id = 0; id < queue.length; id++) {
+            enqueue(id);
+        }//for
+    }
+
+    /**
+     * revise the neighbours of every queued task until no bound changes any more
+     *
+     * @return the id of a task left without available values, or -1 if there is none
+     */
+    int propagate() {
+        while (size > 0) {
+            int x = queue[head];
+            head = (head + 1) % queue.length;
+            size--;
+            inQueue[x] = false;
+
+            if (!assigned[x] && domains[x].isEmpty()) {
+                clear();
+                return x;
+            }
+            // each successor has to start late enough after x
+            int earliestStart = getEarliestStart(x);
+            int[] successors = network.getSuccessors(x);
+            int[] successorOffsets = network.getSuccessorOffsets(x);
+            for (int k = 0; k < successors.length; k++) {
+                int y = successors[k];
+                if (assigned[y]) continue;
+                Domain domain = taskDomains[y];
+                int to = domain.lowerBound(earliestStart + successorOffsets[k]);
+                int removed = domains[y].removeRange(0, to, y, trail);
+                if (removed > 0) {
+                    removedCount += removed;
+                    recordReasons(y, x);
+                    if (domains[y].isEmpty()) {
+                        clear();
+                        return y;
+                    }
+                    enqueue(y);
+                }
+            }//for
+            // x has to start late enough after each predecessor
+            int latestStart = getLatestStart(x);
+            int[] predecessors = network.getPredecessors(x);
+            int[] predecessorOffsets = network.getPredecessorOffsets(x);
+            for (int k = 0; k < predecessors.length; k++) {
+                int y = predecessors[k];
+                if (assigned[y]) continue;
+                Domain domain = taskDomains[y];
+                int from = domain.lowerBound(latestStart - predecessorOffsets[k] + 1);
+                int removed = domains[y].removeRange(from, domain.size(), y, trail);
+                if (removed > 0) {
+                    removedCount += removed;
+                    recordReasons(y, x);
+                    if (domains[y].isEmpty()) {
+                        clear();
+                        return y;
+                    }
+                    enqueue(y);
+                }
+            }//for
+        }//while
+        return -1;
+    }
+
+    // the bounds of x removed values of y
+    private void recordReasons(int y, int x) {
+        if (conflicts != null) {
+            conflicts.addReasons(y, x, assigned[x] ? taskLevel[x] : -1);
+        }
+    }
+
+    private int getEarliestStart(int x) {
+        if (assigned[x]) {
+            return assignedStart[x];
+        }
+        return taskDomains[x].getStart(domains[x].nextAvailable(0));
+    }
+
+    private int getLatestStart(int x) {
+        if (assigned[x]) {
+            return assignedStart[x];
+        }
+        return taskDomains[x].getStart(domains[x].prevAvailable(domains[x].size() - 1));
+    }
+
+    // empty the queue, after a failure found elsewhere
+    void clear() {
+        while (size > 0) {
+            inQueue[queue[head]] = false;
+            head = (head + 1) % queue.length;
+            size--;
+        }//while
+    }
+}
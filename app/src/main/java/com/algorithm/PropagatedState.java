@@ -0,0 +1,165 @@
+package com.algorithm;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Class PropagatedState is used to carry what a CSP_Solver derived about a day over to the
+ * next search of the same day after it was edited: the start bounds of the tasks and the
+ * pre-processed domains of every step, indexed by CSP id.
+ * Derived state only rules out start times no schedule can use, so it still holds once an
+ * edit has constrained the day further, and the next search starts from it instead of from
+ * full domains. SolverSession tells which tasks each edit touched; their state is forgotten
+ * and derived again, together with all that an edit leaving more room may have widened.
+ */
+class PropagatedState {
+    private static final int UNKNOWN_EARLIEST = Integer.MIN_VALUE;
+    private static final int UNKNOWN_LATEST = Integer.MAX_VALUE;
+
+    private int taskCount;
+    // start bounds implied by the constraints of the day, without symmetry breaking
+    // precedences; UNKNOWN_EARLIEST and UNKNOWN_LATEST for tasks whose bounds are not known
+    private int[] earliestStart;
+    private int[] latestStart;
+    // pre-processed bit domains of each step by step minutes, null for tasks not known
+    private final Map<Integer, BitDomain[]> domains;
+    // steps by minutes whose pre-processing left some task without values
+    private final Set<Integer> failedSteps;
+    // symmetry breaking precedences u -> v the domains were derived with, as u << 32 | v
+    private Set<Long> precedences;
+
+    PropagatedState(int taskCount) {
+        this.taskCount = taskCount;
+        earliestStart = new int[taskCount];
+        latestStart = new int[taskCount];
+        Arrays.fill(earliestStart, UNKNOWN_EARLIEST);
+        Arrays.fill(latestStart, UNKNOWN_LATEST);
+        domains = new HashMap<Integer, BitDomain[]>();
+        failedSteps = new HashSet<Integer>();
+        precedences = new HashSet<Long>();
+    }
+
+    int getTaskCount() {
+        return taskCount;
+    }
+
+    /**
+     * add a task, whose state is not known
+     */
+    void addTask() {
+        taskCount++;
+        earliestStart = Arrays.copyOf(earliestStart, taskCount);
+        latestStart = Arrays.copyOf(latestStart, taskCount);
+        earliestStart[taskCount - 1] = UNKNOWN_EARLIEST;
+        latestStart[taskCount - 1] = UNKNOWN_LATEST;
+        for (Map.Entry<Integer, BitDomain[]> entry : domains.entrySet()) {
+            entry.setValue(Arrays.copyOf(entry.getValue(), taskCount));
+        }//for
+    }
+
+    /**
+     * remove task id, whose id the last task takes as in CSP.removeTask(). the other tasks
+     * may use the time of the removed one, so all domains are forgotten
+     */
+    void removeTask(int id) {
+        int last = taskCount - 1;
+        earliestStart[id] = earliestStart[last];
+        latestStart[id] = latestStart[last];
+        taskCount--;
+        earliestStart = Arrays.copyOf(earliestStart, taskCount);
+        latestStart = Arrays.copyOf(latestStart, taskCount);
+        forgetAllDomains();
+        for (Integer step : domains.keySet()) {
+            domains.put(step, new BitDomain[taskCount]);
+        }//for
+    }
+
+    void forgetBounds(int id) {
+        earliestStart[id] = UNKNOWN_EARLIEST;
+        latestStart[id] = UNKNOWN_LATEST;
+    }
+
+    // forget the domains of task id at every step
+    void forgetDomains(int id) {
+        for (BitDomain[] stepDomains : domains.values()) {
+            stepDomains[id] = null;
+        }//for
+    }
+
+    void forgetAllDomains() {
+        for (BitDomain[] stepDomains : domains.values()) {
+            Arrays.fill(stepDomains, null);
+        }//for
+        failedSteps.clear();
+        precedences.clear();
+    }
+
+    /**
+     * narrow the given bounds, which hold for every task, to the known ones
+     */
+    void restrictStartBounds(int[] earliest, int[] latest) {
+        for (int id = 0; id < taskCount; id++) {
+            earliest[id] = Math.max(earliest[id], earliestStart[id]);
+            latest[id] = Math.min(latest[id], latestStart[id]);
+        }//for
+    }
+
+    void setStartBounds(int[] earliest, int[] latest) {
+        earliestStart = earliest.clone();
+        latestStart = latest.clone();
+    }
+
+    /**
+     * tell the symmetry breaking precedences of a search. the domains derived with precedences
+     * it does not have are forgotten, since they may leave out its schedules
+     *
+     * @return the precedences which were not known, whose tasks have to be propagated again
+     */
+    Set<Long> updatePrecedences(Set<Long> searchPrecedences) {
+        if (!searchPrecedences.containsAll(precedences)) {
+            forgetAllDomains();
+        }
+        Set<Long> added = new HashSet<Long>(searchPrecedences);
+        added.removeAll(precedences);
+        precedences = new HashSet<Long>(searchPrecedences);
+        return added;
+    }
+
+    boolean isFailedStep(int step) {
+        return failedSteps.contains(step);
+    }
+
+    void setFailedStep(int step) {
+        failedSteps.add(step);
+    }
+
+    // the known pre-processed domain of task id at step, or null
+    BitDomain getDomain(int step, int id) {
+        BitDomain[] stepDomains = domains.get(step);
+        return stepDomains == null ? null : stepDomains[id];
+    }
+
+    void setDomains(int step, BitDomain[] stepDomains) {
+        BitDomain[] copies = new BitDomain[taskCount];
+        for (int id = 0; id < taskCount; id++) {
+            copies[id] = new BitDomain(stepDomains[id]);
+        }//for
+        domains.put(step, copies);
+    }
+
+    // number of known domains over all steps, for tests
+    int getKnownDomainCount() {
+        int count = 0;
+        for (BitDomain[] stepDomains : domains.values()) {
+            for (BitDomain domain : stepDomains) {
+                if (domain != null) {
+                    count++;
+                }
+            }//for
+        }//for
+        return count;
+    }
+}
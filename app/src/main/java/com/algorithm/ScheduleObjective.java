@@ -0,0 +1,26 @@
+package com.algorithm;
+
+/*
+ * Interface ScheduleObjective measures the quality of a schedule for
+ * CSP_Solver.getBestSolution(), lower costs are better.
+ * Implementations can look at the live state of the search through the solver passed in.
+ */
+public interface ScheduleObjective {
+    /**
+     * called by getBestSolution() before searching
+     */
+    void initialize(CSP_Solver solver);
+
+    /**
+     * return the cost of the complete assignment of the solver
+     */
+    long evaluate(CSP_Solver solver);
+
+    /**
+     * return a cost no complete assignment extending the current partial assignment of the
+     * solver can go below, taking the available values of the unassigned tasks into account.
+     * a higher bound prunes more of the search, but a bound above the real cost loses the best
+     * schedule
+     */
+    long lowerBound(CSP_Solver solver);
+}
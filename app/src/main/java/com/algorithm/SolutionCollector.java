@@ -0,0 +1,93 @@
+package com.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/*
+ * Class SolutionCollector is used to gather the solutions found by the search, dropping
+ * duplicated ones and keeping at most maxCount of them.
+ * It is shared by all worker threads of a parallel search, so adding is synchronized.
+ */
+class SolutionCollector {
+    private final List<List<TaskAssignment>> solutions;
+    private final int maxCount;
+    // read by the workers at every search node without taking the lock
+    private volatile boolean full;
+    // fingerprints of the solutions added so far, created by the first add
+    private SolutionFingerprintSet fingerprints;
+
+    SolutionCollector(int maxCount) {
+        solutions = new LinkedList<List<TaskAssignment>>();
+        this.maxCount = maxCount;
+        full = maxCount <= 0;
+    }
+
+    // only read while no solver adds to the collector
+    List<List<TaskAssignment>> getSolutions() {
+        return solutions;
+    }
+
+    boolean isFull() {
+        return full;
+    }
+
+    synchronized int size() {
+        return solutions.size();
+    }
+
+    /**
+     * add the solution in which task id starts at minute starts[id] and ends at ends[id],
+     * unless enough solutions have been found or it is a duplicate.
+     * duplicates are found by fingerprint, before any TaskAssignment is created
+     *
+     * @return the TaskAssignment list of the solution if it was added, otherwise null
+     */
+    synchronized List<TaskAssignment> add(int[] starts, int[] ends) {
+        if (full) {
+            return null;
+        }
+        if (fingerprints == null) {
+            fingerprints = new SolutionFingerprintSet(starts.length);
+        }
+        if (!fingerprints.add(starts)) {
+            return null;
+        }
+        List<TaskAssignment> solution = createAssignmentList(starts, ends);
+        solutions.add(solution);
+        full = solutions.size() >= maxCount;
+        return solution;
+    }
+
+    /**
+     * add solution unless enough solutions have been found or it is a duplicate;
+     * the task ids of solution have to be 0 .. solution.size() - 1
+     *
+     * @return true if solution was added
+     */
+    synchronized boolean add(List<TaskAssignment> solution) {
+        int[] starts = new int[solution.size()];
+        int[] ends = new int[solution.size()];
+        for (TaskAssignment assignment : solution) {
+            starts[assignment.getTaskId()] = assignment.getAssignment().getStartTime().toMinutes();
+            ends[assignment.getTaskId()] = assignment.getAssignment().getEndTime().toMinutes();
+        }//for
+        return add(starts, ends) != null;
+    }
+
+    /**
+     * build the TaskAssignment list in which task id starts at minute starts[id] and ends at
+     * ends[id], in ascending order of start time
+     */
+    static ArrayList<TaskAssignment> createAssignmentList(int[] starts, int[] ends) {
+        ArrayList<TaskAssignment> newAssignment = new ArrayList<TaskAssignment>(starts.length);
+        for (int id = 0; id < starts.length; id++) {
+            TimeSlice slice = new TimeSlice(Time.fromMinutes(starts[id]),
+                    Time.fromMinutes(ends[id]), true);
+            newAssignment.add(new TaskAssignment(id, slice));
+        }//for
+        Collections.sort(newAssignment);
+        return newAssignment;
+    }
+}
@@ -0,0 +1,116 @@
+package com.algorithm;
+
+/*
+ * Class SolutionFingerprintSet is used to remember which solutions have been found already.
+ * A solution is stored as its fingerprint: the start minute of every task, indexed by task id.
+ * The end of a task follows from its start, so two solutions with the same fingerprint are
+ * equal. Fingerprints are packed one after another into a single int array and found by a
+ * 64-bit hash in an open addressing table.
+ */
+class SolutionFingerprintSet {
+    private static final int INITIAL_CAPACITY = 16;// number of table slots, a power of 2
+
+    private final int width;// number of tasks of every fingerprint
+    private int[] packed;// fingerprint i is packed[i * width .. (i + 1) * width)
+    private int size;
+    // slot s of the table holds fingerprint entries[s] - 1 with hash hashes[s], 0 if empty
+    private long[] hashes;
+    private int[] entries;
+
+    SolutionFingerprintSet(int width) {
+        this.width = width;
+        packed = new int[width * INITIAL_CAPACITY / 2];
+        size = 0;
+        hashes = new long[INITIAL_CAPACITY];
+        entries = new int[INITIAL_CAPACITY];
+    }
+
+    int size() {
+        return size;
+    }
+
+    static long hash(int[] starts) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (int start : starts) {
+            h = (h ^ start) * 0x100000001B3L;
+        }//for
+        // spread all bits, so that the low bits select the slot well
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    boolean contains(int[] starts) {
+        return entries[findSlot(starts, hash(starts))] != 0;
+    }
+
+    /**
+     * add the fingerprint starts, which is copied
+     *
+     * @return false if it was already in the set
+     */
+    boolean add(int[] starts) {
+        long h = hash(starts);
+        int slot = findSlot(starts, h);
+        if (entries[slot] != 0) {
+            return false;
+        }
+        if ((size + 1) * width > packed.length) {
+            int[] newPacked = new int[Math.max(packed.length * 2, (size + 1) * width)];
+            System.arraycopy(packed, 0, newPacked, 0, size * width);
+            packed = newPacked;
+        }
+        System.arraycopy(starts, 0, packed, size * width, width);
+        size++;
+        hashes[slot] = h;
+        entries[slot] = size;
+        if (size * 2 > entries.length) {
+            // keep the table at most half full
+            rehash();
+        }
+        return true;
+    }
+
+    /*
+     * return the slot holding starts, or the empty slot where it would be added
+     */
+    private int findSlot(int[] starts, long h) {
+        int mask = entries.length - 1;
+        int slot = (int) h & mask;
+        while (entries[slot] != 0) {
+            if (hashes[slot] == h && isEqual(entries[slot] - 1, starts)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }//while
+        return slot;
+    }
+
+    private boolean isEqual(int entry, int[] starts) {
+        int offset = entry * width;
+        for (int i = 0; i < width; i++) {
+            if (packed[offset + i] != starts[i]) {
+                return false;
+            }
+        }//for
+        return true;
+    }
+
+    private void rehash() {
+        long[] oldHashes = hashes;
+        int[] oldEntries = entries;
+        hashes = new long[oldHashes.length * 2];
+        entries = new int[oldEntries.length * 2];
+        int mask = entries.length - 1;
+        for (int s = 0; s < oldEntries.length; s++) {
+            if (oldEntries[s] == 0) continue;
+            int slot = (int) oldHashes[s] & mask;
+            while (entries[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }//while
+            hashes[slot] = oldHashes[s];
+            entries[slot] = oldEntries[s];
+        }//for
+    }
+}
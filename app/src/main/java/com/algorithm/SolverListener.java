@@ -0,0 +1,21 @@
+package com.algorithm;
+
+/*
+ * Interface SolverListener is used to follow the progress of a CSP_Solver search, for example
+ * to log its statistics. The methods are called in the thread which called the solver.
+ */
+public interface SolverListener {
+    /**
+     * called when the search at step is over, because its search tree is exhausted or the
+     * search is stopped
+     *
+     * @param stats statistics of the search so far
+     */
+    void onStepFinished(Time step, SolverStats stats);
+
+    /**
+     * called once when getSolutions(), getBestSolution() or the solution iterator has finished
+     * searching
+     */
+    void onSearchFinished(SolverStats stats);
+}
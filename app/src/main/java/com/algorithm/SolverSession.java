@@ -0,0 +1,757 @@
+package com.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/*
+ * Class SolverSession is used to solve one day again and again while its tasks are edited.
+ * Tasks and constraints are added, changed and removed one at a time, and getSolutions()
+ * or solutionIterator() solves the day as it is now. A task is identified by the key
+ * returned when it is added, which never changes, so solutions use keys as task ids.
+ * Work of earlier searches is reused: nothing is searched if the day has not changed,
+ * previous solutions which are still valid are kept in front of the new ones, and the
+ * domains of flexible tasks are built once per duration and step.
+ * The session keeps one CSP with its ConstraintGraph for the whole day, and applies the
+ * edits made since the last search to it as deltas. The start bounds and pre-processed
+ * domains of the last search are kept in a PropagatedState: an edit which constrains the
+ * day further (a new task or constraint, a longer flexible task) only makes the tasks it
+ * touched be propagated again, while an edit which leaves more room drops the bounds of the
+ * tasks connected with it and the pre-processed domains.
+ */
+public class SolverSession {
+    private static final int NO_MAX_GAP = -1;
+
+    private final Time dayStart;
+    private final Time dayEnd;
+    private final int solutionCountMax;
+    private final DomainCache domainCache;
+
+    // tasks of the day by key, in the order they were added
+    private final Map<Integer, SessionTask> tasks;
+    // constraints as {key before, key after, least gap, most gap or NO_MAX_GAP}
+    private final List<int[]> constraints;
+    private int nextKey;
+    // equivalence key of each task for symmetry breaking, by task key
+    private final Map<Integer, Object> equivalenceKeys;
+    private boolean symmetryBreaking;
+    private SolverListener listener;
+    // steps of the searches, null for the default ones
+    private List<Time> stepList;
+
+    // the day as of the last search: the CSP holds the tasks of syncedTasks and the
+    // constraints of syncedConstraints, task key keys.get(id) has CSP id ids.get(key)
+    private final CSP problem;
+    private final PropagatedState propagatedState;
+    private final Map<Integer, SessionTask> syncedTasks;
+    private final List<int[]> syncedConstraints;
+    private final Map<Integer, Integer> ids;
+    private final List<Integer> keys;
+
+    // solutions found since the last edit, or by the last search before it, with keys as
+    // task ids
+    private List<List<TaskAssignment>> solutions;
+    // true if the day has been edited since solutions were all found
+    private boolean changed;
+    // number of edits so far, an iterator fails once the day is edited
+    private int editCount;
+    // whether the last pull of a solution iterator ran out of its time budget
+    private boolean truncated;
+
+    /*
+     * a task of the session; start and end are only used by fixed tasks
+     */
+    private static class SessionTask {
+        final boolean fixed;
+        final Time duration;
+        final Time start;
+        final Time end;
+
+        SessionTask(boolean fixed, Time duration, Time start, Time end) {
+            this.fixed = fixed;
+            this.duration = duration;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    public SolverSession(Time dayStart, Time dayEnd) {
+        this(dayStart, dayEnd, 5);
+    }
+
+    public SolverSession(Time dayStart, Time dayEnd, int solutionCountMax) {
+        this.dayStart = dayStart;
+        this.dayEnd = dayEnd;
+        this.solutionCountMax = solutionCountMax;
+        domainCache = new DomainCache(dayStart, dayEnd);
+        tasks = new LinkedHashMap<Integer, SessionTask>();
+        constraints = new ArrayList<int[]>();
+        equivalenceKeys = new HashMap<Integer, Object>();
+        problem = new CSP(dayStart, dayEnd);
+        problem.createConstraintGraph();
+        propagatedState = new PropagatedState(0);
+        syncedTasks = new HashMap<Integer, SessionTask>();
+        syncedConstraints = new ArrayList<int[]>();
+        ids = new HashMap<Integer, Integer>();
+        keys = new ArrayList<Integer>();
+        solutions = new LinkedList<List<TaskAssignment>>();
+        changed = true;
+    }
+
+    /**
+     * add a flexible task
+     *
+     * @return the key of the task
+     */
+    public int addFlexibleTask(Time duration) {
+        tasks.put(nextKey, new SessionTask(false, duration, null, null));
+        edited();
+        return nextKey++;
+    }
+
+    /**
+     * add a fixed task
+     *
+     * @return the key of the task
+     */
+    public int addFixedTask(Time startTime, Time endTime) {
+        tasks.put(nextKey, new SessionTask(true, endTime.subtractTime(startTime), startTime,
+                endTime));
+        edited();
+        return nextKey++;
+    }
+
+    public void changeFlexibleTask(int key, Time duration) {
+        SessionTask task = getTask(key);
+        if (!task.fixed && task.duration.equals(duration)) {
+            return;
+        }
+        tasks.put(key, new SessionTask(false, duration, null, null));
+        edited();
+    }
+
+    public void changeFixedTask(int key, Time startTime, Time endTime) {
+        SessionTask task = getTask(key);
+        if (task.fixed && task.start.equals(startTime) && task.end.equals(endTime)) {
+            return;
+        }
+        tasks.put(key, new SessionTask(true, endTime.subtractTime(startTime), startTime,
+                endTime));
+        edited();
+    }
+
+    /**
+     * remove a task together with its constraints
+     */
+    public void removeTask(int key) {
+        getTask(key);
+        tasks.remove(key);
+        equivalenceKeys.remove(key);
+        for (Iterator<int[]> it = constraints.iterator(); it.hasNext(); ) {
+            int[] constraint = it.next();
+            if (constraint[0] == key || constraint[1] == key) {
+                it.remove();
+            }
+        }//for
+        edited();
+    }
+
+    /**
+     * task key1 has to end at least weight minutes before task key2 starts
+     */
+    public void addConstraint(int key1, int key2, int weight) {
+        getTask(key1);
+        getTask(key2);
+        if (findConstraint(key1, key2, weight) < 0) {
+            constraints.add(new int[]{key1, key2, weight, NO_MAX_GAP});
+            edited();
+        }
+    }
+
+    /**
+     * task key2 has to start at least minGap and at most maxGap minutes after task key1 ends.
+     * replaces the max gap of a constraint added before with the same min gap
+     */
+    public void addConstraint(int key1, int key2, int minGap, int maxGap) {
+        getTask(key1);
+        getTask(key2);
+        if (minGap < 0 || maxGap < minGap) {
+            throw new IllegalArgumentException("gaps have to satisfy 0 <= minGap <= maxGap");
+        }
+        int i = findConstraint(key1, key2, minGap);
+        if (i < 0) {
+            constraints.add(new int[]{key1, key2, minGap, maxGap});
+            edited();
+        } else if (constraints.get(i)[3] != maxGap) {
+            constraints.get(i)[3] = maxGap;
+            edited();
+        }
+    }
+
+    public void removeConstraint(int key1, int key2, int weight) {
+        int i = findConstraint(key1, key2, weight);
+        if (i >= 0) {
+            constraints.remove(i);
+            edited();
+        }
+    }
+
+    /**
+     * enable or disable symmetry breaking as in CSP_Solver.setSymmetryBreaking() (disabled by
+     * default)
+     */
+    public void setSymmetryBreaking(boolean symmetryBreaking) {
+        if (this.symmetryBreaking != symmetryBreaking) {
+            this.symmetryBreaking = symmetryBreaking;
+            edited();
+        }
+    }
+
+    /**
+     * set the key of a task for symmetry breaking, as in CSP_Solver.setEquivalenceKeys():
+     * only tasks with equal keys are interchangeable. tasks without key have null
+     */
+    public void setEquivalenceKey(int key, Object equivalenceKey) {
+        getTask(key);
+        Object old = equivalenceKeys.get(key);
+        if (old == null ? equivalenceKey != null : !old.equals(equivalenceKey)) {
+            equivalenceKeys.put(key, equivalenceKey);
+            edited();
+        }
+    }
+
+    /**
+     * set the listener told about the progress of the searches, or null
+     */
+    public void setListener(SolverListener listener) {
+        this.listener = listener;
+    }
+
+    // steps of the searches, for tests
+    void setStepList(List<Time> stepList) {
+        this.stepList = new ArrayList<Time>(stepList);
+        edited();
+    }
+
+    /**
+     * @return true if the tasks take more time than the day has, then there is no solution
+     */
+    public boolean isOvertime() {
+        int total = 0;
+        for (SessionTask task : tasks.values()) {
+            total += task.duration.toMinutes();
+        }//for
+        return total > dayEnd.toMinutes() - dayStart.toMinutes();
+    }
+
+    /**
+     * detect whether the constraints close a cycle, then there is no solution.
+     * the day must not be overtime
+     */
+    public boolean isConstraintsConflict() {
+        if (isOvertime()) {
+            throw new IllegalStateException("the tasks take more time than the day has");
+        }
+        sync();
+        return problem.isConstraintsConflict();
+    }
+
+    /**
+     * solve the day as it is now and return at most solutionCountMax solutions, whose task ids
+     * are the keys of the tasks.
+     * previous solutions which are still valid come first; new ones are only searched for if
+     * there are not enough of them
+     */
+    public List<List<TaskAssignment>> getSolutions() {
+        if (!changed) {
+            return solutions;
+        }
+        Iterator<List<TaskAssignment>> iterator = new SessionIterator(false, 0, false);
+        while (iterator.hasNext()) {
+            iterator.next();
+        }//while
+        return solutions;
+    }
+
+    /**
+     * return an iterator over the solutions of the day as it is now, at most solutionCountMax,
+     * whose task ids are the keys of the tasks. previous solutions which are still valid come
+     * first, then new ones are searched one at a time as they are asked for. if no previous
+     * solution is valid, the first one is raced by a PortfolioSolver on several threads.
+     * each search for a solution stops after budgetMillis milliseconds, as with
+     * CSP_Solver.solutionIterator(budgetMillis): hasNext() then returns false and
+     * isTruncated() true, and the next call of hasNext() goes on searching.
+     * the iterator fails with ConcurrentModificationException once the day is edited
+     */
+    public Iterator<List<TaskAssignment>> solutionIterator(long budgetMillis) {
+        if (budgetMillis < 0) {
+            throw new IllegalArgumentException("budget must not be negative");
+        }
+        return new SessionIterator(true, budgetMillis, true);
+    }
+
+    /**
+     * return true if the last search of a solution iterator ran out of its time budget
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /*
+     * iterates over the solutions of the day as synced when the iterator was made, adding
+     * them to solutions
+     */
+    private class SessionIterator implements Iterator<List<TaskAssignment>> {
+        private final boolean budgeted;
+        private final long budgetMillis;
+        private final int iteratorEditCount;
+        private final SolutionCollector collector;
+        // valid solutions of the last search, with CSP ids, not returned yet
+        private final LinkedList<List<TaskAssignment>> kept;
+        // race a PortfolioSolver for the first solution
+        private boolean raceFirst;
+        // tasks whose order symmetry breaking fixes, by CSP id
+        private List<int[]> groups;
+        private CSP_Solver solver;
+        private Iterator<List<TaskAssignment>> search;
+        private List<TaskAssignment> next;
+        private boolean exhausted;
+
+        SessionIterator(boolean budgeted, long budgetMillis, boolean race) {
+            this.budgeted = budgeted;
+            this.budgetMillis = budgetMillis;
+            iteratorEditCount = editCount;
+            collector = new SolutionCollector(solutionCountMax);
+            kept = new LinkedList<List<TaskAssignment>>();
+            truncated = false;
+            if (tasks.isEmpty() || isOvertime()) {
+                solutions = new LinkedList<List<TaskAssignment>>();
+                finish();
+                return;
+            }
+            sync();
+            groups = symmetryBreaking ? InterchangeableTasks.find(problem, getTaskKeys())
+                    : Collections.<int[]>emptyList();
+            for (List<TaskAssignment> solution : solutions) {
+                if (isValid(solution)) {
+                    List<TaskAssignment> renumbered = canonical(renumber(solution, ids));
+                    if (collector.add(renumbered)) {
+                        kept.add(renumbered);
+                    }
+                }
+            }//for
+            solutions = new LinkedList<List<TaskAssignment>>();
+            raceFirst = race && kept.isEmpty();
+        }
+
+        public boolean hasNext() {
+            if (iteratorEditCount != editCount) {
+                throw new ConcurrentModificationException("the day was edited");
+            }
+            if (next != null || exhausted) {
+                return next != null;
+            }
+            truncated = false;
+            List<TaskAssignment> found = null;
+            if (!kept.isEmpty()) {
+                found = kept.removeFirst();
+            } else if (collector.isFull()) {
+                finish();
+            } else if (raceFirst) {
+                raceFirst = false;
+                PortfolioSolver portfolio = new PortfolioSolver(problem, 1);
+                List<List<TaskAssignment>> raced = budgeted
+                        ? portfolio.getSolutions(budgetMillis) : portfolio.getSolutions();
+                truncated = portfolio.isTruncated();
+                if (!raced.isEmpty()) {
+                    // the collector is empty, since no previous solution was kept
+                    found = canonical(raced.get(0));
+                    collector.add(found);
+                } else if (!truncated) {
+                    // no solution at any step
+                    finish();
+                }
+            } else {
+                if (search == null) {
+                    solver = createSolver(collector);
+                    search = budgeted ? solver.solutionIterator(budgetMillis)
+                            : solver.solutionIterator();
+                }
+                if (search.hasNext()) {
+                    found = search.next();
+                } else {
+                    truncated = solver.isTruncated();
+                    if (!truncated) {
+                        finish();
+                    }
+                }
+            }
+            if (found != null) {
+                next = toKeys(found);
+                solutions.add(next);
+            }
+            return next != null;
+        }
+
+        public List<TaskAssignment> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<TaskAssignment> solution = next;
+            next = null;
+            return solution;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /*
+         * the schedule of solution in which the tasks of each group follow each other in
+         * ascending order of id, as symmetry breaking searches them
+         */
+        private List<TaskAssignment> canonical(List<TaskAssignment> solution) {
+            if (groups.isEmpty()) {
+                return solution;
+            }
+            TimeSlice[] slices = new TimeSlice[solution.size()];
+            for (TaskAssignment assignment : solution) {
+                slices[assignment.getTaskId()] = assignment.getAssignment();
+            }//for
+            for (int[] group : groups) {
+                TimeSlice[] groupSlices = new TimeSlice[group.length];
+                for (int i = 0; i < group.length; i++) {
+                    groupSlices[i] = slices[group[i]];
+                }//for
+                Arrays.sort(groupSlices, new Comparator<TimeSlice>() {
+                    public int compare(TimeSlice slice1, TimeSlice slice2) {
+                        return slice1.getStartTime().toMinutes()
+                                - slice2.getStartTime().toMinutes();
+                    }
+                });
+                for (int i = 0; i < group.length; i++) {
+                    slices[group[i]] = groupSlices[i];
+                }//for
+            }//for
+            List<TaskAssignment> swapped = new ArrayList<TaskAssignment>(slices.length);
+            for (int id = 0; id < slices.length; id++) {
+                swapped.add(new TaskAssignment(id, slices[id]));
+            }//for
+            Collections.sort(swapped);
+            return swapped;
+        }
+
+        // every solution of the day has been found
+        private void finish() {
+            exhausted = true;
+            changed = false;
+        }
+    }
+
+    // a solver of the day as synced, starting from what earlier searches derived
+    private CSP_Solver createSolver(SolutionCollector collector) {
+        CSP_Solver solver = new CSP_Solver(problem, collector);
+        solver.setDomainCache(domainCache);
+        solver.setPropagatedState(propagatedState);
+        solver.setSymmetryBreaking(symmetryBreaking);
+        solver.setEquivalenceKeys(getTaskKeys());
+        solver.setListener(listener);
+        if (stepList != null) {
+            solver.setStepList(stepList);
+        }
+        return solver;
+    }
+
+    // the equivalence keys of the tasks by CSP id, or null if no task has one
+    private Object[] getTaskKeys() {
+        if (equivalenceKeys.isEmpty()) {
+            return null;
+        }
+        Object[] taskKeys = new Object[keys.size()];
+        for (int id = 0; id < keys.size(); id++) {
+            taskKeys[id] = equivalenceKeys.get(keys.get(id));
+        }//for
+        return taskKeys;
+    }
+
+    /*
+     * apply the edits made since the last search to problem and propagatedState.
+     * constraints and tasks are removed first, while their CSP ids are still valid, then
+     * tasks are changed, shrinking ones first so that the day never seems overtime, and
+     * tasks and constraints are added last
+     */
+    private void sync() {
+        List<int[]> removedConstraints = new ArrayList<int[]>();
+        for (int[] constraint : syncedConstraints) {
+            if (indexOf(constraints, constraint) < 0) {
+                removedConstraints.add(constraint);
+            }
+        }//for
+        List<int[]> addedConstraints = new ArrayList<int[]>();
+        for (int[] constraint : constraints) {
+            if (indexOf(syncedConstraints, constraint) < 0) {
+                addedConstraints.add(constraint.clone());
+            }
+        }//for
+        List<Integer> removedKeys = new ArrayList<Integer>();
+        List<Integer> changedKeys = new ArrayList<Integer>();
+        // tasks of the edits which leave more room
+        List<Integer> widened = new ArrayList<Integer>();
+        for (int[] constraint : removedConstraints) {
+            widened.add(constraint[0]);
+            widened.add(constraint[1]);
+        }//for
+        for (Map.Entry<Integer, SessionTask> entry : syncedTasks.entrySet()) {
+            SessionTask old = entry.getValue();
+            SessionTask task = tasks.get(entry.getKey());
+            if (task == null) {
+                removedKeys.add(entry.getKey());
+                widened.add(entry.getKey());
+            } else if (task != old) {
+                changedKeys.add(entry.getKey());
+                if (task.fixed || old.fixed
+                        || task.duration.toMinutes() < old.duration.toMinutes()) {
+                    widened.add(entry.getKey());
+                }
+            }
+        }//for
+
+        if (!widened.isEmpty()) {
+            // the bounds of the tasks connected with a widening edit may widen, and its tasks
+            // may have removed values of any other task
+            int[] component = findComponents();
+            boolean[] widenedComponent = new boolean[keys.size()];
+            for (int key : widened) {
+                widenedComponent[component[ids.get(key)]] = true;
+            }//for
+            for (int id = 0; id < keys.size(); id++) {
+                if (widenedComponent[component[id]]) {
+                    propagatedState.forgetBounds(id);
+                }
+            }//for
+            propagatedState.forgetAllDomains();
+        }
+
+        for (int[] constraint : removedConstraints) {
+            int id1 = ids.get(constraint[0]);
+            int id2 = ids.get(constraint[1]);
+            problem.deleteConstraint(id1, id2, constraint[2]);
+            if (constraint[3] != NO_MAX_GAP) {
+                problem.deleteMaxGap(id1, id2, constraint[3]);
+            }
+        }//for
+        for (int key : removedKeys) {
+            // the last task takes the CSP id of the removed one
+            int id = ids.remove(key);
+            int last = keys.size() - 1;
+            problem.removeTask(id);
+            propagatedState.removeTask(id);
+            int lastKey = keys.remove(last);
+            if (id != last) {
+                keys.set(id, lastKey);
+                ids.put(lastKey, id);
+            }
+        }//for
+        Collections.sort(changedKeys, new Comparator<Integer>() {
+            public int compare(Integer key1, Integer key2) {
+                return growth(key1) - growth(key2);
+            }
+        });
+        for (int key : changedKeys) {
+            int id = ids.get(key);
+            SessionTask task = tasks.get(key);
+            if (task.fixed) {
+                problem.changeFixedTask(id, task.start, task.end);
+            } else {
+                problem.changeFlexibleTask(id, task.duration);
+            }
+            propagatedState.forgetBounds(id);
+            propagatedState.forgetDomains(id);
+        }//for
+        for (Map.Entry<Integer, SessionTask> entry : tasks.entrySet()) {
+            if (syncedTasks.containsKey(entry.getKey())) {
+                continue;
+            }
+            SessionTask task = entry.getValue();
+            if (task.fixed) {
+                problem.addFixedTask(task.start, task.end);
+            } else {
+                problem.addFlexibleTask(task.duration);
+            }
+            propagatedState.addTask();
+            ids.put(entry.getKey(), keys.size());
+            keys.add(entry.getKey());
+        }//for
+        for (int[] constraint : addedConstraints) {
+            int id1 = ids.get(constraint[0]);
+            int id2 = ids.get(constraint[1]);
+            if (constraint[3] == NO_MAX_GAP) {
+                problem.addConstraint(id1, id2, constraint[2]);
+            } else {
+                problem.addConstraint(id1, id2, constraint[2], constraint[3]);
+            }
+            // kept domains are consistent without the constraint
+            propagatedState.forgetDomains(id1);
+            propagatedState.forgetDomains(id2);
+        }//for
+
+        syncedTasks.clear();
+        syncedTasks.putAll(tasks);
+        syncedConstraints.clear();
+        for (int[] constraint : constraints) {
+            syncedConstraints.add(constraint.clone());
+        }//for
+    }
+
+    // minutes task key grew by since the last search
+    private int growth(int key) {
+        return tasks.get(key).duration.toMinutes() - syncedTasks.get(key).duration.toMinutes();
+    }
+
+    /*
+     * label each task of problem, by CSP id, with a task connected with it by constraints or
+     * max gaps, the same for all tasks connected with each other
+     */
+    private int[] findComponents() {
+        int[] parent = new int[keys.size()];
+        for (int id = 0; id < parent.length; id++) {
+            parent[id] = id;
+        }//for
+        List<Arc> arcs = new ArrayList<Arc>(problem.getConstraintArcs());
+        arcs.addAll(problem.getMaxGaps());
+        for (Arc arc : arcs) {
+            parent[findRoot(parent, arc.getU())] = findRoot(parent, arc.getV());
+        }//for
+        for (int id = 0; id < parent.length; id++) {
+            parent[id] = findRoot(parent, id);
+        }//for
+        return parent;
+    }
+
+    private static int findRoot(int[] parent, int id) {
+        while (parent[id] != id) {
+            parent[id] = parent[parent[id]];
+            id = parent[id];
+        }//while
+        return id;
+    }
+
+    // copy solution, whose task ids are CSP ids, with the keys of the tasks as task ids
+    private List<TaskAssignment> toKeys(List<TaskAssignment> solution) {
+        List<TaskAssignment> copy = new ArrayList<TaskAssignment>(solution.size());
+        for (TaskAssignment assignment : solution) {
+            copy.add(new TaskAssignment(keys.get(assignment.getTaskId()),
+                    assignment.getAssignment()));
+        }//for
+        return copy;
+    }
+
+    public String solutionsString() {
+        return CSP_Solver.solutionsString(solutions);
+    }
+
+    // number of domains built so far, for tests
+    int getCachedDomainCount() {
+        return domainCache.size();
+    }
+
+    // number of pre-processed domains kept for the next search, for tests
+    int getKnownDomainCount() {
+        return propagatedState.getKnownDomainCount();
+    }
+
+    private void edited() {
+        changed = true;
+        editCount++;
+    }
+
+    private SessionTask getTask(int key) {
+        SessionTask task = tasks.get(key);
+        if (task == null) {
+            throw new IllegalArgumentException("no task with key " + key);
+        }
+        return task;
+    }
+
+    private int findConstraint(int key1, int key2, int weight) {
+        for (int i = 0; i < constraints.size(); i++) {
+            int[] constraint = constraints.get(i);
+            if (constraint[0] == key1 && constraint[1] == key2 && constraint[2] == weight) {
+                return i;
+            }
+        }//for
+        return -1;
+    }
+
+    private static int indexOf(List<int[]> constraintList, int[] constraint) {
+        for (int i = 0; i < constraintList.size(); i++) {
+            if (Arrays.equals(constraintList.get(i), constraint)) {
+                return i;
+            }
+        }//for
+        return -1;
+    }
+
+    /*
+     * true if solution, found before the last edits, is a solution of the day as it is now.
+     * no two tasks can overlap: they did not overlap before, and a task which was moved or
+     * resized fails the check on its own times
+     */
+    private boolean isValid(List<TaskAssignment> solution) {
+        Map<Integer, TimeSlice> slices = new HashMap<Integer, TimeSlice>();
+        for (TaskAssignment assignment : solution) {
+            slices.put(assignment.getTaskId(), assignment.getAssignment());
+        }//for
+        for (Map.Entry<Integer, SessionTask> entry : tasks.entrySet()) {
+            TimeSlice slice = slices.get(entry.getKey());
+            if (slice == null) {
+                // a task added since then
+                return false;
+            }
+            SessionTask task = entry.getValue();
+            if (task.fixed) {
+                if (!slice.getStartTime().equals(task.start)
+                        || !slice.getEndTime().equals(task.end)) {
+                    return false;
+                }
+            } else if (slice.getEndTime().toMinutes() - slice.getStartTime().toMinutes()
+                    != task.duration.toMinutes()) {
+                return false;
+            }
+        }//for
+        for (int[] constraint : constraints) {
+            int gap = slices.get(constraint[1]).getStartTime().toMinutes()
+                    - slices.get(constraint[0]).getEndTime().toMinutes();
+            if (gap < Math.max(0, constraint[2])
+                    || constraint[3] != NO_MAX_GAP && gap > constraint[3]) {
+                return false;
+            }
+        }//for
+        return true;
+    }
+
+    /*
+     * copy solution without the removed tasks, with CSP ids as task ids
+     */
+    private static List<TaskAssignment> renumber(List<TaskAssignment> solution,
+                                                 Map<Integer, Integer> ids) {
+        List<TaskAssignment> renumbered = new ArrayList<TaskAssignment>(ids.size());
+        for (TaskAssignment assignment : solution) {
+            Integer id = ids.get(assignment.getTaskId());
+            if (id != null) {
+                renumbered.add(new TaskAssignment(id, assignment.getAssignment()));
+            }
+        }//for
+        Collections.sort(renumbered);
+        return renumbered;
+    }
+}
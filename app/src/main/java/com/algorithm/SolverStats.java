@@ -0,0 +1,194 @@
+package com.algorithm;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Class SolverStats is used to record what a CSP_Solver did during one search: how many search
+ * nodes it expanded and backtracked from, how many domain values were removed and why, and
+ * where the time went. A new SolverStats is started by every getSolutions(),
+ * getBestSolution() and solutionIterator() call.
+ * Workers of a parallel search count on their own and are added to the solver's stats when
+ * they finish, so counters and propagation time are summed over all threads, while the time
+ * of each step is the time the caller waited for it.
+ */
+public class SolverStats {
+    private long nodes;
+    private long backtracks;
+    private long backjumpedLevels;
+    private long nogoodPrunes;
+    private long valuesPrunedByConsistency;
+    private long valuesPrunedByOverlap;
+    private long valuesPrunedByDisjunctive;
+    private long solutions;
+
+    private long domainNanos;
+    private long propagationNanos;
+    // time spent at each step, by step length in minutes, in the order the steps were searched
+    private final Map<Integer, Long> stepNanos;
+    private long peakDomainBytes;
+
+    SolverStats() {
+        stepNanos = new LinkedHashMap<Integer, Long>();
+    }
+
+    // number of values assigned to a task, whether or not they led to a solution
+    public long getNodes() {
+        return nodes;
+    }
+
+    // number of levels whose values were all tried
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    // number of levels skipped by backjumping
+    public long getBackjumpedLevels() {
+        return backjumpedLevels;
+    }
+
+    // number of values rejected because they completed a nogood
+    public long getNogoodPrunes() {
+        return nogoodPrunes;
+    }
+
+    // number of domain values removed by precedence constraint propagation
+    public long getValuesPrunedByConsistency() {
+        return valuesPrunedByConsistency;
+    }
+
+    // number of domain values removed because they overlap an assigned or fixed task
+    public long getValuesPrunedByOverlap() {
+        return valuesPrunedByOverlap;
+    }
+
+    // number of domain values removed by reasoning on all tasks of the day not overlapping
+    public long getValuesPrunedByDisjunctive() {
+        return valuesPrunedByDisjunctive;
+    }
+
+    // number of complete assignments found, including duplicates of earlier steps
+    public long getSolutions() {
+        return solutions;
+    }
+
+    // time spent building and pre-processing domains, without their propagation
+    public long getDomainNanos() {
+        return domainNanos;
+    }
+
+    public long getPropagationNanos() {
+        return propagationNanos;
+    }
+
+    // time spent at all steps which is neither domain building nor propagation
+    public long getSearchNanos() {
+        return Math.max(0, getTotalNanos() - domainNanos - propagationNanos);
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (long nanos : stepNanos.values()) {
+            total += nanos;
+        }//for
+        return total;
+    }
+
+    /**
+     * time spent at each step, by step length in minutes, in the order the steps were searched
+     */
+    public Map<Integer, Long> getStepNanos() {
+        return Collections.unmodifiableMap(stepNanos);
+    }
+
+    // largest estimated size of the domains and bit domains of one step
+    public long getPeakDomainBytes() {
+        return peakDomainBytes;
+    }
+
+    void addNode() {
+        nodes++;
+    }
+
+    void addBacktrack() {
+        backtracks++;
+    }
+
+    void addBackjump(int levels) {
+        backjumpedLevels += levels;
+    }
+
+    void addNogoodPrune() {
+        nogoodPrunes++;
+    }
+
+    void addPrunedByConsistency(long count) {
+        valuesPrunedByConsistency += count;
+    }
+
+    void addPrunedByOverlap(long count) {
+        valuesPrunedByOverlap += count;
+    }
+
+    void addPrunedByDisjunctive(long count) {
+        valuesPrunedByDisjunctive += count;
+    }
+
+    void addSolution() {
+        solutions++;
+    }
+
+    void addDomainNanos(long nanos) {
+        domainNanos += nanos;
+    }
+
+    void addPropagationNanos(long nanos) {
+        propagationNanos += nanos;
+    }
+
+    void addStepNanos(Time step, long nanos) {
+        Long before = stepNanos.get(step.toMinutes());
+        stepNanos.put(step.toMinutes(), before == null ? nanos : before + nanos);
+    }
+
+    void updatePeakDomainBytes(long bytes) {
+        peakDomainBytes = Math.max(peakDomainBytes, bytes);
+    }
+
+    /**
+     * add the counters and propagation time of a worker which searched part of the tree
+     */
+    synchronized void add(SolverStats worker) {
+        nodes += worker.nodes;
+        backtracks += worker.backtracks;
+        backjumpedLevels += worker.backjumpedLevels;
+        nogoodPrunes += worker.nogoodPrunes;
+        valuesPrunedByConsistency += worker.valuesPrunedByConsistency;
+        valuesPrunedByOverlap += worker.valuesPrunedByOverlap;
+        valuesPrunedByDisjunctive += worker.valuesPrunedByDisjunctive;
+        solutions += worker.solutions;
+        propagationNanos += worker.propagationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "nodes=" + nodes + " backtracks=" + backtracks
+                + " backjumpedLevels=" + backjumpedLevels + " nogoodPrunes=" + nogoodPrunes
+                + " prunedByConsistency=" + valuesPrunedByConsistency
+                + " prunedByOverlap=" + valuesPrunedByOverlap
+                + " prunedByDisjunctive=" + valuesPrunedByDisjunctive + " solutions=" + solutions
+                + " domainMs=" + domainNanos / 1000000
+                + " propagationMs=" + propagationNanos / 1000000
+                + " searchMs=" + getSearchNanos() / 1000000
+                + " stepMs=" + toMillis(stepNanos) + " peakDomainBytes=" + peakDomainBytes;
+    }
+
+    private static Map<Integer, Long> toMillis(Map<Integer, Long> nanos) {
+        Map<Integer, Long> millis = new LinkedHashMap<Integer, Long>();
+        for (Map.Entry<Integer, Long> entry : nanos.entrySet()) {
+            millis.put(entry.getKey(), entry.getValue() / 1000000);
+        }//for
+        return millis;
+    }
+}
@@ -14,6 +14,10 @@ public class Task {
 	}
 
 	
+	Domain getDomain() {
+		return domain;
+	}
+
 	Set<TimeSlice> getDomainSet() {
 		return domain.getDomainSet();
 	}
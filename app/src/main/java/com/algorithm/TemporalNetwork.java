@@ -0,0 +1,118 @@
+package com.algorithm;
+
+import java.util.Arrays;
+
+/*
+ * Class TemporalNetwork is used to hold the constraints between the start times of tasks as a
+ * Simple Temporal Network: each edge from -> to with offset d says that task "to" starts at
+ * least d minutes after task "from" starts, where d may be negative.
+ * "u before v, at least w minutes apart" is the edge u -> v with offset duration(u) + w, and
+ * "v starts at most g minutes after u ends" is the edge v -> u with offset -(duration(u) + g).
+ * Bounds on the start times are made consistent with all edges by Bellman-Ford, which also
+ * detects edges no schedule can meet: a cycle of positive length has no fixpoint.
+ */
+class TemporalNetwork {
+    private static final int[] NONE = new int[0];
+
+    // successors[u] lists the tasks with an edge from u, and predecessors[v] the tasks with
+    // an edge to v; the offsets of the edges are kept in the same order
+    private final int[][] successors;
+    private final int[][] successorOffsets;
+    private final int[][] predecessors;
+    private final int[][] predecessorOffsets;
+
+    TemporalNetwork(int taskCount) {
+        successors = new int[taskCount][];
+        successorOffsets = new int[taskCount][];
+        predecessors = new int[taskCount][];
+        predecessorOffsets = new int[taskCount][];
+        for (int id = 0; id < taskCount; id++) {
+            successors[id] = NONE;
+            successorOffsets[id] = NONE;
+            predecessors[id] = NONE;
+            predecessorOffsets[id] = NONE;
+        }//for
+    }
+
+    int getTaskCount() {
+        return successors.length;
+    }
+
+    /**
+     * task to has to start at least offset minutes after task from starts
+     */
+    void addEdge(int from, int to, int offset) {
+        successors[from] = append(successors[from], to);
+        successorOffsets[from] = append(successorOffsets[from], offset);
+        predecessors[to] = append(predecessors[to], from);
+        predecessorOffsets[to] = append(predecessorOffsets[to], offset);
+    }
+
+    int[] getSuccessors(int u) {
+        return successors[u];
+    }
+
+    int[] getSuccessorOffsets(int u) {
+        return successorOffsets[u];
+    }
+
+    int[] getPredecessors(int v) {
+        return predecessors[v];
+    }
+
+    int[] getPredecessorOffsets(int v) {
+        return predecessorOffsets[v];
+    }
+
+    /**
+     * raise earliestStart and lower latestStart until every edge holds between them.
+     * a round relaxes the edges in order, so it is enough when order is a topological order
+     * of the precedences and no edge goes back; otherwise at most taskCount rounds are needed
+     * unless the edges contain a cycle of positive length.
+     *
+     * @return false if some task is left without a start time, or the edges cannot all hold
+     */
+    boolean tightenBounds(int[] order, int[] earliestStart, int[] latestStart) {
+        int taskCount = successors.length;
+        for (int round = 0; round <= taskCount; round++) {
+            boolean changed = false;
+            for (int u : order) {
+                for (int k = 0; k < successors[u].length; k++) {
+                    int v = successors[u][k];
+                    int start = earliestStart[u] + successorOffsets[u][k];
+                    if (start > earliestStart[v]) {
+                        earliestStart[v] = start;
+                        changed = true;
+                    }
+                }//for
+            }//for
+            for (int i = order.length - 1; i >= 0; i--) {
+                int v = order[i];
+                for (int k = 0; k < predecessors[v].length; k++) {
+                    int u = predecessors[v][k];
+                    int start = latestStart[v] - predecessorOffsets[v][k];
+                    if (start < latestStart[u]) {
+                        latestStart[u] = start;
+                        changed = true;
+                    }
+                }//for
+            }//for
+            for (int id = 0; id < taskCount; id++) {
+                if (earliestStart[id] > latestStart[id]) {
+                    return false;
+                }
+            }//for
+            if (!changed) {
+                return true;
+            }
+        }//for
+        // still changing, so the bounds would move forever
+        return false;
+    }
+
+    private static int[] append(int[] array, int value) {
+        int[] grown = Arrays.copyOf(array, array.length + 1);
+        grown[array.length] = value;
+        return grown;
+    }
+}
@@ -0,0 +1,180 @@
+package com.algorithm;
+
+/*
+ * Class ThetaLambdaTree is used to compute the earliest completion time of a set of tasks
+ * which cannot overlap, as in Vilim's filtering algorithms for the disjunctive constraint.
+ * Tasks are leaves in order of earliest start; a leaf is empty, white (in the set Theta) or
+ * gray (in the set Lambda). For Theta, the root holds ECT(Theta), a lower bound on the time
+ * all its tasks are done. For Theta plus at most one gray task it holds the largest such
+ * bound, ECT bar, together with the gray task responsible for it.
+ * Inserting, graying and removing a task updates the path to the root in O(log n).
+ */
+class ThetaLambdaTree {
+    // below any completion time, and still far from overflow when durations are added
+    static final int NEG_INF = Integer.MIN_VALUE / 4;
+
+    private final int leafCount;
+    // nodes in heap order, the root is 1 and the leaves are leafCount .. 2 * leafCount - 1
+    private final int[] sumP;
+    private final int[] ect;
+    private final int[] sumPBar;
+    private final int[] ectBar;
+    // gray task responsible for sumPBar and ectBar of each node, -1 if it is white
+    private final int[] responsibleP;
+    private final int[] responsibleEct;
+
+    // false while no task is gray, then only sumP and ect are kept up to date
+    private boolean lambda;
+    // leaf of each task id, and the earliest start and duration it was given by reset()
+    private final int[] position;
+    private final int[] start;
+    private final int[] duration;
+
+    ThetaLambdaTree(int capacity) {
+        int leaves = 1;
+        while (leaves < capacity) {
+            leaves <<= 1;
+        }//while
+        leafCount = leaves;
+        sumP = new int[2 * leafCount];
+        ect = new int[2 * leafCount];
+        sumPBar = new int[2 * leafCount];
+        ectBar = new int[2 * leafCount];
+        responsibleP = new int[2 * leafCount];
+        responsibleEct = new int[2 * leafCount];
+        position = new int[capacity];
+        start = new int[capacity];
+        duration = new int[capacity];
+    }
+
+    /**
+     * empty the tree and give the leaves to the tasks order[0 .. count), which have to be
+     * sorted by earliest start. if lambda is false, no task may be grayed
+     */
+    void reset(int[] order, int count, int[] earliestStart, int[] durations, boolean lambda) {
+        this.lambda = lambda;
+        for (int node = 1; node < 2 * leafCount; node++) {
+            setEmpty(node);
+        }//for
+        for (int k = 0; k < count; k++) {
+            int id = order[k];
+            position[id] = leafCount + k;
+            start[id] = earliestStart[id];
+            duration[id] = durations[id];
+        }//for
+    }
+
+    /**
+     * make every task given by reset() white, in O(n)
+     */
+    void insertAll(int[] order, int count) {
+        for (int k = 0; k < count; k++) {
+            setWhite(position[order[k]], order[k]);
+        }//for
+        for (int node = leafCount - 1; node >= 1; node--) {
+            combine(node);
+        }//for
+    }
+
+    void insert(int id) {
+        setWhite(position[id], id);
+        update(position[id]);
+    }
+
+    void gray(int id) {
+        if (!lambda) {
+            throw new IllegalStateException("tree reset without lambda");
+        }
+        int leaf = position[id];
+        sumP[leaf] = 0;
+        ect[leaf] = NEG_INF;
+        sumPBar[leaf] = duration[id];
+        ectBar[leaf] = start[id] + duration[id];
+        responsibleP[leaf] = id;
+        responsibleEct[leaf] = id;
+        update(leaf);
+    }
+
+    void remove(int id) {
+        setEmpty(position[id]);
+        update(position[id]);
+    }
+
+    // ECT(Theta)
+    int getEct() {
+        return ect[1];
+    }
+
+    // ECT of Theta with at most one gray task added, only kept if reset with lambda
+    int getEctBar() {
+        return ectBar[1];
+    }
+
+    // gray task whose addition gives getEctBar(), -1 if no gray task raises it over getEct()
+    int getResponsible() {
+        return responsibleEct[1];
+    }
+
+    private void setEmpty(int node) {
+        sumP[node] = 0;
+        ect[node] = NEG_INF;
+        sumPBar[node] = 0;
+        ectBar[node] = NEG_INF;
+        responsibleP[node] = -1;
+        responsibleEct[node] = -1;
+    }
+
+    private void setWhite(int leaf, int id) {
+        sumP[leaf] = duration[id];
+        ect[leaf] = start[id] + duration[id];
+        sumPBar[leaf] = sumP[leaf];
+        ectBar[leaf] = ect[leaf];
+        responsibleP[leaf] = -1;
+        responsibleEct[leaf] = -1;
+    }
+
+    private void update(int leaf) {
+        for (int node = leaf >>> 1; node >= 1; node >>>= 1) {
+            combine(node);
+        }//for
+    }
+
+    /*
+     * compute node from its children; on ties the gray task is kept responsible
+     */
+    private void combine(int node) {
+        int left = 2 * node;
+        int right = left + 1;
+        sumP[node] = sumP[left] + sumP[right];
+        ect[node] = Math.max(ect[right], ect[left] + sumP[right]);
+        if (!lambda) {
+            return;
+        }
+
+        int grayLeft = sumPBar[left] + sumP[right];
+        int grayRight = sumP[left] + sumPBar[right];
+        if (grayLeft > grayRight || grayLeft == grayRight && responsibleP[left] >= 0) {
+            sumPBar[node] = grayLeft;
+            responsibleP[node] = responsibleP[left];
+        } else {
+            sumPBar[node] = grayRight;
+            responsibleP[node] = responsibleP[right];
+        }
+
+        // the gray task is in the right subtree, in the left one, or there is none
+        int best = ectBar[right];
+        int responsible = responsibleEct[right];
+        int candidate = ect[left] + sumPBar[right];
+        if (candidate > best || candidate == best && responsible < 0) {
+            best = candidate;
+            responsible = responsibleP[right];
+        }
+        candidate = ectBar[left] + sumP[right];
+        if (candidate > best || candidate == best && responsible < 0) {
+            best = candidate;
+            responsible = responsibleEct[left];
+        }
+        ectBar[node] = best;
+        responsibleEct[node] = responsible;
+    }
+}
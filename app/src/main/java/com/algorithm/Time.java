@@ -39,6 +39,18 @@ public class Time {
         minute = m;
     }
 
+    // minutes since midnight, the representation used inside the solver
+    int toMinutes() {
+        return hour * 60 + minute;
+    }
+
+    static Time fromMinutes(int minutes) {
+        Time time = new Time(0, 0);
+        time.setHour(minutes / 60);
+        time.setMinute(minutes % 60);
+        return time;
+    }
+
     // return t1+t2
     Time addTime(Time t2) {
         Time t1 = this;
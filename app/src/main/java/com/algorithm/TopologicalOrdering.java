@@ -0,0 +1,25 @@
+package com.algorithm;
+
+/*
+ * Class TopologicalOrdering assigns tasks in a fixed topological order of the constraint graph,
+ * so every task is assigned after all the tasks which have to happen before it.
+ */
+public class TopologicalOrdering implements VariableOrderingStrategy {
+    private int[] order;
+
+    public void initialize(CSP_Solver solver, int[] topologicalOrder) {
+        order = topologicalOrder;
+    }
+
+    public int selectVariable(CSP_Solver solver) {
+        for (int id : order) {
+            if (!solver.isAssigned(id)) {
+                return id;
+            }
+        }//for
+        return -1;
+    }
+
+    public void onWipeout(int culprit, int wipedOut) {
+    }
+}
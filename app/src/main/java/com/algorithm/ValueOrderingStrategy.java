@@ -0,0 +1,28 @@
+package com.algorithm;
+
+/*
+ * Interface ValueOrderingStrategy decides in which order CSP_Solver tries the available values
+ * of the task it branches on.
+ * With parallel search enabled, one instance is shared by all worker threads, so the methods
+ * called during search have to be thread-safe.
+ */
+public interface ValueOrderingStrategy {
+    /**
+     * called by getSolutions() before searching
+     */
+    void initialize(CSP_Solver solver);
+
+    /**
+     * reorder values[0..count) into the order the search should try them;
+     * the values are indices into the domain of task id, given in ascending order of start time
+     */
+    void orderValues(CSP_Solver solver, int id, int[] values, int count);
+
+    /**
+     * return 1 if the values are always tried in ascending order of start time, -1 if always
+     * in descending order, or 0 if orderValues() puts them in another order.
+     * values tried in domain order are found one at a time in the bit domain of the task
+     * during search, without calling orderValues()
+     */
+    int getDomainOrder();
+}
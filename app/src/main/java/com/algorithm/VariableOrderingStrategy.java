@@ -0,0 +1,27 @@
+package com.algorithm;
+
+/*
+ * Interface VariableOrderingStrategy decides which task CSP_Solver assigns next during search.
+ * Implementations can look at the live state of the search through the solver passed in.
+ * With parallel search enabled, one instance is shared by all worker threads, so the methods
+ * called during search have to be thread-safe.
+ */
+public interface VariableOrderingStrategy {
+    /**
+     * called by getSolutions() before searching
+     *
+     * @param topologicalOrder task ids in a topological order of the constraint graph
+     */
+    void initialize(CSP_Solver solver, int[] topologicalOrder);
+
+    /**
+     * return the id of an unassigned task to branch on next;
+     * only called while at least one task is unassigned
+     */
+    int selectVariable(CSP_Solver solver);
+
+    /**
+     * called when the assignment of task culprit left task wipedOut without available values
+     */
+    void onWipeout(int culprit, int wipedOut);
+}
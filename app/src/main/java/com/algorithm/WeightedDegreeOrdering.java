@@ -0,0 +1,43 @@
+package com.algorithm;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/*
+ * Class WeightedDegreeOrdering is the dom/wdeg heuristic: it assigns the task with the smallest
+ * ratio of available values to weight first. Every task starts with weight 1 plus its number of
+ * constraints to unassigned tasks, and both tasks involved in a domain wipe-out gain weight,
+ * so tasks which keep causing failures are assigned earlier.
+ * Weights are kept over all steps of one getSolutions() call.
+ */
+public class WeightedDegreeOrdering implements VariableOrderingStrategy {
+    private int[] order;
+    private AtomicIntegerArray failures;// number of wipe-outs each task was involved in
+
+    public void initialize(CSP_Solver solver, int[] topologicalOrder) {
+        order = topologicalOrder;
+        failures = new AtomicIntegerArray(solver.getTaskCount());
+    }
+
+    public int selectVariable(CSP_Solver solver) {
+        int best = -1;
+        long bestCount = 0;
+        long bestWeight = 1;
+        for (int id : order) {
+            if (solver.isAssigned(id)) continue;
+            long count = solver.getDomainCount(id);
+            long weight = 1 + solver.getUnassignedDegree(id) + failures.get(id);
+            // count / weight < bestCount / bestWeight
+            if (best < 0 || count * bestWeight < bestCount * weight) {
+                best = id;
+                bestCount = count;
+                bestWeight = weight;
+            }
+        }//for
+        return best;
+    }
+
+    public void onWipeout(int culprit, int wipedOut) {
+        failures.incrementAndGet(culprit);
+        failures.incrementAndGet(wipedOut);
+    }
+}
@@ -19,7 +19,6 @@ import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.support.v7.widget.helper.ItemTouchHelper;
 import android.util.Log;
-import android.util.Pair;
 import android.view.GestureDetector;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
@@ -29,8 +28,9 @@ import android.view.animation.Animation;
 import android.view.animation.AnimationUtils;
 import android.widget.Toast;
 
-import com.algorithm.CSP;
-import com.algorithm.CSP_Solver;
+import com.algorithm.SolverListener;
+import com.algorithm.SolverSession;
+import com.algorithm.SolverStats;
 import com.algorithm.TaskAssignment;
 import com.algorithm.Time;
 import com.cpsc.timecatcher.helper.Constants;
@@ -48,11 +48,15 @@ import com.parse.ParseQuery;
 import com.parse.ParseUser;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import adapters.TaskAdapter;
 
@@ -94,6 +98,18 @@ public class TasklistFragment extends Fragment implements SensorEventListener {
     // Solution looper
     private List<List<TaskAssignment>> solutions;
     private int solutionsIndex = 0, numSolutions = 0;
+    // searches the next solution only when it is asked for, for at most SEARCH_BUDGET_MILLIS
+    // so that the UI does not freeze; the next shake goes on where a search stopped
+    private static final long SEARCH_BUDGET_MILLIS = 500;
+    private SolverSession session;
+    // the day bounds the session was made for
+    private Time sessionDayStart, sessionDayEnd;
+    // the key of each task in the session by object id, and the constraints it has by keys
+    private Map<String, Integer> sessionKeys = new HashMap<>();
+    private Set<List<Integer>> sessionConstraints = new HashSet<>();
+    private Iterator<List<TaskAssignment>> solutionIterator;
+    // whether the last search ran out of time before finding a solution
+    private boolean searchTruncated = false;
 
     public TasklistFragment(){}
     public static TasklistFragment newInstance(long date) {
@@ -118,43 +134,90 @@ public class TasklistFragment extends Fragment implements SensorEventListener {
     }
 
     public void getSolutions() {
-        taskMap.clear();
         if ( taskList.size() == 0 ) {
             Toast.makeText(getContext(), "No tasks to schedule!", Toast.LENGTH_SHORT).show();
         } else if (day != null) {
-            ArrayList<Pair> constraintsInt = new ArrayList<>();
-            CSP problem = new CSP(Utility.dateToTime(day.getDayStart()),
-                    Utility.dateToTime(day.getDayEnd()));
-
-            boolean overtime = false;
-            for (int i = 0; i < taskList.size(); i++) {
-                Task currentTask = taskList.get(i);
-                // need to put taskList in a different map, because taskList might get sorted
-                // and the Id becomes wrong. resulting in incorrect alternative solutions
-                taskMap.put(i, currentTask);
+            Time dayStart = Utility.dateToTime(day.getDayStart());
+            Time dayEnd = Utility.dateToTime(day.getDayEnd());
+            if (session == null || !dayStart.equals(sessionDayStart)
+                    || !dayEnd.equals(sessionDayEnd)) {
+                // the session keeps what it derived about the day between two schedules, so
+                // only the tasks and constraints edited since are solved again
+                session = new SolverSession(dayStart, dayEnd);
+                session.setSymmetryBreaking(true);
+                session.setListener(new SolverListener() {
+                    public void onStepFinished(Time step, SolverStats stats) {
+                        Log.d("Algorithm", "Step of " + (step.getHour() * 60 + step.getMinute())
+                                + " minutes finished: " + stats);
+                    }
+
+                    public void onSearchFinished(SolverStats stats) {
+                        Log.d("Algorithm", "Search finished: " + stats);
+                    }
+                });
+                sessionDayStart = dayStart;
+                sessionDayEnd = dayEnd;
+                sessionKeys.clear();
+                sessionConstraints.clear();
+            }
+
+            // remove the tasks which are gone, then add or change the others
+            Map<String, Integer> keys = new HashMap<>();
+            for (Task currentTask : taskList) {
+                keys.put(currentTask.getObjectId(), sessionKeys.get(currentTask.getObjectId()));
+            }
+            for (Iterator<Map.Entry<String, Integer>> it = sessionKeys.entrySet().iterator();
+                 it.hasNext(); ) {
+                Map.Entry<String, Integer> entry = it.next();
+                if (!keys.containsKey(entry.getKey())) {
+                    session.removeTask(entry.getValue());
+                    it.remove();
+                }
+            }
+            taskMap.clear();
+            for (Task currentTask : taskList) {
+                Integer key = sessionKeys.get(currentTask.getObjectId());
                 if (currentTask.getFixed()) {
-                    overtime = overtime || problem.addFixedTask(
-                            Utility.dateToTime(currentTask.getStartTime()),
-                            Utility.dateToTime(currentTask.getEndTime()));
+                    Time start = Utility.dateToTime(currentTask.getStartTime());
+                    Time end = Utility.dateToTime(currentTask.getEndTime());
+                    if (key == null) {
+                        key = session.addFixedTask(start, end);
+                    } else {
+                        session.changeFixedTask(key, start, end);
+                    }
                 } else {
                     int hours = currentTask.getTotalTime() / 60;
                     int minutes = currentTask.getTotalTime() % 60;
-                    overtime = overtime || problem.addFlexibleTask(new Time(hours, minutes));
-                }
-                if (overtime) {
-                    Log.d("Algorithm", "Could not add flexible task: not enough time");
+                    if (key == null) {
+                        key = session.addFlexibleTask(new Time(hours, minutes));
+                    } else {
+                        session.changeFlexibleTask(key, new Time(hours, minutes));
+                    }
                 }
+                sessionKeys.put(currentTask.getObjectId(), key);
+                // solutions use the keys of the session as task ids
+                taskMap.put(key, currentTask);
+                // tasks the user cannot tell apart, which need not be shown in every order
+                session.setEquivalenceKey(key,
+                        Arrays.asList(currentTask.getTitle(), currentTask.getDescription()));
+            }
+
+            Set<List<Integer>> constraintsInt = new HashSet<>();
+            for (Task currentTask : taskList) {
+                int key = sessionKeys.get(currentTask.getObjectId());
                 List<Constraint> constraints;
                 ParseQuery<Constraint> taskConstraintsQuery = currentTask.getConstraints();
                 try {
                     constraints = taskConstraintsQuery.find();
                     for (Constraint constraint : constraints) {
+                        Integer other = sessionKeys.get(constraint.getOther().getObjectId());
+                        if (other == null) {
+                            continue;
+                        }
                         if (constraint.getOperator() == Operator.BEFORE) {
-                            constraintsInt.add(
-                                    Pair.create(i, taskList.indexOf(constraint.getOther())));
+                            constraintsInt.add(Arrays.asList(key, other));
                         } else {
-                            constraintsInt.add(
-                                    Pair.create(taskList.indexOf(constraint.getOther()), i));
+                            constraintsInt.add(Arrays.asList(other, key));
                         }
 
                     }
@@ -163,13 +226,21 @@ public class TasklistFragment extends Fragment implements SensorEventListener {
                             "Could not find constraints! Assume no constraints");
                 }
             }
-            problem.createConstraintGraph();
-            for (Pair constraintPair : constraintsInt) {
-                problem.addConstraint((int) constraintPair.first,
-                        (int) constraintPair.second, 0);
+            for (List<Integer> constraintPair : sessionConstraints) {
+                if (!constraintsInt.contains(constraintPair)
+                        && taskMap.containsKey(constraintPair.get(0))
+                        && taskMap.containsKey(constraintPair.get(1))) {
+                    session.removeConstraint(constraintPair.get(0), constraintPair.get(1), 0);
+                }
+            }
+            for (List<Integer> constraintPair : constraintsInt) {
+                session.addConstraint(constraintPair.get(0), constraintPair.get(1), 0);
             }
+            sessionConstraints = constraintsInt;
 
-            if (problem.isConstraintsConflict()) {
+            if (session.isOvertime()) {
+                Log.d("Algorithm", "Could not add all tasks: not enough time");
+            } else if (session.isConstraintsConflict()) {
                 new AlertDialog.Builder(getActivity())
                         .setTitle("Error")
                         .setMessage("You have conflicting constraints!" +
@@ -182,10 +253,30 @@ public class TasklistFragment extends Fragment implements SensorEventListener {
                         .show();
                 return;
             }
-            CSP_Solver csp_solver = new CSP_Solver(problem);
-            solutions = csp_solver.getSolutions();
-            Log.d("Algorithm", csp_solver.solutionsString());
-            numSolutions = (solutions != null) ? solutions.size() : 0;
+            // schedules still valid after the edits come first; otherwise the first solution
+            // is raced by one solver per step on all cores. the others are searched one at a
+            // time when the user shakes
+            solutionIterator = session.solutionIterator(SEARCH_BUDGET_MILLIS);
+            solutions = new ArrayList<>();
+            numSolutions = 0;
+            solutionsIndex = 0;
+            searchNextSolution();
+            Log.d("Algorithm", "First solution search finished, truncated: " + searchTruncated);
+        }
+    }
+
+    private void searchNextSolution() {
+        if (solutionIterator == null) {
+            return;
+        }
+        if (solutionIterator.hasNext()) {
+            solutions.add(solutionIterator.next());
+            numSolutions = solutions.size();
+            Log.d("Algorithm", "Found solution " + numSolutions);
+        }
+        searchTruncated = session.isTruncated();
+        if (searchTruncated) {
+            Log.d("Algorithm", "No new solution found within " + SEARCH_BUDGET_MILLIS + " ms");
         }
     }
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
@@ -254,9 +345,12 @@ public class TasklistFragment extends Fragment implements SensorEventListener {
                     // no scheduling happened
                     return;
                 } else if (solutions.size() == 0) {
+                    String message = searchTruncated
+                            ? "Scheduling your day takes too long!"
+                            : "Could not schedule your day!";
                     new AlertDialog.Builder(getActivity())
                             .setTitle("Error")
-                            .setMessage("Could not schedule your day!" +
+                            .setMessage(message +
                                     " Please edit your tasks and try again.")
                             .setPositiveButton(android.R.string.ok,
                                     new DialogInterface.OnClickListener() {
@@ -499,14 +593,27 @@ public class TasklistFragment extends Fragment implements SensorEventListener {
                     // this seems weird, but after call to getSolutions, solutions can still be null
                     // in the case that a solution was not found
                     if (solutions != null && numSolutions > 0) {
-                        Toast.makeText(getContext(), "New Schedule!", Toast.LENGTH_SHORT).show();
-                        solutionsIndex = (solutionsIndex + 1) % numSolutions;
-                        Log.d("SHAKE", "Getting solution: " + (solutionsIndex + 1) + "/" + numSolutions);
-                        List<TaskAssignment> solution = solutions.get(solutionsIndex);
-                        assignSolution(solution);
-
-                        taskList= sortTasks(taskList);
-                        mAdapter.notifyDataSetChanged();
+                        boolean stillSearching = false;
+                        if (solutionsIndex + 1 == numSolutions) {
+                            // show a solution not searched yet, if there is one
+                            searchNextSolution();
+                            // keep the schedule shown if the search ran out of time, the next
+                            // shake searches on
+                            stillSearching = solutionsIndex + 1 == numSolutions && searchTruncated;
+                        }
+                        if (stillSearching) {
+                            Toast.makeText(getContext(), "Still searching, shake again!",
+                                    Toast.LENGTH_SHORT).show();
+                        } else {
+                            Toast.makeText(getContext(), "New Schedule!", Toast.LENGTH_SHORT).show();
+                            solutionsIndex = (solutionsIndex + 1) % numSolutions;
+                            Log.d("SHAKE", "Getting solution: " + (solutionsIndex + 1) + "/" + numSolutions);
+                            List<TaskAssignment> solution = solutions.get(solutionsIndex);
+                            assignSolution(solution);
+
+                            taskList= sortTasks(taskList);
+                            mAdapter.notifyDataSetChanged();
+                        }
                         Log.d("SHAKE", "Shake detected");
                     }
 
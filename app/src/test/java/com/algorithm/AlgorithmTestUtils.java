@@ -1,7 +1,6 @@
 package com.algorithm;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -40,20 +39,37 @@ public class AlgorithmTestUtils {
     public static void checkConstraints(List<List<TaskAssignment>> solutions,
                                         CSP problem) {
         ConstraintGraph constraintGraph = problem.getConstraints();
-        LinkedList<AdjListNode>[] adjacencyList = constraintGraph.getAdjacentList();
         for (List<TaskAssignment> taskAssignmentList : solutions) {
-            int i = 0;
-            for (LinkedList<AdjListNode> adjListNodes : adjacencyList) {
-                if (adjListNodes.size() > 0) {
-                    TaskAssignment A = getAssignmentById(taskAssignmentList, i);
-                    // have a constraint on this node
-                    for (AdjListNode node : adjListNodes) {
-                        TaskAssignment B = getAssignmentById(taskAssignmentList, node.getVertex());
-                        assertEquals(true, A.getAssignment().isBefore(B.getAssignment()));
-                    }
-                }
-                i++;
+            for (Arc arc : constraintGraph.getArcs()) {
+                TaskAssignment A = getAssignmentById(taskAssignmentList, arc.getU());
+                TaskAssignment B = getAssignmentById(taskAssignmentList, arc.getV());
+                assertEquals(true, A.getAssignment().isBefore(B.getAssignment()));
+                assertEquals(true, gap(A, B) >= arc.getWeight());
+            }
+            for (Arc arc : constraintGraph.getMaxGaps()) {
+                TaskAssignment A = getAssignmentById(taskAssignmentList, arc.getU());
+                TaskAssignment B = getAssignmentById(taskAssignmentList, arc.getV());
+                assertEquals(true, gap(A, B) <= arc.getWeight());
+            }
+        }
+    }
+
+    // minutes from the end of A to the start of B
+    private static int gap(TaskAssignment A, TaskAssignment B) {
+        return B.getAssignment().getStartTime().toMinutes()
+                - A.getAssignment().getEndTime().toMinutes();
+    }
+
+    /**
+     * build the network of pure precedences: each task has to end before its successors start
+     */
+    static TemporalNetwork precedenceNetwork(int[][] successors, Domain[] taskDomains) {
+        TemporalNetwork network = new TemporalNetwork(successors.length);
+        for (int u = 0; u < successors.length; u++) {
+            for (int v : successors[u]) {
+                network.addEdge(u, v, taskDomains[u].getDuration());
             }
         }
+        return network;
     }
 }
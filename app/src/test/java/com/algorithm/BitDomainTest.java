@@ -0,0 +1,117 @@
+package com.algorithm;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BitDomainTest {
+    private BitDomain domain;
+    private DomainTrail trail;
+
+    @Before
+    public void setUp() throws Exception {
+        domain = new BitDomain(130);
+        trail = new DomainTrail();
+    }
+
+    @Test
+    public void testInitiallyAvailable() throws Exception {
+        assertEquals(130, domain.size());
+        assertEquals(130, domain.count());
+        assertEquals(true, domain.isAvailable(0));
+        assertEquals(true, domain.isAvailable(129));
+        assertEquals(0, domain.nextAvailable(0));
+        assertEquals(-1, domain.nextAvailable(130));
+    }
+
+    @Test
+    public void testEmptyDomain() throws Exception {
+        BitDomain empty = new BitDomain(0);
+        assertEquals(true, empty.isEmpty());
+        assertEquals(-1, empty.nextAvailable(0));
+        assertEquals(-1, empty.prevAvailable(0));
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        assertEquals(true, domain.remove(64, 0, trail));
+        assertEquals(false, domain.remove(64, 0, trail));
+        assertEquals(false, domain.isAvailable(64));
+        assertEquals(129, domain.count());
+        assertEquals(65, domain.nextAvailable(64));
+        assertEquals(1, trail.size());
+    }
+
+    @Test
+    public void testNextAvailableAcrossWords() throws Exception {
+        for (int i = 0; i < 129; i++) {
+            domain.remove(i, 0, trail);
+        }
+        assertEquals(129, domain.nextAvailable(0));
+        assertEquals(1, domain.count());
+        domain.remove(129, 0, trail);
+        assertEquals(-1, domain.nextAvailable(0));
+        assertEquals(true, domain.isEmpty());
+    }
+
+    @Test
+    public void testPrevAvailable() throws Exception {
+        assertEquals(129, domain.prevAvailable(200));
+        domain.remove(129, 0, trail);
+        domain.remove(128, 0, trail);
+        assertEquals(127, domain.prevAvailable(129));
+        assertEquals(63, domain.prevAvailable(63));
+        for (int i = 0; i < 64; i++) {
+            domain.remove(i, 0, trail);
+        }
+        assertEquals(-1, domain.prevAvailable(63));
+        assertEquals(-1, domain.prevAvailable(-1));
+    }
+
+    @Test
+    public void testCountRange() throws Exception {
+        assertEquals(130, domain.countRange(0, 130));
+        assertEquals(0, domain.countRange(10, 10));
+        domain.remove(5, 0, trail);
+        domain.remove(70, 0, trail);
+        assertEquals(9, domain.countRange(0, 10));
+        assertEquals(63, domain.countRange(10, 74));
+        assertEquals(128, domain.countRange(-1, 200));
+    }
+
+    @Test
+    public void testRemoveRange() throws Exception {
+        domain.remove(10, 0, trail);
+        assertEquals(99, domain.removeRange(5, 105, 0, trail));
+        assertEquals(30, domain.count());
+        assertEquals(4, domain.prevAvailable(104));
+        assertEquals(105, domain.nextAvailable(5));
+        assertEquals(0, domain.removeRange(5, 105, 0, trail));
+        assertEquals(25, domain.removeRange(105, 1000, 0, trail));
+
+        trail.undoTo(0, new BitDomain[]{domain});
+        assertEquals(130, domain.count());
+    }
+
+    @Test
+    public void testUndo() throws Exception {
+        BitDomain[] domains = new BitDomain[]{domain, new BitDomain(10)};
+        domain.remove(3, 0, trail);
+        int mark = trail.mark();
+        domain.remove(4, 0, trail);
+        domain.remove(100, 0, trail);
+        domains[1].remove(9, 1, trail);
+
+        trail.undoTo(mark, domains);
+        assertEquals(false, domain.isAvailable(3));
+        assertEquals(true, domain.isAvailable(4));
+        assertEquals(true, domain.isAvailable(100));
+        assertEquals(129, domain.count());
+        assertEquals(10, domains[1].count());
+
+        trail.undoTo(0, domains);
+        assertEquals(130, domain.count());
+        assertEquals(0, trail.size());
+    }
+}
@@ -4,7 +4,12 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertEquals;
 
 /**
  * Created by fujiaoyang1 on 3/5/16.
@@ -181,4 +186,671 @@ public class CSP_SolverTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testIncrementalRefinementKeepsSolutions() throws Exception {
+        dayStart = new Time(8, 0);
+        dayEnd = new Time(12, 0);
+        problem = new CSP(dayStart, dayEnd);
+        problem.addFlexibleTask(new Time(0, 47)); // 0
+        problem.addFixedTask(new Time(9, 13), new Time(10, 0)); // 1
+        problem.addFlexibleTask(new Time(1, 1)); // 2
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 1, 0);
+        problem.addConstraint(1, 2, 0);
+
+        CSP_Solver solver = new CSP_Solver(problem);
+        solver.setIncrementalRefinement(false);
+        List<List<TaskAssignment>> expected = solver.getSolutions();
+
+        solver = new CSP_Solver(problem);
+        solutions = solver.getSolutions();
+        assertEquals(false, solutions.isEmpty());
+        assertEquals(expected, solutions);
+        AlgorithmTestUtils.noOverLap(solutions);
+        AlgorithmTestUtils.checkConstraints(solutions, problem);
+    }
+
+    @Test
+    public void testStartBoundsDetectInfeasibleChain() throws Exception {
+        dayStart = new Time(8, 0);
+        dayEnd = new Time(12, 0);
+        problem = new CSP(dayStart, dayEnd);
+        problem.addFlexibleTask(new Time(1, 0)); // 0
+        problem.addFlexibleTask(new Time(1, 0)); // 1
+        problem.addFixedTask(new Time(9, 30), new Time(10, 0)); // 2
+        problem.createConstraintGraph();
+        // two hours of work have to fit between 8:00 and 9:30
+        problem.addConstraint(0, 1, 0);
+        problem.addConstraint(1, 2, 0);
+
+        CSP_Solver solver = new CSP_Solver(problem);
+        int[] order = problem.getConstraints().GetTopologicalSort();
+        solver.createPrecedenceLists();
+        assertEquals(false, solver.computeStartBounds(order));
+        assertEquals(true, solver.getSolutions().isEmpty());
+    }
+
+    @Test
+    public void testOverlapPruning() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(12, 0));
+        problem.addFixedTask(new Time(9, 0), new Time(10, 0)); // 0
+        problem.addFlexibleTask(new Time(0, 30)); // 1
+        problem.createConstraintGraph();
+        CSP_Solver solver = new CSP_Solver(problem);
+        solver.domainInitializationForAllTasks(new Time(0, 15));
+        solver.markOverlappingDomain();
+
+        // task 0 at 9:00 ~ 10:00 excludes task 1 starts 8:45 ~ 9:45
+        BitDomain bits = solver.getBitDomain(1);
+        Domain domain = solver.getTaskDomain(1);
+        assertEquals(domain.size() - 5, bits.count());
+        assertEquals(true, bits.isAvailable(domain.lowerBound(8 * 60 + 30)));
+        assertEquals(false, bits.isAvailable(domain.lowerBound(8 * 60 + 45)));
+        assertEquals(false, bits.isAvailable(domain.lowerBound(9 * 60 + 45)));
+        assertEquals(true, bits.isAvailable(domain.lowerBound(10 * 60)));
+    }
+
+    @Test
+    public void testParallelSearchFindsSameSolutions() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(10, 0));
+        problem.addFlexibleTask(new Time(0, 45)); // 0
+        problem.addFlexibleTask(new Time(1, 0)); // 1
+        problem.addFixedTask(new Time(9, 50), new Time(10, 0)); // 2
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 1, 0);
+
+        // enough room for every solution, so both searches are exhaustive
+        CSP_Solver solver = new CSP_Solver(problem, 100000);
+        List<List<TaskAssignment>> expected = solver.getSolutions();
+
+        solver = new CSP_Solver(problem, 100000);
+        solver.setParallelism(4);
+        solutions = solver.getSolutions();
+        assertEquals(expected.size(), solutions.size());
+        assertEquals(new HashSet<List<TaskAssignment>>(expected),
+                new HashSet<List<TaskAssignment>>(solutions));
+    }
+
+    @Test
+    public void testParallelSearchStopsAtSolutionCountMax() throws Exception {
+        problem = new CSP(new Time(1, 0), new Time(23, 0));
+        problem.addFixedTask(new Time(1, 30), new Time(2, 30)); // 0
+        problem.addFixedTask(new Time(6, 30), new Time(12, 30)); // 1
+        problem.addFlexibleTask(new Time(1, 0)); // 2
+        problem.addFlexibleTask(new Time(0, 15)); // 3
+        problem.addFlexibleTask(new Time(0, 45)); // 4
+        problem.createConstraintGraph();
+        problem.addConstraint(3, 0, 0);
+        problem.addConstraint(2, 1, 0);
+        problem.addConstraint(4, 2, 0);
+
+        CSP_Solver solver = new CSP_Solver(problem);
+        solver.setParallelism(4);
+        solutions = solver.getSolutions();
+        assertEquals(5, solutions.size());
+        assertEquals(5, new HashSet<List<TaskAssignment>>(solutions).size());
+        AlgorithmTestUtils.noOverLap(solutions);
+        AlgorithmTestUtils.checkConstraints(solutions, problem);
+    }
+
+    @Test
+    public void testParallelSearchWithoutSolution() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(12, 0));
+        problem.addFixedTask(new Time(8, 0), new Time(11, 30)); // 0
+        problem.addFlexibleTask(new Time(0, 20)); // 1
+        problem.addFlexibleTask(new Time(0, 20)); // 2
+        problem.createConstraintGraph();
+
+        CSP_Solver solver = new CSP_Solver(problem);
+        solver.setParallelism(4);
+        assertEquals(true, solver.getSolutions().isEmpty());
+    }
+
+    @Test
+    public void testStepList() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(12, 0));
+        problem.addFlexibleTask(new Time(1, 0)); // 0
+        problem.addFlexibleTask(new Time(2, 0)); // 1
+        problem.createConstraintGraph();
+
+        CSP_Solver solver = new CSP_Solver(problem, 100);
+        List<Time> steps = new ArrayList<Time>();
+        steps.add(new Time(1, 0));
+        solver.setStepList(steps);
+        solutions = solver.getSolutions();
+        assertEquals(false, solutions.isEmpty());
+        for (List<TaskAssignment> solution : solutions) {
+            for (TaskAssignment assignment : solution) {
+                // only whole hours can be reached with a 1 hour step
+                assertEquals(0, assignment.getAssignment().getStartTime().getMinute());
+            }
+        }
+    }
+
+    /*
+     * three identical tasks fill the day at a 1 hour step: it is one schedule in 3! orders
+     */
+    @Test
+    public void testSymmetryBreaking() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(11, 0));
+        problem.addFlexibleTask(new Time(1, 0)); // 0
+        problem.addFlexibleTask(new Time(1, 0)); // 1
+        problem.addFlexibleTask(new Time(1, 0)); // 2
+        problem.createConstraintGraph();
+        List<Time> steps = new ArrayList<Time>();
+        steps.add(new Time(1, 0));
+
+        // disabled by default
+        CSP_Solver solver = new CSP_Solver(problem, 100);
+        solver.setStepList(steps);
+        assertEquals(6, solver.getSolutions().size());
+
+        solver = new CSP_Solver(problem, 100);
+        solver.setStepList(steps);
+        solver.setSymmetryBreaking(true);
+        solutions = solver.getSolutions();
+        assertEquals(1, solutions.size());
+        assertEquals(8 * 60, solutions.get(0).get(0).getAssignment().getStartTime().toMinutes());
+        assertEquals(0, solutions.get(0).get(0).getTaskId());
+        assertEquals(2, solutions.get(0).get(2).getTaskId());
+    }
+
+    /*
+     * tasks 0 and 1 look alike to the solver but not to the user, so both of their orders are
+     * schedules; tasks 1 and 2 are the same to both
+     */
+    @Test
+    public void testSymmetryBreakingKeys() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(11, 0));
+        problem.addFlexibleTask(new Time(1, 0)); // 0
+        problem.addFlexibleTask(new Time(1, 0)); // 1
+        problem.addFlexibleTask(new Time(1, 0)); // 2
+        problem.createConstraintGraph();
+        List<Time> steps = new ArrayList<Time>();
+        steps.add(new Time(1, 0));
+
+        CSP_Solver solver = new CSP_Solver(problem, 100);
+        solver.setStepList(steps);
+        solver.setSymmetryBreaking(true);
+        solver.setEquivalenceKeys(new Object[]{"Email", "Focus", "Focus"});
+        solutions = solver.getSolutions();
+        assertEquals(3, solutions.size());
+        for (List<TaskAssignment> solution : solutions) {
+            assertEquals(true, solution.get(1).getAssignment().getStartTime().toMinutes()
+                    < solution.get(2).getAssignment().getStartTime().toMinutes());
+        }
+    }
+
+    @Test
+    public void testSymmetryBreakingParallel() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(12, 0));
+        problem.addFlexibleTask(new Time(0, 30)); // 0
+        problem.addFlexibleTask(new Time(1, 0)); // 1
+        problem.addFlexibleTask(new Time(1, 0)); // 2
+        problem.addFixedTask(new Time(10, 0), new Time(10, 30)); // 3
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 1, 0);
+        problem.addConstraint(0, 2, 0);
+
+        CSP_Solver sequential = new CSP_Solver(problem, 100000);
+        sequential.setSymmetryBreaking(true);
+        List<List<TaskAssignment>> expected = sequential.getSolutions();
+        CSP_Solver solver = new CSP_Solver(problem, 100000);
+        solver.setSymmetryBreaking(true);
+        solver.setParallelism(3);
+        solutions = solver.getSolutions();
+        assertEquals(expected.size() > 0, true);
+        assertEquals(new HashSet<List<TaskAssignment>>(expected),
+                new HashSet<List<TaskAssignment>>(solutions));
+        for (List<TaskAssignment> solution : solutions) {
+            int start1 = -1;
+            int start2 = -1;
+            for (TaskAssignment assignment : solution) {
+                int start = assignment.getAssignment().getStartTime().toMinutes();
+                if (assignment.getTaskId() == 1) start1 = start;
+                if (assignment.getTaskId() == 2) start2 = start;
+            }
+            assertEquals(true, start1 < start2);
+        }
+        AlgorithmTestUtils.noOverLap(solutions);
+        AlgorithmTestUtils.checkConstraints(solutions, problem);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(12, 0));
+        problem.addFlexibleTask(new Time(1, 0)); // 0
+        problem.createConstraintGraph();
+
+        CSP_Solver solver = new CSP_Solver(problem);
+        solver.cancel();
+        assertEquals(true, solver.isCancelled());
+        assertEquals(true, solver.getSolutions().isEmpty());
+    }
+
+    @Test
+    public void testManyAlternatives() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(18, 0));
+        problem.addFlexibleTask(new Time(1, 0)); // 0
+        problem.addFlexibleTask(new Time(0, 30)); // 1
+        problem.addFixedTask(new Time(12, 0), new Time(13, 0)); // 2
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 1, 0);
+
+        CSP_Solver solver = new CSP_Solver(problem, 150);
+        solutions = solver.getSolutions();
+        assertEquals(150, solutions.size());
+        assertEquals(150, new HashSet<List<TaskAssignment>>(solutions).size());
+        AlgorithmTestUtils.noOverLap(solutions);
+        AlgorithmTestUtils.checkConstraints(solutions, problem);
+    }
+
+    /*
+     * two short tasks, then a chain which only fits before the fixed task if task 2 starts early:
+     * most failures of the chain do not depend on tasks 0 and 1
+     */
+    private CSP createBackjumpingProblem() {
+        CSP problem = new CSP(new Time(8, 0), new Time(12, 0));
+        problem.addFlexibleTask(new Time(0, 15)); // 0
+        problem.addFlexibleTask(new Time(0, 15)); // 1
+        problem.addFlexibleTask(new Time(1, 0)); // 2
+        problem.addFlexibleTask(new Time(0, 55)); // 3
+        problem.addFixedTask(new Time(10, 0), new Time(11, 30)); // 4
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 1, 0);
+        problem.addConstraint(2, 3, 0);
+        problem.addConstraint(3, 4, 0);
+        return problem;
+    }
+
+    @Test
+    public void testBackjumpingFindsSameSolutions() throws Exception {
+        problem = createBackjumpingProblem();
+        CSP_Solver chronological = new CSP_Solver(problem, 100000);
+        chronological.setBackjumping(false);
+        List<List<TaskAssignment>> expected = chronological.getSolutions();
+
+        solutions = new CSP_Solver(problem, 100000).getSolutions();
+        assertEquals(expected.size() > 0, true);
+        assertEquals(expected, solutions);
+        AlgorithmTestUtils.noOverLap(solutions);
+        AlgorithmTestUtils.checkConstraints(solutions, problem);
+    }
+
+    @Test
+    public void testBackjumpingParallel() throws Exception {
+        problem = createBackjumpingProblem();
+        CSP_Solver chronological = new CSP_Solver(problem, 100000);
+        chronological.setBackjumping(false);
+        List<List<TaskAssignment>> expected = chronological.getSolutions();
+
+        CSP_Solver solver = new CSP_Solver(problem, 100000);
+        solver.setParallelism(3);
+        solutions = solver.getSolutions();
+        assertEquals(new HashSet<List<TaskAssignment>>(expected),
+                new HashSet<List<TaskAssignment>>(solutions));
+    }
+
+    /*
+     * the flexible tasks fill the two free hours exactly, but task 0 fits next to neither
+     * 50 minute task; only the search finds out
+     */
+    @Test
+    public void testBackjumpingWithoutSolution() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(11, 0));
+        problem.addFlexibleTask(new Time(0, 20)); // 0
+        problem.addFlexibleTask(new Time(0, 50)); // 1
+        problem.addFlexibleTask(new Time(0, 50)); // 2
+        problem.addFixedTask(new Time(9, 0), new Time(10, 0)); // 3
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 1, 0);
+
+        solutions = new CSP_Solver(problem).getSolutions();
+        assertEquals(0, solutions.size());
+    }
+
+    /*
+     * tries the values in ascending (or descending) order of start time by sorting them, and
+     * counts how often it is asked to
+     */
+    private static class SortedValueOrdering extends KeyedValueOrdering {
+        private final boolean descending;
+        private int orderCount = 0;
+
+        SortedValueOrdering(boolean descending) {
+            this.descending = descending;
+        }
+
+        long getKey(CSP_Solver solver, int id, int value) {
+            int start = solver.getTaskDomain(id).getStart(value);
+            return descending ? 24 * 60 - start : start;
+        }
+
+        public void orderValues(CSP_Solver solver, int id, int[] values, int count) {
+            orderCount++;
+            super.orderValues(solver, id, values, count);
+        }
+    }
+
+    /*
+     * values tried in domain order are found in the bit domains during search; an ordering
+     * which sorts them into the same order has to find the same solutions in the same order
+     */
+    @Test
+    public void testDomainOrderValuesFoundDuringSearch() throws Exception {
+        problem = createBackjumpingProblem();
+        CSP_Solver buffered = new CSP_Solver(problem, 100000);
+        SortedValueOrdering ascending = new SortedValueOrdering(false);
+        buffered.setValueOrderingStrategy(ascending);
+        List<List<TaskAssignment>> expected = buffered.getSolutions();
+        assertEquals(true, ascending.orderCount > 0);
+
+        solutions = new CSP_Solver(problem, 100000).getSolutions();
+        assertEquals(expected.size() > 0, true);
+        assertEquals(expected, solutions);
+
+        buffered = new CSP_Solver(problem, 100000);
+        buffered.setValueOrderingStrategy(new SortedValueOrdering(true));
+        expected = buffered.getSolutions();
+
+        CSP_Solver solver = new CSP_Solver(problem, 100000);
+        solver.setValueOrderingStrategy(new LatestStartValueOrdering());
+        solutions = solver.getSolutions();
+        assertEquals(expected, solutions);
+        AlgorithmTestUtils.noOverLap(solutions);
+        AlgorithmTestUtils.checkConstraints(solutions, problem);
+    }
+
+    /*
+     * a level trying its values in domain order takes them from the bit domain one at a
+     * time, without collecting the whole domain to order it
+     */
+    @Test
+    public void testDomainOrderValuesNotCollected() throws Exception {
+        problem = createBackjumpingProblem();
+        final int[] orderCount = new int[1];
+        CSP_Solver solver = new CSP_Solver(problem, 100000);
+        solver.setValueOrderingStrategy(new EarliestStartValueOrdering() {
+            public void orderValues(CSP_Solver solver, int id, int[] values, int count) {
+                orderCount[0]++;
+            }
+        });
+        assertEquals(true, solver.getSolutions().size() > 0);
+        assertEquals(true, solver.getStats().getNodes() > 0);
+        assertEquals(0, orderCount[0]);
+    }
+
+    @Test
+    public void testDisjunctiveReasoningFindsSameSolutions() throws Exception {
+        problem = createBackjumpingProblem();
+        CSP_Solver pairwise = new CSP_Solver(problem, 100000);
+        pairwise.setDisjunctiveReasoning(false);
+        List<List<TaskAssignment>> expected = pairwise.getSolutions();
+
+        solutions = new CSP_Solver(problem, 100000).getSolutions();
+        assertEquals(expected.size() > 0, true);
+        assertEquals(expected, solutions);
+    }
+
+    /*
+     * four 25 minute tasks, two 30 minute tasks and a fixed task fill the day exactly, but no
+     * set of the flexible tasks fills the 65 minutes before the fixed task. the search over
+     * the orders of the tasks finds this out much later without reasoning on all tasks together
+     */
+    @Test
+    public void testDisjunctiveReasoningFailsEarlier() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(10, 55));
+        for (int i = 0; i < 4; i++) {
+            problem.addFlexibleTask(new Time(0, 25));
+        }
+        problem.addFlexibleTask(new Time(0, 30));
+        problem.addFlexibleTask(new Time(0, 30));
+        problem.addFixedTask(new Time(9, 5), new Time(9, 20));
+        problem.createConstraintGraph();
+        List<Time> steps = new ArrayList<Time>();
+        steps.add(new Time(0, 5));
+
+        CSP_Solver pairwise = new CSP_Solver(problem, 5);
+        pairwise.setStepList(steps);
+        pairwise.setSymmetryBreaking(true);
+        pairwise.setDisjunctiveReasoning(false);
+        List<List<TaskAssignment>> expected = pairwise.getSolutions();
+
+        CSP_Solver solver = new CSP_Solver(problem, 5);
+        solver.setStepList(steps);
+        solver.setSymmetryBreaking(true);
+        solutions = solver.getSolutions();
+        assertEquals(0, expected.size());
+        assertEquals(0, solutions.size());
+        assertEquals(true, solver.getStats().getValuesPrunedByDisjunctive() > 0);
+        assertEquals(true, solver.getStats().getNodes() < pairwise.getStats().getNodes());
+    }
+
+    // the solutions of the day of createGapProblem() without gaps, which meet the gaps
+    private static List<List<TaskAssignment>> filterGaps(List<List<TaskAssignment>> solutions) {
+        List<List<TaskAssignment>> filtered = new ArrayList<List<TaskAssignment>>();
+        for (List<TaskAssignment> solution : solutions) {
+            int[] start = new int[solution.size()];
+            int[] end = new int[solution.size()];
+            for (TaskAssignment assignment : solution) {
+                start[assignment.getTaskId()] = assignment.getAssignment().getStartTime().toMinutes();
+                end[assignment.getTaskId()] = assignment.getAssignment().getEndTime().toMinutes();
+            }
+            if (start[1] - end[0] >= 15 && start[1] - end[0] <= 45 && start[3] - end[1] >= 30) {
+                filtered.add(solution);
+            }
+        }
+        return filtered;
+    }
+
+    private CSP createGapProblem(boolean gaps) {
+        CSP problem = new CSP(new Time(8, 0), new Time(12, 0));
+        problem.addFlexibleTask(new Time(1, 0)); // 0
+        problem.addFlexibleTask(new Time(0, 30)); // 1
+        problem.addFixedTask(new Time(10, 0), new Time(10, 30)); // 2
+        problem.addFlexibleTask(new Time(0, 45)); // 3
+        problem.createConstraintGraph();
+        if (gaps) {
+            problem.addConstraint(0, 1, 15, 45);
+            problem.addConstraint(1, 3, 30);
+        } else {
+            problem.addConstraint(0, 1, 0);
+            problem.addConstraint(1, 3, 0);
+        }
+        return problem;
+    }
+
+    @Test
+    public void testGapConstraints() throws Exception {
+        List<List<TaskAssignment>> expected = filterGaps(
+                new CSP_Solver(createGapProblem(false), 100000).getSolutions());
+        assertEquals(true, expected.size() > 0);
+
+        problem = createGapProblem(true);
+        solutions = new CSP_Solver(problem, 100000).getSolutions();
+        assertEquals(new HashSet<List<TaskAssignment>>(expected),
+                new HashSet<List<TaskAssignment>>(solutions));
+        assertEquals(expected.size(), solutions.size());
+        AlgorithmTestUtils.noOverLap(solutions);
+        AlgorithmTestUtils.checkConstraints(solutions, problem);
+
+        CSP_Solver solver = new CSP_Solver(problem, 100000);
+        solver.setIncrementalRefinement(false);
+        solver.setDisjunctiveReasoning(false);
+        assertEquals(new HashSet<List<TaskAssignment>>(solutions),
+                new HashSet<List<TaskAssignment>>(solver.getSolutions()));
+    }
+
+    @Test
+    public void testMaxGapDetectedBeforeSearch() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(12, 0));
+        problem.addFixedTask(new Time(8, 0), new Time(9, 0)); // 0
+        problem.addFlexibleTask(new Time(1, 0)); // 1
+        problem.addFixedTask(new Time(11, 0), new Time(12, 0)); // 2
+        problem.createConstraintGraph();
+        // task 1 can follow task 0 closely or be close to task 2, not both
+        problem.addConstraint(0, 1, 0, 20);
+        problem.addConstraint(1, 2, 0, 20);
+
+        CSP_Solver solver = new CSP_Solver(problem);
+        int[] order = problem.getConstraints().GetTopologicalSort();
+        solver.createPrecedenceLists();
+        assertEquals(false, solver.computeStartBounds(order));
+        assertEquals(true, solver.getSolutions().isEmpty());
+
+        solver = new CSP_Solver(problem);
+        solver.setIncrementalRefinement(false);
+        assertEquals(true, solver.getSolutions().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxGapBelowMinGap() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(12, 0));
+        problem.addFlexibleTask(new Time(1, 0));
+        problem.addFlexibleTask(new Time(1, 0));
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 1, 30, 15);
+    }
+
+    private CSP createThreeTaskProblem() {
+        CSP problem = new CSP(new Time(8, 0), new Time(12, 0));
+        problem.addFlexibleTask(new Time(0, 47)); // 0
+        problem.addFixedTask(new Time(9, 13), new Time(10, 0)); // 1
+        problem.addFlexibleTask(new Time(1, 1)); // 2
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 1, 0);
+        problem.addConstraint(1, 2, 0);
+        return problem;
+    }
+
+    @Test
+    public void testSolutionIteratorMatchesGetSolutions() throws Exception {
+        problem = createThreeTaskProblem();
+        List<List<TaskAssignment>> expected = new CSP_Solver(problem).getSolutions();
+
+        Iterator<List<TaskAssignment>> iterator = new CSP_Solver(problem).solutionIterator();
+        solutions = new ArrayList<List<TaskAssignment>>();
+        while (iterator.hasNext()) {
+            solutions.add(iterator.next());
+        }
+        assertEquals(expected, solutions);
+    }
+
+    @Test
+    public void testSolutionIteratorIsLazy() throws Exception {
+        problem = createThreeTaskProblem();
+        CSP_Solver solver = new CSP_Solver(problem);
+        Iterator<List<TaskAssignment>> iterator = solver.solutionIterator();
+        assertEquals(0, solver.getSolutionCount());
+        assertEquals(true, iterator.hasNext());
+        assertEquals(true, iterator.hasNext());
+        assertEquals(1, solver.getSolutionCount());
+        iterator.next();
+        assertEquals(1, solver.getSolutionCount());
+        iterator.next();
+        assertEquals(2, solver.getSolutionCount());
+    }
+
+    @Test
+    public void testSolutionIteratorWithoutSolution() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(12, 0));
+        problem.addFixedTask(new Time(8, 0), new Time(11, 30)); // 0
+        problem.addFlexibleTask(new Time(1, 0)); // 1
+        problem.createConstraintGraph();
+
+        Iterator<List<TaskAssignment>> iterator = new CSP_Solver(problem).solutionIterator();
+        assertEquals(false, iterator.hasNext());
+        try {
+            iterator.next();
+            throw new AssertionError("next() has to fail without solution");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBudgetedSolutionIteratorGoesOn() throws Exception {
+        problem = createThreeTaskProblem();
+        List<List<TaskAssignment>> expected = new CSP_Solver(problem).getSolutions();
+
+        // without budget every pull takes a single search node and pauses
+        CSP_Solver solver = new CSP_Solver(problem);
+        Iterator<List<TaskAssignment>> iterator = solver.solutionIterator(0);
+        solutions = new ArrayList<List<TaskAssignment>>();
+        int pauses = 0;
+        for (int pull = 0; pull < 100000; pull++) {
+            if (iterator.hasNext()) {
+                assertEquals(false, solver.isTruncated());
+                solutions.add(iterator.next());
+            } else if (solver.isTruncated()) {
+                pauses++;
+            } else {
+                break;
+            }
+        }//for
+        assertEquals(true, pauses > 0);
+        assertEquals(expected, solutions);
+    }
+
+    @Test
+    public void testBudgetedSolutionIteratorLargeEnough() throws Exception {
+        problem = createThreeTaskProblem();
+        CSP_Solver solver = new CSP_Solver(problem);
+        Iterator<List<TaskAssignment>> iterator = solver.solutionIterator(60000);
+        solutions = new ArrayList<List<TaskAssignment>>();
+        while (iterator.hasNext()) {
+            solutions.add(iterator.next());
+        }
+        assertEquals(false, solver.isTruncated());
+        assertEquals(new CSP_Solver(problem).getSolutions(), solutions);
+    }
+
+    // a day whose search takes long: many short tasks which only fit at the 1 minute step
+    private CSP createSlowProblem() {
+        CSP problem = new CSP(new Time(8, 0), new Time(20, 0));
+        for (int i = 0; i < 12; i++) {
+            problem.addFlexibleTask(new Time(0, 59)); // 0 .. 11
+        }
+        problem.createConstraintGraph();
+        return problem;
+    }
+
+    @Test
+    public void testTimeBudgetTruncatesSearch() throws Exception {
+        CSP_Solver solver = new CSP_Solver(createSlowProblem(), Integer.MAX_VALUE);
+        long start = System.currentTimeMillis();
+        solutions = solver.getSolutions(50);
+        long elapsed = System.currentTimeMillis() - start;
+        assertEquals(true, solver.isTruncated());
+        assertEquals(true, elapsed < 2000);
+        AlgorithmTestUtils.noOverLap(solutions);
+    }
+
+    @Test
+    public void testTimeBudgetLargeEnough() throws Exception {
+        problem = createThreeTaskProblem();
+        CSP_Solver solver = new CSP_Solver(problem);
+        solutions = solver.getSolutions(60000);
+        assertEquals(false, solver.isTruncated());
+        assertEquals(new CSP_Solver(problem).getSolutions(), solutions);
+    }
+
+    @Test
+    public void testTimeBudgetParallel() throws Exception {
+        CSP_Solver solver = new CSP_Solver(createSlowProblem(), Integer.MAX_VALUE);
+        solver.setParallelism(4);
+        solutions = solver.getSolutions(50);
+        assertEquals(true, solver.isTruncated());
+        AlgorithmTestUtils.noOverLap(solutions);
+    }
+
+    @Test
+    public void testBestSolutionWithTimeBudget() throws Exception {
+        CSP_Solver solver = new CSP_Solver(createSlowProblem());
+        List<TaskAssignment> best = solver.getBestSolution(new CategoryClusteringObjective(
+                new int[]{0, 1, 0, 1, 0, 1, 0, 1, 0, 1, 0, 1}), 50);
+        assertEquals(true, solver.isTruncated());
+        // a schedule is found with the 1 hour step long before the time runs out
+        assertEquals(true, best != null);
+    }
+}
@@ -0,0 +1,76 @@
+package com.algorithm;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConflictSetsTest {
+
+    @Test
+    public void testAddLevelAndUndo() throws Exception {
+        ConflictSets sets = new ConflictSets(3);
+        sets.addLevel(0, 1);
+        int mark = sets.mark();
+        sets.addLevel(0, 2);
+        sets.addLevel(1, 0);
+
+        long[] set = new long[ConflictSets.wordCount(3)];
+        sets.addTo(set, 0);
+        assertEquals(2, ConflictSets.highestBelow(set, 3));
+        assertEquals(2, ConflictSets.countBelow(set, 3));
+
+        sets.undoTo(mark);
+        ConflictSets.clear(set);
+        sets.addTo(set, 0);
+        sets.addTo(set, 1);
+        assertEquals(1, ConflictSets.highestBelow(set, 3));
+        assertEquals(1, ConflictSets.countBelow(set, 3));
+    }
+
+    @Test
+    public void testAddReasons() throws Exception {
+        ConflictSets sets = new ConflictSets(4);
+        sets.addLevel(1, 0);
+        // task 2 assigned at level 3 pruned task 1
+        sets.addReasons(1, 2, 3);
+        // unassigned task 1 pruned task 0
+        sets.addReasons(0, 1, -1);
+
+        long[] set = new long[ConflictSets.wordCount(4)];
+        sets.addTo(set, 0);
+        assertEquals(3, ConflictSets.highestBelow(set, 4));
+        assertEquals(0, ConflictSets.highestBelow(set, 3));
+        assertEquals(-1, ConflictSets.highestBelow(set, 0));
+    }
+
+    @Test
+    public void testLevelsAcrossWords() throws Exception {
+        long[] set = new long[ConflictSets.wordCount(130)];
+        ConflictSets.addLevel(set, 5);
+        ConflictSets.addLevel(set, 64);
+        ConflictSets.addLevel(set, 129);
+        assertEquals(129, ConflictSets.highestBelow(set, 130));
+        assertEquals(64, ConflictSets.highestBelow(set, 129));
+        assertEquals(5, ConflictSets.highestBelow(set, 64));
+        assertEquals(2, ConflictSets.countBelow(set, 129));
+
+        long[] below = new long[set.length];
+        ConflictSets.addAllBelow(below, set, 64);
+        assertEquals(1, ConflictSets.countBelow(below, 130));
+        assertEquals(5, ConflictSets.highestBelow(below, 130));
+    }
+
+    @Test
+    public void testCopyAndClear() throws Exception {
+        ConflictSets sets = new ConflictSets(2);
+        sets.addLevel(1, 0);
+        ConflictSets copy = new ConflictSets(sets);
+        sets.clear();
+
+        long[] set = new long[1];
+        sets.addTo(set, 1);
+        assertEquals(-1, ConflictSets.highestBelow(set, 2));
+        copy.addTo(set, 1);
+        assertEquals(0, ConflictSets.highestBelow(set, 2));
+    }
+}
@@ -0,0 +1,379 @@
+package com.algorithm;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConstraintGraphTest {
+
+    @Test
+    public void testDirection() throws Exception {
+        ConstraintGraph graph = new ConstraintGraph(3);
+        graph.addConstraint(0, 1, 0);
+        graph.addConstraint(1, 2, 15);
+        assertEquals(true, graph.getDirection(0, 1) > 0);
+        assertEquals(true, graph.getDirection(1, 0) < 0);
+        assertEquals(true, graph.getDirection(2, 1) < 0);
+        assertEquals(0, graph.getDirection(0, 2));
+        assertEquals(0, graph.getDirection(1, 1));
+    }
+
+    @Test
+    public void testAdjacencyKeepsOrder() throws Exception {
+        ConstraintGraph graph = new ConstraintGraph(4);
+        graph.addConstraint(0, 3, 5);
+        graph.addConstraint(2, 0, 0);
+        graph.addConstraint(0, 1, 10);
+        // a duplicate is not added again
+        graph.addConstraint(0, 3, 5);
+        assertEquals(3, graph.getEdgeCount());
+        assertEquals(2, graph.getOutDegree(0));
+        assertEquals(3, graph.getSuccessor(0, 0));
+        assertEquals(5, graph.getSuccessorWeight(0, 0));
+        assertEquals(1, graph.getSuccessor(0, 1));
+        assertEquals(10, graph.getSuccessorWeight(0, 1));
+        assertEquals(0, graph.getOutDegree(1));
+        assertEquals(3, graph.getNeighbourCount(0));
+        assertEquals(3, graph.getNeighbour(0, 0));
+        assertEquals(2, graph.getNeighbour(0, 1));
+        assertEquals(1, graph.getNeighbour(0, 2));
+        assertEquals(1, graph.getNeighbourCount(2));
+    }
+
+    @Test
+    public void testDeleteOneOfParallelConstraints() throws Exception {
+        ConstraintGraph graph = new ConstraintGraph(2);
+        graph.addConstraint(0, 1, 0);
+        graph.addConstraint(0, 1, 30);
+        graph.deleteConstraint(0, 1, 0);
+        assertEquals(true, graph.getDirection(0, 1) > 0);
+        assertEquals(1, graph.getOutDegree(0));
+        assertEquals(30, graph.getSuccessorWeight(0, 0));
+        // deleting a constraint which does not exist changes nothing
+        graph.deleteConstraint(0, 1, 0);
+        graph.deleteConstraint(1, 0, 30);
+        assertEquals(1, graph.getEdgeCount());
+        graph.deleteConstraint(0, 1, 30);
+        assertEquals(0, graph.getDirection(0, 1));
+        assertEquals(0, graph.getNeighbourCount(1));
+    }
+
+    @Test
+    public void testCycleRejected() throws Exception {
+        ConstraintGraph graph = new ConstraintGraph(4);
+        assertEquals(true, graph.addConstraint(3, 2, 0));
+        assertEquals(true, graph.addConstraint(2, 1, 0));
+        assertEquals(true, graph.addConstraint(1, 0, 0));
+        assertEquals(false, graph.isCyclic());
+        int[] order = graph.GetTopologicalSort();
+        assertEquals(3, order[0]);
+        assertEquals(0, order[3]);
+
+        assertEquals(false, graph.addConstraint(0, 3, 0));
+        assertEquals(true, graph.isCyclic());
+        assertEquals(3, graph.getEdgeCount());
+        assertEquals(0, graph.getDirection(0, 3));
+        // the graph still sorts without the rejected constraint
+        order = graph.GetTopologicalSort();
+        assertEquals(3, order[0]);
+        assertEquals(0, order[3]);
+        assertEquals(1, graph.getRejectedConstraints().size());
+
+        // deleting a constraint of the cycle lets the rejected one in
+        graph.deleteConstraint(1, 0, 0);
+        assertEquals(false, graph.isCyclic());
+        assertEquals(3, graph.getEdgeCount());
+        assertEquals(true, graph.getDirection(0, 3) > 0);
+        order = graph.GetTopologicalSort();
+        assertEquals(0, order[0]);
+        assertEquals(1, order[3]);
+        assertEquals(0, graph.getRejectedConstraints().size());
+    }
+    @Test
+    public void testRejectedConstraintDeleted() throws Exception {
+        ConstraintGraph graph = new ConstraintGraph(3);
+        assertEquals(true, graph.addConstraint(0, 1, 0));
+        assertEquals(true, graph.addConstraint(1, 2, 0));
+        assertEquals(false, graph.addConstraint(2, 0, 5));
+        assertEquals(true, graph.isCyclic());
+        graph.deleteConstraint(2, 0, 5);
+        assertEquals(false, graph.isCyclic());
+        assertEquals(2, graph.getEdgeCount());
+        int[] order = graph.GetTopologicalSort();
+        assertEquals(0, order[0]);
+        assertEquals(2, order[2]);
+    }
+
+    @Test
+    public void testLongChainSortedWithoutRecursion() throws Exception {
+        int n = 100000;
+        ConstraintGraph graph = new ConstraintGraph(n);
+        for (int i = 1; i < n; i++) {
+            graph.addConstraint(i - 1, i, 0);
+        }
+        int[] order = graph.GetTopologicalSort();
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, order[i]);
+        }
+        assertEquals(false, graph.addConstraint(n - 1, 0, 0));
+    }
+
+    @Test
+    public void testConcurrentReaders() throws Exception {
+        // solvers of a portfolio read the same graph from several threads at once, and the
+        // first reads after a change build the adjacency arrays
+        for (int round = 0; round < 20; round++) {
+            final ConstraintGraph graph = new ConstraintGraph(6);
+            for (int weight = 0; weight < 20000; weight++) {
+                graph.addConstraint(weight % 5, 5, weight);
+            }
+            final CountDownLatch start = new CountDownLatch(1);
+            final AtomicInteger failures = new AtomicInteger();
+            List<Thread> threads = new ArrayList<Thread>();
+            for (int t = 0; t < 8; t++) {
+                Thread thread = new Thread(new Runnable() {
+                    public void run() {
+                        try {
+                            start.await();
+                            int weights = 0;
+                            for (int u = 0; u < 5; u++) {
+                                for (int i = 0; i < graph.getOutDegree(u); i++) {
+                                    if (graph.getSuccessor(u, i) == 5) {
+                                        weights++;
+                                    }
+                                }
+                            }
+                            if (weights != 20000 || graph.getNeighbourCount(5) != 20000) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (Throwable e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(0, failures.get());
+        }
+    }
+
+    @Test
+    public void testRandomEdits() throws Exception {
+        // compare with a set of {u, v, weight} after many additions and deletions
+        Random random = new Random(3);
+        int n = 40;
+        ConstraintGraph graph = new ConstraintGraph(n);
+        Set<String> expected = new HashSet<String>();
+        Set<String> added = new HashSet<String>();
+        for (int step = 0; step < 5000; step++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            int weight = 5 * random.nextInt(3);
+            if (random.nextInt(3) == 0) {
+                graph.deleteConstraint(u, v, weight);
+                added.remove(u + " " + v + " " + weight);
+                expected.clear();
+                for (Arc arc : graph.getArcs()) {
+                    expected.add(arc.getU() + " " + arc.getV() + " " + arc.getWeight());
+                }
+            } else if (graph.addConstraint(u, v, weight)) {
+                assertEquals(false, u != v && reaches(expected, n, v, u));
+                if (u != v) {
+                    expected.add(u + " " + v + " " + weight);
+                    added.add(u + " " + v + " " + weight);
+                }
+            } else {
+                // rejected because v reaches u
+                assertEquals(true, reaches(expected, n, v, u));
+                added.add(u + " " + v + " " + weight);
+            }
+            if (step % 250 == 0) {
+                // every constraint added and not deleted is either kept or rejected
+                Set<String> all = new HashSet<String>(expected);
+                for (Arc arc : graph.getRejectedConstraints()) {
+                    // still rejected because it would close a cycle
+                    assertEquals(true, reaches(expected, n, arc.getV(), arc.getU()));
+                    all.add(arc.getU() + " " + arc.getV() + " " + arc.getWeight());
+                }
+                assertEquals(added, all);
+            }
+        }
+        assertEquals(true, graph.isCyclic());
+        assertEquals(n, graph.GetTopologicalSort().length);
+
+        // the constraints kept have no cycle
+        ConstraintGraph kept = new ConstraintGraph(n);
+        for (Arc arc : graph.getArcs()) {
+            assertEquals(true, kept.addConstraint(arc.getU(), arc.getV(), arc.getWeight()));
+        }
+        assertEquals(false, kept.isCyclic());
+        int[] position = new int[n];
+        int[] order = kept.GetTopologicalSort();
+        for (int i = 0; i < n; i++) {
+            position[order[i]] = i;
+        }
+        Set<String> edges = new HashSet<String>();
+        for (Arc arc : graph.getArcs()) {
+            edges.add(arc.getU() + " " + arc.getV() + " " + arc.getWeight());
+        }
+        assertEquals(expected, edges);
+        assertEquals(expected.size(), graph.getEdgeCount());
+
+        int outDegrees = 0;
+        for (int u = 0; u < n; u++) {
+            outDegrees += graph.getOutDegree(u);
+            for (int i = 0; i < graph.getOutDegree(u); i++) {
+                String edge = u + " " + graph.getSuccessor(u, i) + " "
+                        + graph.getSuccessorWeight(u, i);
+                assertEquals(true, expected.contains(edge));
+                assertEquals(true, position[u] < position[graph.getSuccessor(u, i)]);
+            }
+            for (int v = 0; v < n; v++) {
+                boolean forward = false;
+                boolean backward = false;
+                for (int weight = 0; weight <= 10; weight += 5) {
+                    forward |= expected.contains(u + " " + v + " " + weight);
+                    backward |= expected.contains(v + " " + u + " " + weight);
+                }
+                assertEquals(forward ? 1 : backward ? -1 : 0,
+                        Integer.signum(graph.getDirection(u, v)));
+            }
+        }
+        assertEquals(expected.size(), outDegrees);
+    }
+
+    @Test
+    public void testAddAndRemoveVertex() throws Exception {
+        ConstraintGraph graph = new ConstraintGraph(3);
+        graph.addConstraint(0, 1, 0);
+        graph.addConstraint(1, 2, 5);
+        assertEquals(3, graph.addVertex());
+        assertEquals(4, graph.getVertexCnt());
+        assertEquals(true, graph.addConstraint(3, 0, 10));
+        assertEquals(false, graph.addConstraint(2, 3, 0));
+        graph.addMaxGap(3, 0, 20);
+
+        // the last vertex takes the id of the removed one, with its constraints
+        graph.removeVertex(1);
+        assertEquals(3, graph.getVertexCnt());
+        assertEquals(true, graph.getDirection(1, 0) > 0);
+        assertEquals(1, graph.getOutDegree(1));
+        assertEquals(10, graph.getSuccessorWeight(1, 0));
+        assertEquals(1, graph.getMaxGaps().size());
+        assertEquals(1, graph.getMaxGaps().get(0).getU());
+        // the rejected constraint 2 -> 3 is 2 -> 1 now, and no longer closes a cycle
+        assertEquals(false, graph.isCyclic());
+        assertEquals(2, graph.getEdgeCount());
+        assertEquals(true, graph.getDirection(2, 1) > 0);
+        assertEquals(1, graph.getNeighbourCount(2));
+        int[] order = graph.GetTopologicalSort();
+        assertEquals(2, order[0]);
+        assertEquals(1, order[1]);
+        assertEquals(0, order[2]);
+    }
+
+    @Test
+    public void testRandomVertexEdits() throws Exception {
+        // compare with a set of {u, v, weight} after many additions and removals of vertices
+        Random random = new Random(5);
+        int n = 10;
+        ConstraintGraph graph = new ConstraintGraph(n);
+        Set<String> added = new HashSet<String>();
+        for (int step = 0; step < 3000; step++) {
+            int action = random.nextInt(6);
+            if (action == 0 && n < 30) {
+                assertEquals(n, graph.addVertex());
+                n++;
+            } else if (action == 1 && n > 2) {
+                int id = random.nextInt(n);
+                graph.removeVertex(id);
+                n--;
+                // the last vertex, n now, takes the id of the removed one
+                Set<String> renamed = new HashSet<String>();
+                for (String edge : added) {
+                    String[] parts = edge.split(" ");
+                    int u = Integer.parseInt(parts[0]);
+                    int v = Integer.parseInt(parts[1]);
+                    if (u != id && v != id) {
+                        renamed.add((u == n ? id : u) + " " + (v == n ? id : v) + " " + parts[2]);
+                    }
+                }
+                added = renamed;
+            } else {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n);
+                int weight = 5 * random.nextInt(3);
+                if (u != v) {
+                    graph.addConstraint(u, v, weight);
+                    added.add(u + " " + v + " " + weight);
+                }
+            }
+            if (step % 50 == 0) {
+                assertEquals(n, graph.getVertexCnt());
+                Set<String> kept = new HashSet<String>();
+                for (Arc arc : graph.getArcs()) {
+                    kept.add(arc.getU() + " " + arc.getV() + " " + arc.getWeight());
+                }
+                assertEquals(kept.size(), graph.getEdgeCount());
+                Set<String> all = new HashSet<String>(kept);
+                for (Arc arc : graph.getRejectedConstraints()) {
+                    assertEquals(true, reaches(kept, n, arc.getV(), arc.getU()));
+                    all.add(arc.getU() + " " + arc.getV() + " " + arc.getWeight());
+                }
+                assertEquals(added, all);
+                int[] position = new int[n];
+                int[] order = graph.GetTopologicalSort();
+                assertEquals(n, order.length);
+                for (int i = 0; i < n; i++) {
+                    position[order[i]] = i;
+                }
+                int outDegrees = 0;
+                for (int u = 0; u < n; u++) {
+                    outDegrees += graph.getOutDegree(u);
+                    for (int i = 0; i < graph.getOutDegree(u); i++) {
+                        assertEquals(true, position[u] < position[graph.getSuccessor(u, i)]);
+                        assertEquals(true, kept.contains(u + " " + graph.getSuccessor(u, i)
+                                + " " + graph.getSuccessorWeight(u, i)));
+                    }
+                }
+                assertEquals(kept.size(), outDegrees);
+            }
+        }
+    }
+
+    // true if some path of the edges in {u, v, weight} form goes from "from" to "to"
+    private static boolean reaches(Set<String> edges, int n, int from, int to) {
+        boolean[] seen = new boolean[n];
+        List<Integer> queue = new ArrayList<Integer>();
+        queue.add(from);
+        seen[from] = true;
+        for (int i = 0; i < queue.size(); i++) {
+            int x = queue.get(i);
+            if (x == to) {
+                return true;
+            }
+            for (String edge : edges) {
+                String[] ends = edge.split(" ");
+                int y = Integer.parseInt(ends[1]);
+                if (Integer.parseInt(ends[0]) == x && !seen[y]) {
+                    seen[y] = true;
+                    queue.add(y);
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,131 @@
+package com.algorithm;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DisjunctivePropagatorTest {
+    private Domain[] taskDomains;
+    private BitDomain[] domains;
+    private DomainTrail trail;
+    private boolean[] assigned;
+    private int[] assignedStart;
+    private int[] assignedEnd;
+    private DisjunctivePropagator propagator;
+
+    /*
+     * tasks of the given durations in minutes, starting every 10 minutes from 8:00 to 12:00
+     */
+    private void createTasks(int... durations) {
+        int count = durations.length;
+        taskDomains = new Domain[count];
+        domains = new BitDomain[count];
+        for (int i = 0; i < count; i++) {
+            taskDomains[i] = new Domain();
+            taskDomains[i].initializeDomainSet(new Time(8, 0), new Time(12, 0),
+                    Time.fromMinutes(durations[i]), new Time(0, 10));
+            domains[i] = new BitDomain(taskDomains[i].size());
+        }
+        trail = new DomainTrail();
+        assigned = new boolean[count];
+        assignedStart = new int[count];
+        assignedEnd = new int[count];
+        int[][] none = new int[count][0];
+        PrecedencePropagator precedences = new PrecedencePropagator(
+                AlgorithmTestUtils.precedenceNetwork(none, taskDomains), taskDomains, domains, trail,
+                assigned, assignedStart);
+        propagator = new DisjunctivePropagator(taskDomains, domains, trail, precedences,
+                assigned, assignedStart, assignedEnd);
+    }
+
+    // task id has to end by minute
+    private void endBy(int id, int minute) {
+        domains[id].removeRange(taskDomains[id].firstEndingAfter(minute),
+                taskDomains[id].size(), id, trail);
+    }
+
+    // task id has to start at minute or later
+    private void startFrom(int id, int minute) {
+        domains[id].removeRange(0, taskDomains[id].lowerBound(minute), id, trail);
+    }
+
+    private int earliestStart(int id) {
+        return taskDomains[id].getStart(domains[id].nextAvailable(0));
+    }
+
+    private int latestEnd(int id) {
+        return taskDomains[id].getEnd(domains[id].prevAvailable(domains[id].size() - 1));
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        createTasks(60, 60, 30);
+    }
+
+    @Test
+    public void testEdgeFinding() throws Exception {
+        // tasks 0 and 1 fill 8:00 to 10:00, so task 2 comes after both
+        endBy(0, 10 * 60);
+        endBy(1, 10 * 60);
+        assertEquals(-1, propagator.propagate());
+        assertEquals(10 * 60, earliestStart(2));
+        assertEquals(12 * 60, latestEnd(2));
+        assertEquals(8 * 60, earliestStart(0));
+    }
+
+    @Test
+    public void testEdgeFindingMirrored() throws Exception {
+        // tasks 0 and 1 fill 10:00 to 12:00, so task 2 comes before both
+        startFrom(0, 10 * 60);
+        startFrom(1, 10 * 60);
+        assertEquals(-1, propagator.propagate());
+        assertEquals(8 * 60, earliestStart(2));
+        assertEquals(10 * 60, latestEnd(2));
+    }
+
+    @Test
+    public void testOverload() throws Exception {
+        // two hours of tasks between 8:00 and 9:50
+        endBy(0, 9 * 60 + 50);
+        endBy(1, 9 * 60 + 50);
+        assertEquals(true, propagator.propagate() >= 0);
+    }
+
+    @Test
+    public void testNotLast() throws Exception {
+        // tasks 0 and 1 cannot both be done before 9:50, when task 2 has to start at the
+        // latest, so task 2 is not after both of them; it ends before the later one starts
+        endBy(0, 11 * 60);
+        endBy(1, 11 * 60);
+        startFrom(2, 9 * 60);
+        endBy(2, 10 * 60 + 20);
+        assertEquals(-1, propagator.propagate());
+        assertEquals(10 * 60, latestEnd(2));
+    }
+
+    @Test
+    public void testCompulsoryPart() throws Exception {
+        // task 0 surely occupies 9:30 to 10:00
+        startFrom(0, 9 * 60);
+        endBy(0, 10 * 60 + 30);
+        assertEquals(-1, propagator.propagate());
+        assertEquals(false, domains[2].isAvailable(taskDomains[2].lowerBound(9 * 60 + 30)));
+        assertEquals(false, domains[2].isAvailable(taskDomains[2].lowerBound(9 * 60 + 10)));
+        assertEquals(true, domains[2].isAvailable(taskDomains[2].lowerBound(9 * 60)));
+        assertEquals(true, domains[2].isAvailable(taskDomains[2].lowerBound(10 * 60)));
+    }
+
+    @Test
+    public void testAssignedTaskNotPruned() throws Exception {
+        endBy(0, 10 * 60);
+        assigned[1] = true;
+        assignedStart[1] = 9 * 60;
+        assignedEnd[1] = 10 * 60;
+        int before = domains[1].count();
+        assertEquals(-1, propagator.propagate());
+        assertEquals(before, domains[1].count());
+        // task 0 only fits from 8:00
+        assertEquals(8 * 60, latestEnd(0) - 60);
+    }
+}
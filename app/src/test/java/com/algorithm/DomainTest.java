@@ -75,4 +75,89 @@ public class DomainTest {
         assertEquals(true, domainArrayList1.containsAll(domainArrayList2)
                 && domainArrayList2.containsAll(domainArrayList1));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testDomainIsSortedByStart() throws Exception {
+        d.initializeDomainSet(new Time(0, 0), new Time(2, 0), new Time(0, 45), new Time(1, 0));
+        // starts chained by duration from each step point: 0:00, 0:45, 1:00
+        assertEquals(3, d.size());
+        assertEquals(0, d.getStart(0));
+        assertEquals(45, d.getStart(1));
+        assertEquals(60, d.getStart(2));
+        assertEquals(105, d.getEnd(2));
+        assertEquals(new TimeSlice(new Time(0, 45), new Time(1, 30), true), d.getTimeSlice(1));
+    }
+
+    @Test
+    public void testLowerBound() throws Exception {
+        d.initializeDomainSet(new Time(0, 0), new Time(2, 0), new Time(0, 45), new Time(1, 0));
+        assertEquals(0, d.lowerBound(0));
+        assertEquals(1, d.lowerBound(1));
+        assertEquals(1, d.lowerBound(45));
+        assertEquals(2, d.lowerBound(46));
+        assertEquals(3, d.lowerBound(61));
+    }
+
+    @Test
+    public void testFirstEndingAfter() throws Exception {
+        // one hour slices starting every 15 minutes from 0:00 to 2:00
+        d.initializeDomainSet(new Time(0, 0), new Time(3, 0), new Time(1, 0), new Time(0, 15));
+        assertEquals(60, d.getDuration());
+        // slices overlapping [1:00, 1:30) start at 0:15 to 1:15
+        assertEquals(1, d.firstEndingAfter(60));
+        assertEquals(6, d.lowerBound(90));
+        assertEquals(0, d.firstEndingAfter(0));
+        assertEquals(d.size(), d.firstEndingAfter(180));
+    }
+
+    @Test
+    public void testEvenlySpacedDomain() throws Exception {
+        // the chains of one hour slices only reach starts at a step
+        d.initializeDomainSet(new Time(8, 0), new Time(12, 0), new Time(1, 0), new Time(0, 15));
+        assertEquals(true, d.isEvenlySpaced());
+        assertEquals(13, d.size());
+        assertEquals(8 * 60, d.getStart(0));
+        assertEquals(11 * 60, d.getStart(12));
+        assertEquals(12 * 60, d.getEnd(12));
+        assertEquals(0, d.lowerBound(0));
+        assertEquals(1, d.lowerBound(8 * 60 + 1));
+        assertEquals(1, d.lowerBound(8 * 60 + 15));
+        assertEquals(13, d.lowerBound(11 * 60 + 1));
+
+        Domain stored = new Domain();
+        // 45 minute chains add starts between the steps
+        stored.initializeDomainSet(new Time(8, 0), new Time(12, 0), new Time(0, 45),
+                new Time(1, 0));
+        assertEquals(false, stored.isEvenlySpaced());
+        // 8:00, 8:45, 9:00, 9:30, 9:45, 10:00, 10:15, 10:30, 10:45, 11:00, 11:15
+        assertEquals(11, stored.size());
+        assertEquals(9 * 60 + 30, stored.getStart(3));
+    }
+
+    @Test
+    public void testEmptyAndSingleDomains() throws Exception {
+        d.initializeDomainSet(new Time(8, 0), new Time(9, 0), new Time(1, 30), new Time(0, 5));
+        assertEquals(0, d.size());
+        assertEquals(0, d.lowerBound(0));
+
+        d.initializeDomainSet(new Time(8, 0), new Time(9, 0), new Time(1, 0), new Time(0, 5));
+        assertEquals(1, d.size());
+        assertEquals(new TimeSlice(new Time(8, 0), new Time(9, 0), true), d.getTimeSlice(0));
+    }
+
+    @Test
+    public void testEquals() throws Exception {
+        Domain evenlySpaced = new Domain();
+        evenlySpaced.initializeDomainSet(new Time(8, 0), new Time(9, 0), new Time(0, 30),
+                new Time(0, 10));
+        Domain same = new Domain();
+        same.initializeDomainSet(new Time(8, 0), new Time(9, 0), new Time(0, 30),
+                new Time(0, 10));
+        assertEquals(evenlySpaced, same);
+        assertEquals(evenlySpaced.hashCode(), same.hashCode());
+
+        Domain fixed = new Domain();
+        fixed.initializeDomainSet(new Time(8, 0), new Time(8, 30));
+        assertEquals(false, evenlySpaced.equals(fixed));
+    }
+}
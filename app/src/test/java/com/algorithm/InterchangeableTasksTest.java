@@ -0,0 +1,99 @@
+package com.algorithm;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class InterchangeableTasksTest {
+
+    @Test
+    public void testSameDurationAndConstraints() throws Exception {
+        CSP problem = new CSP(new Time(8, 0), new Time(18, 0));
+        problem.addFlexibleTask(new Time(1, 0)); // 0
+        problem.addFlexibleTask(new Time(1, 0)); // 1
+        problem.addFlexibleTask(new Time(0, 30)); // 2
+        problem.addFlexibleTask(new Time(1, 0)); // 3
+        problem.addFixedTask(new Time(12, 0), new Time(13, 0)); // 4
+        problem.addFlexibleTask(new Time(1, 0)); // 5
+        problem.createConstraintGraph();
+        problem.addConstraint(2, 0, 0);
+        problem.addConstraint(2, 1, 0);
+        problem.addConstraint(2, 5, 0);
+        problem.addConstraint(0, 4, 0);
+        problem.addConstraint(1, 4, 0);
+        problem.addConstraint(5, 4, 5);
+
+        // task 3 has no constraint, task 5 has another weight
+        List<int[]> groups = InterchangeableTasks.find(problem);
+        assertEquals(1, groups.size());
+        assertEquals(2, groups.get(0).length);
+        assertEquals(0, groups.get(0)[0]);
+        assertEquals(1, groups.get(0)[1]);
+    }
+
+    @Test
+    public void testConstrainedTasksNotInterchangeable() throws Exception {
+        CSP problem = new CSP(new Time(8, 0), new Time(18, 0));
+        problem.addFlexibleTask(new Time(1, 0)); // 0
+        problem.addFlexibleTask(new Time(1, 0)); // 1
+        problem.addFlexibleTask(new Time(1, 0)); // 2
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 1, 0);
+
+        assertEquals(0, InterchangeableTasks.find(problem).size());
+    }
+
+    @Test
+    public void testFixedTasksNotInterchangeable() throws Exception {
+        CSP problem = new CSP(new Time(8, 0), new Time(18, 0));
+        problem.addFixedTask(new Time(9, 0), new Time(10, 0)); // 0
+        problem.addFixedTask(new Time(11, 0), new Time(12, 0)); // 1
+        problem.addFlexibleTask(new Time(1, 0)); // 2
+        problem.addFlexibleTask(new Time(1, 0)); // 3
+        problem.addFlexibleTask(new Time(1, 0)); // 4
+        problem.createConstraintGraph();
+
+        List<int[]> groups = InterchangeableTasks.find(problem);
+        assertEquals(1, groups.size());
+        assertEquals(3, groups.get(0).length);
+        assertEquals(2, groups.get(0)[0]);
+        assertEquals(4, groups.get(0)[2]);
+    }
+
+    @Test
+    public void testMaxGapsMustMatch() throws Exception {
+        CSP problem = new CSP(new Time(8, 0), new Time(18, 0));
+        problem.addFlexibleTask(new Time(0, 30)); // 0
+        problem.addFlexibleTask(new Time(1, 0)); // 1
+        problem.addFlexibleTask(new Time(1, 0)); // 2
+        problem.addFlexibleTask(new Time(1, 0)); // 3
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 1, 10, 60);
+        problem.addConstraint(0, 2, 10);
+        problem.addConstraint(0, 3, 10, 60);
+
+        // task 2 may start any time after task 0
+        List<int[]> groups = InterchangeableTasks.find(problem);
+        assertEquals(1, groups.size());
+        assertEquals(2, groups.get(0).length);
+        assertEquals(1, groups.get(0)[0]);
+        assertEquals(3, groups.get(0)[1]);
+    }
+
+    @Test
+    public void testKeysMustMatch() throws Exception {
+        CSP problem = new CSP(new Time(8, 0), new Time(18, 0));
+        problem.addFlexibleTask(new Time(1, 0)); // 0
+        problem.addFlexibleTask(new Time(1, 0)); // 1
+        problem.addFlexibleTask(new Time(1, 0)); // 2
+        problem.createConstraintGraph();
+
+        List<int[]> groups = InterchangeableTasks.find(problem, new Object[]{"a", "b", "a"});
+        assertEquals(1, groups.size());
+        assertEquals(2, groups.get(0).length);
+        assertEquals(0, groups.get(0)[0]);
+        assertEquals(2, groups.get(0)[1]);
+    }
+}
@@ -0,0 +1,64 @@
+package com.algorithm;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class NogoodStoreTest {
+
+    @Test
+    public void testFindViolated() throws Exception {
+        NogoodStore store = new NogoodStore(4, 2);
+        // task 2 was assigned last
+        store.add(new int[]{2, 0}, new int[]{540, 480}, 2);
+        boolean[] assigned = {true, false, true};
+        int[] starts = {480, 0, 540};
+        assertEquals(0, store.findViolated(2, assigned, starts));
+        assertEquals(-1, store.findViolated(1, assigned, starts));
+        // nogoods are only looked up by the assignment made last
+        assertEquals(-1, store.findViolated(0, assigned, starts));
+
+        starts[2] = 545;
+        assertEquals(-1, store.findViolated(2, assigned, starts));
+        starts[2] = 540;
+        assigned[0] = false;
+        assertEquals(-1, store.findViolated(2, assigned, starts));
+    }
+
+    @Test
+    public void testTooLongNogoodIsDropped() throws Exception {
+        NogoodStore store = new NogoodStore(4, 2);
+        store.add(new int[]{0, 1, 2}, new int[]{480, 500, 540}, 3);
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testManyNogoods() throws Exception {
+        NogoodStore store = new NogoodStore(64, 2);
+        boolean[] assigned = {true, true};
+        for (int start = 0; start < 64; start++) {
+            store.add(new int[]{1, 0}, new int[]{start, 480}, 2);
+        }
+        for (int start = 0; start < 64; start++) {
+            assertEquals(start, store.findViolated(1, assigned, new int[]{480, start}));
+            assertEquals(-1, store.findViolated(1, assigned, new int[]{485, start}));
+        }
+    }
+
+    @Test
+    public void testOldestNogoodIsReplaced() throws Exception {
+        NogoodStore store = new NogoodStore(2, 1);
+        boolean[] assigned = {true, true};
+        store.add(new int[]{0}, new int[]{480}, 1);
+        store.add(new int[]{1}, new int[]{500}, 1);
+        store.add(new int[]{1}, new int[]{520}, 1);
+        assertEquals(2, store.size());
+        assertEquals(-1, store.findViolated(0, assigned, new int[]{480, 0}));
+        assertEquals(true, store.findViolated(1, assigned, new int[]{0, 500}) >= 0);
+        assertEquals(true, store.findViolated(1, assigned, new int[]{0, 520}) >= 0);
+
+        store.clear();
+        assertEquals(0, store.size());
+        assertEquals(-1, store.findViolated(1, assigned, new int[]{0, 500}));
+    }
+}
@@ -0,0 +1,128 @@
+package com.algorithm;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class PortfolioSolverTest {
+    private CSP problem;
+
+    @Before
+    public void setUp() throws Exception {
+        problem = new CSP(new Time(1, 0), new Time(23, 0));
+        problem.addFixedTask(new Time(1, 30), new Time(2, 30)); // 0
+        problem.addFixedTask(new Time(3, 30), new Time(5, 30)); // 1
+        problem.addFixedTask(new Time(6, 30), new Time(12, 30)); // 2
+        problem.addFlexibleTask(new Time(5, 30)); // 3
+        problem.addFlexibleTask(new Time(1, 0)); // 4
+        problem.addFlexibleTask(new Time(0, 15)); // 5
+        problem.createConstraintGraph();
+        problem.addConstraint(5, 0, 0);
+        problem.addConstraint(4, 2, 0);
+    }
+
+    @Test
+    public void testDefaultPortfolio() throws Exception {
+        PortfolioSolver solver = new PortfolioSolver(problem);
+        List<List<TaskAssignment>> solutions = solver.getSolutions();
+        assertEquals(5, solutions.size());
+        assertEquals(5, new HashSet<List<TaskAssignment>>(solutions).size());
+        assertEquals(false, solver.isTruncated());
+        AlgorithmTestUtils.noOverLap(solutions);
+        AlgorithmTestUtils.checkConstraints(solutions, problem);
+    }
+
+    @Test
+    public void testConfigurations() throws Exception {
+        PortfolioSolver solver = new PortfolioSolver(problem, 10);
+        List<Time> steps = new ArrayList<Time>();
+        steps.add(new Time(0, 30));
+        steps.add(new Time(0, 5));
+        solver.addConfiguration(steps, new MinimumRemainingValuesOrdering(),
+                new LatestStartValueOrdering());
+        solver.addConfiguration(Collections.singletonList(new Time(0, 1)),
+                new WeightedDegreeOrdering(), new LeastConstrainingValueOrdering());
+        List<List<TaskAssignment>> solutions = solver.getSolutions();
+        assertEquals(10, solutions.size());
+        AlgorithmTestUtils.noOverLap(solutions);
+        AlgorithmTestUtils.checkConstraints(solutions, problem);
+    }
+
+    @Test
+    public void testExhaustivePortfolioFindsSameSolutions() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(10, 0));
+        problem.addFlexibleTask(new Time(0, 45)); // 0
+        problem.addFlexibleTask(new Time(1, 0)); // 1
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 1, 0);
+
+        List<List<TaskAssignment>> expected = new CSP_Solver(problem, 100000).getSolutions();
+        List<List<TaskAssignment>> solutions = new PortfolioSolver(problem, 100000).getSolutions();
+        assertEquals(new HashSet<List<TaskAssignment>>(expected),
+                new HashSet<List<TaskAssignment>>(solutions));
+    }
+
+    @Test
+    public void testUnsatisfiable() throws Exception {
+        problem = new CSP(new Time(1, 0), new Time(23, 0));
+        problem.addFixedTask(new Time(1, 0), new Time(12, 0));
+        problem.addFixedTask(new Time(13, 45), new Time(22, 30));
+        problem.addFlexibleTask(new Time(1, 0));
+        problem.createConstraintGraph();
+        problem.addConstraint(1, 2, 0);
+        assertEquals(true, new PortfolioSolver(problem).getSolutions().isEmpty());
+    }
+
+    @Test
+    public void testTimeBudget() throws Exception {
+        // many short tasks which only fit at the 1 minute step
+        problem = new CSP(new Time(8, 0), new Time(20, 0));
+        for (int i = 0; i < 12; i++) {
+            problem.addFlexibleTask(new Time(0, 59));
+        }
+        problem.createConstraintGraph();
+        PortfolioSolver solver = new PortfolioSolver(problem, Integer.MAX_VALUE);
+        long start = System.currentTimeMillis();
+        List<List<TaskAssignment>> solutions = solver.getSolutions(50);
+        long elapsed = System.currentTimeMillis() - start;
+        assertEquals(true, solver.isTruncated());
+        assertEquals(true, elapsed < 2000);
+        AlgorithmTestUtils.noOverLap(solutions);
+    }
+
+    @Test
+    public void testCancelledBeforeSearch() throws Exception {
+        PortfolioSolver solver = new PortfolioSolver(problem);
+        solver.cancel();
+        assertEquals(true, solver.getSolutions().isEmpty());
+        assertEquals(true, solver.isTruncated());
+    }
+
+    @Test
+    public void testSolversShareLargeGraph() throws Exception {
+        // every solver reads the constraint graph of the problem at the same time
+        problem = new CSP(new Time(8, 0), new Time(12, 0));
+        for (int i = 0; i < 6; i++) {
+            problem.addFlexibleTask(new Time(0, 15));
+        }
+        problem.createConstraintGraph();
+        for (int weight = 0; weight < 20000; weight++) {
+            // negative weights count as no gap
+            problem.addConstraint(weight % 5, 5, -weight);
+        }
+        PortfolioSolver solver = new PortfolioSolver(problem, 10);
+        for (int i = 0; i < 8; i++) {
+            solver.addConfiguration(Collections.singletonList(new Time(0, 15)),
+                    new TopologicalOrdering(), new EarliestStartValueOrdering());
+        }
+        List<List<TaskAssignment>> solutions = solver.getSolutions();
+        assertEquals(10, solutions.size());
+        AlgorithmTestUtils.checkConstraints(solutions, problem);
+    }
+}
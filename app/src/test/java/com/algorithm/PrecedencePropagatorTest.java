@@ -0,0 +1,106 @@
+package com.algorithm;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PrecedencePropagatorTest {
+    private Domain[] taskDomains;
+    private BitDomain[] domains;
+    private DomainTrail trail;
+    private boolean[] assigned;
+    private int[] assignedStart;
+    private int[] assignedEnd;
+    private PrecedencePropagator propagator;
+
+    @Before
+    public void setUp() throws Exception {
+        // task 0 -> task 1 -> task 2, one hour each, starts every hour from 0:00 to 4:00
+        taskDomains = new Domain[3];
+        domains = new BitDomain[3];
+        for (int i = 0; i < 3; i++) {
+            taskDomains[i] = new Domain();
+            taskDomains[i].initializeDomainSet(new Time(0, 0), new Time(5, 0), new Time(1, 0),
+                    new Time(1, 0));
+            domains[i] = new BitDomain(taskDomains[i].size());
+        }
+        trail = new DomainTrail();
+        assigned = new boolean[3];
+        assignedStart = new int[3];
+        assignedEnd = new int[3];
+        int[][] successors = {{1}, {2}, {}};
+        propagator = new PrecedencePropagator(
+                AlgorithmTestUtils.precedenceNetwork(successors, taskDomains), taskDomains, domains,
+                trail, assigned, assignedStart);
+    }
+
+    @Test
+    public void testPropagateAll() throws Exception {
+        propagator.enqueueAll();
+        assertEquals(-1, propagator.propagate());
+        // task 0 can start at 0:00 to 2:00, task 1 at 1:00 to 3:00, task 2 at 2:00 to 4:00
+        assertEquals(3, domains[0].count());
+        assertEquals(0, domains[0].nextAvailable(0));
+        assertEquals(2, domains[0].prevAvailable(4));
+        assertEquals(1, domains[1].nextAvailable(0));
+        assertEquals(3, domains[1].prevAvailable(4));
+        assertEquals(2, domains[2].nextAvailable(0));
+        assertEquals(4, domains[2].prevAvailable(4));
+    }
+
+    @Test
+    public void testAssignedTaskBounds() throws Exception {
+        int mark = trail.mark();
+        assigned[0] = true;
+        assignedStart[0] = 120;
+        assignedEnd[0] = 180;
+        propagator.enqueue(0);
+        assertEquals(-1, propagator.propagate());
+        assertEquals(3, domains[1].nextAvailable(0));
+        assertEquals(1, domains[1].count());
+        assertEquals(4, domains[2].nextAvailable(0));
+
+        trail.undoTo(mark, domains);
+        assertEquals(5, domains[1].count());
+        assertEquals(5, domains[2].count());
+    }
+
+    @Test
+    public void testWipeout() throws Exception {
+        assigned[0] = true;
+        assignedStart[0] = 180;
+        assignedEnd[0] = 240;
+        propagator.enqueue(0);
+        // task 1 has to start at 4:00, leaving no time for task 2
+        assertEquals(2, propagator.propagate());
+
+        // the queue is empty again after a wipe-out
+        assertEquals(-1, propagator.propagate());
+    }
+
+    @Test
+    public void testGaps() throws Exception {
+        // task 1 starts exactly one hour after task 0 ends
+        TemporalNetwork network = new TemporalNetwork(3);
+        network.addEdge(0, 1, 60 + 60);
+        network.addEdge(1, 0, -(60 + 60));
+        propagator = new PrecedencePropagator(network, taskDomains, domains, trail, assigned,
+                assignedStart);
+        propagator.enqueueAll();
+        assertEquals(-1, propagator.propagate());
+        assertEquals(0, domains[0].nextAvailable(0));
+        assertEquals(2, domains[0].prevAvailable(4));
+        assertEquals(2, domains[1].nextAvailable(0));
+        assertEquals(4, domains[1].prevAvailable(4));
+        assertEquals(5, domains[2].count());
+
+        assigned[0] = true;
+        assignedStart[0] = 60;
+        assignedEnd[0] = 120;
+        propagator.enqueue(0);
+        assertEquals(-1, propagator.propagate());
+        assertEquals(1, domains[1].count());
+        assertEquals(3, domains[1].nextAvailable(0));
+    }
+}
@@ -0,0 +1,115 @@
+package com.algorithm;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ScheduleObjectiveTest {
+    private CSP problem;
+    // every solution of problem, to find the best cost by brute force
+    private List<List<TaskAssignment>> allSolutions;
+
+    @Before
+    public void setUp() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(11, 0));
+        problem.addFlexibleTask(new Time(0, 30)); // 0
+        problem.addFixedTask(new Time(9, 0), new Time(9, 40)); // 1
+        problem.addFlexibleTask(new Time(0, 45)); // 2
+        problem.addFlexibleTask(new Time(0, 20)); // 3
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 2, 0);
+        allSolutions = new CSP_Solver(problem, Integer.MAX_VALUE).getSolutions();
+    }
+
+    private long lowestCost(CSP_Solver solver, ScheduleObjective objective) {
+        long lowest = Long.MAX_VALUE;
+        for (List<TaskAssignment> solution : allSolutions) {
+            lowest = Math.min(lowest, cost(solver, objective, solution));
+        }
+        return lowest;
+    }
+
+    // evaluate objective for solution through a solver holding it as its assignment
+    private long cost(CSP_Solver solver, ScheduleObjective objective,
+                      List<TaskAssignment> solution) {
+        int[] starts = new int[solution.size()];
+        int[] ends = new int[solution.size()];
+        for (TaskAssignment assignment : solution) {
+            starts[assignment.getTaskId()] = assignment.getAssignment().getStartTime().toMinutes();
+            ends[assignment.getTaskId()] = assignment.getAssignment().getEndTime().toMinutes();
+        }
+        return objective.evaluate(new AssignedSolver(problem, starts, ends));
+    }
+
+    // a solver whose assignment is given, for evaluating objectives
+    private static class AssignedSolver extends CSP_Solver {
+        private final int[] starts;
+        private final int[] ends;
+
+        AssignedSolver(CSP problem, int[] starts, int[] ends) {
+            super(problem);
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        int getAssignedStart(int id) {
+            return starts[id];
+        }
+
+        int getAssignedEnd(int id) {
+            return ends[id];
+        }
+
+        boolean isAssigned(int id) {
+            return true;
+        }
+    }
+
+    private void checkBest(ScheduleObjective objective) {
+        CSP_Solver solver = new CSP_Solver(problem);
+        List<TaskAssignment> best = solver.getBestSolution(objective);
+        assertEquals(true, best != null);
+        List<List<TaskAssignment>> bestList = new java.util.ArrayList<List<TaskAssignment>>();
+        bestList.add(best);
+        AlgorithmTestUtils.noOverLap(bestList);
+        AlgorithmTestUtils.checkConstraints(bestList, problem);
+        objective.initialize(solver);
+        assertEquals(lowestCost(solver, objective), cost(solver, objective, best));
+    }
+
+    @Test
+    public void testFinishEarliest() throws Exception {
+        checkBest(new FinishEarliestObjective());
+    }
+
+    @Test
+    public void testIdleGap() throws Exception {
+        checkBest(new IdleGapObjective());
+    }
+
+    @Test
+    public void testCategoryClustering() throws Exception {
+        checkBest(new CategoryClusteringObjective(new int[]{0, 1, 0, 1}));
+    }
+
+    @Test
+    public void testFinishEarliestCost() throws Exception {
+        List<TaskAssignment> best = new CSP_Solver(problem)
+                .getBestSolution(new FinishEarliestObjective());
+        // tasks 0 and 3 fit before the fixed task, task 2 ends 45 minutes after it
+        assertEquals(10 * 60 + 25, best.get(best.size() - 1).getAssignment().getEndTime()
+                .toMinutes());
+    }
+
+    @Test
+    public void testNoSolution() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(12, 0));
+        problem.addFixedTask(new Time(8, 0), new Time(11, 30)); // 0
+        problem.addFlexibleTask(new Time(1, 0)); // 1
+        problem.createConstraintGraph();
+        assertEquals(null, new CSP_Solver(problem).getBestSolution(new IdleGapObjective()));
+    }
+}
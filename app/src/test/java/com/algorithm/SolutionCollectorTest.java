@@ -0,0 +1,80 @@
+package com.algorithm;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SolutionCollectorTest {
+
+    private List<TaskAssignment> solution(int startHour) {
+        List<TaskAssignment> solution = new ArrayList<TaskAssignment>();
+        solution.add(new TaskAssignment(0, new TimeSlice(new Time(startHour, 0),
+                new Time(startHour + 1, 0), true)));
+        return solution;
+    }
+
+    @Test
+    public void testDropsDuplicates() throws Exception {
+        SolutionCollector collector = new SolutionCollector(5);
+        List<List<TaskAssignment>> solutions = collector.getSolutions();
+        assertEquals(true, collector.add(solution(8)));
+        assertEquals(false, collector.add(solution(8)));
+        assertEquals(true, collector.add(solution(9)));
+        assertEquals(2, collector.size());
+        assertEquals(2, solutions.size());
+        assertEquals(false, collector.isFull());
+    }
+
+    @Test
+    public void testStopsAtMaxCount() throws Exception {
+        SolutionCollector collector = new SolutionCollector(2);
+        List<List<TaskAssignment>> solutions = collector.getSolutions();
+        collector.add(solution(8));
+        collector.add(solution(9));
+        assertEquals(true, collector.isFull());
+        assertEquals(false, collector.add(solution(10)));
+        assertEquals(2, solutions.size());
+    }
+
+    @Test
+    public void testConcurrentAdds() throws Exception {
+        final SolutionCollector collector = new SolutionCollector(10);
+        List<List<TaskAssignment>> solutions = collector.getSolutions();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    for (int hour = 0; hour < 20; hour++) {
+                        collector.add(solution(hour));
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(10, solutions.size());
+    }
+
+    @Test
+    public void testAddMinutes() throws Exception {
+        SolutionCollector collector = new SolutionCollector(200);
+        for (int start = 0; start < 300; start++) {
+            collector.add(new int[]{start, 600}, new int[]{start + 30, 660});
+            assertEquals(null, collector.add(new int[]{start, 600}, new int[]{start + 30, 660}));
+        }
+        assertEquals(200, collector.size());
+        assertEquals(true, collector.isFull());
+
+        // solutions are sorted by start time
+        List<TaskAssignment> first = collector.getSolutions().get(0);
+        assertEquals(0, first.get(0).getTaskId());
+        assertEquals(0, first.get(0).getAssignment().getStartTime().toMinutes());
+        assertEquals(30, first.get(0).getAssignment().getEndTime().toMinutes());
+        assertEquals(1, first.get(1).getTaskId());
+    }
+}
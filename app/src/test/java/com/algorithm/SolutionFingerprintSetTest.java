@@ -0,0 +1,43 @@
+package com.algorithm;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SolutionFingerprintSetTest {
+
+    @Test
+    public void testAddAndContains() throws Exception {
+        SolutionFingerprintSet set = new SolutionFingerprintSet(3);
+        int[] starts = {480, 540, 600};
+        assertEquals(false, set.contains(starts));
+        assertEquals(true, set.add(starts));
+        assertEquals(true, set.contains(new int[]{480, 540, 600}));
+        assertEquals(false, set.add(new int[]{480, 540, 600}));
+        assertEquals(false, set.contains(new int[]{540, 480, 600}));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    public void testFingerprintIsCopied() throws Exception {
+        SolutionFingerprintSet set = new SolutionFingerprintSet(2);
+        int[] starts = {60, 120};
+        set.add(starts);
+        starts[0] = 61;
+        assertEquals(false, set.contains(starts));
+        assertEquals(true, set.contains(new int[]{60, 120}));
+    }
+
+    @Test
+    public void testGrow() throws Exception {
+        SolutionFingerprintSet set = new SolutionFingerprintSet(2);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(true, set.add(new int[]{i, 1000 - i}));
+        }
+        assertEquals(1000, set.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(true, set.contains(new int[]{i, 1000 - i}));
+            assertEquals(false, set.contains(new int[]{i, 1001 - i}));
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.algorithm;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
+public class SolverSessionTest {
+
+    private static TimeSlice getSlice(List<TaskAssignment> solution, int key) {
+        for (TaskAssignment assignment : solution) {
+            if (assignment.getTaskId() == key) {
+                return assignment.getAssignment();
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testSameSolutionsAsNewSolver() throws Exception {
+        SolverSession session = new SolverSession(new Time(8, 0), new Time(12, 0));
+        int a = session.addFlexibleTask(new Time(1, 0));
+        int b = session.addFixedTask(new Time(9, 0), new Time(10, 0));
+        int c = session.addFlexibleTask(new Time(0, 30));
+        session.addConstraint(a, c, 0);
+
+        CSP problem = new CSP(new Time(8, 0), new Time(12, 0));
+        problem.addFlexibleTask(new Time(1, 0));
+        problem.addFixedTask(new Time(9, 0), new Time(10, 0));
+        problem.addFlexibleTask(new Time(0, 30));
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 2, 0);
+
+        assertEquals(0, a);
+        assertEquals(1, b);
+        assertEquals(new CSP_Solver(problem).getSolutions(), session.getSolutions());
+    }
+
+    @Test
+    public void testGapConstraint() throws Exception {
+        SolverSession session = new SolverSession(new Time(8, 0), new Time(12, 0), 1000);
+        int a = session.addFlexibleTask(new Time(1, 0));
+        int b = session.addFlexibleTask(new Time(0, 30));
+        session.addConstraint(a, b, 15, 45);
+
+        CSP problem = new CSP(new Time(8, 0), new Time(12, 0));
+        problem.addFlexibleTask(new Time(1, 0));
+        problem.addFlexibleTask(new Time(0, 30));
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 1, 15, 45);
+        List<List<TaskAssignment>> solutions = session.getSolutions();
+        assertEquals(new CSP_Solver(problem, 1000).getSolutions(), solutions);
+        AlgorithmTestUtils.checkConstraints(solutions, problem);
+
+        // a tighter max gap keeps only the solutions which still meet it
+        session.addConstraint(a, b, 15, 15);
+        for (List<TaskAssignment> solution : session.getSolutions()) {
+            assertEquals(getSlice(solution, a).getEndTime().toMinutes() + 15,
+                    getSlice(solution, b).getStartTime().toMinutes());
+        }
+        assertEquals(true, session.getSolutions().size() > 0);
+        assertEquals(true, session.getSolutions().size() < solutions.size());
+    }
+
+    @Test
+    public void testUnchangedDayIsNotSolvedAgain() throws Exception {
+        SolverSession session = new SolverSession(new Time(8, 0), new Time(12, 0));
+        session.addFlexibleTask(new Time(1, 0));
+        List<List<TaskAssignment>> solutions = session.getSolutions();
+        assertEquals(true, solutions == session.getSolutions());
+    }
+
+    @Test
+    public void testRemoveTaskKeepsSolutions() throws Exception {
+        SolverSession session = new SolverSession(new Time(8, 0), new Time(12, 0));
+        int a = session.addFlexibleTask(new Time(1, 0));
+        int b = session.addFlexibleTask(new Time(0, 45));
+        int c = session.addFlexibleTask(new Time(0, 30));
+        session.addConstraint(a, b, 0);
+        List<List<TaskAssignment>> before = session.getSolutions();
+        assertEquals(5, before.size());
+
+        session.removeTask(c);
+        List<List<TaskAssignment>> after = session.getSolutions();
+        assertEquals(5, after.size());
+        assertEquals(5, new HashSet<List<TaskAssignment>>(after).size());
+        for (int i = 0; i < 5; i++) {
+            // the schedule of the remaining tasks is unchanged
+            assertEquals(getSlice(before.get(i), a), getSlice(after.get(i), a));
+            assertEquals(getSlice(before.get(i), b), getSlice(after.get(i), b));
+            assertEquals(null, getSlice(after.get(i), c));
+        }
+    }
+
+    @Test
+    public void testChangedTaskIsSolvedAgain() throws Exception {
+        SolverSession session = new SolverSession(new Time(8, 0), new Time(12, 0));
+        int a = session.addFlexibleTask(new Time(1, 0));
+        int b = session.addFlexibleTask(new Time(0, 45));
+        session.getSolutions();
+
+        session.changeFlexibleTask(a, new Time(2, 0));
+        session.addConstraint(b, a, 0);
+        List<List<TaskAssignment>> solutions = session.getSolutions();
+        assertEquals(5, solutions.size());
+        for (List<TaskAssignment> solution : solutions) {
+            TimeSlice sliceA = getSlice(solution, a);
+            assertEquals(120, sliceA.getEndTime().toMinutes() - sliceA.getStartTime().toMinutes());
+            assertEquals(true, getSlice(solution, b).isBefore(sliceA));
+        }
+
+        session.removeConstraint(b, a, 0);
+        session.changeFixedTask(b, new Time(8, 0), new Time(9, 0));
+        solutions = session.getSolutions();
+        for (List<TaskAssignment> solution : solutions) {
+            assertEquals(new TimeSlice(new Time(8, 0), new Time(9, 0), true),
+                    getSlice(solution, b));
+        }
+    }
+
+    @Test
+    public void testDomainsAreReused() throws Exception {
+        SolverSession session = new SolverSession(new Time(8, 0), new Time(12, 0));
+        int a = session.addFlexibleTask(new Time(1, 0));
+        session.addFlexibleTask(new Time(1, 0));
+        session.getSolutions();
+        int count = session.getCachedDomainCount();
+
+        session.addFlexibleTask(new Time(1, 0));
+        session.addConstraint(a, 2, 0);
+        session.getSolutions();
+        assertEquals(count, session.getCachedDomainCount());
+    }
+
+    @Test
+    public void testOvertimeAndEmptyDay() throws Exception {
+        SolverSession session = new SolverSession(new Time(8, 0), new Time(9, 0));
+        assertEquals(0, session.getSolutions().size());
+        int a = session.addFlexibleTask(new Time(0, 40));
+        int b = session.addFlexibleTask(new Time(0, 40));
+        assertEquals(true, session.isOvertime());
+        assertEquals(0, session.getSolutions().size());
+
+        session.removeTask(b);
+        assertEquals(false, session.isOvertime());
+        assertEquals(true, session.getSolutions().size() > 0);
+        session.removeTask(a);
+        assertEquals(0, session.getSolutions().size());
+    }
+
+    @Test
+    public void testRandomEditsSameSolutionsAsNewSolver() throws Exception {
+        // after the edits the day kept by the session has the solutions of the day made anew;
+        // tasks are {fixed, duration, start} and constraints {key1, key2, min gap, max gap}
+        Random random = new Random(11);
+        List<Time> steps = Arrays.asList(new Time(0, 30));
+        SolverSession session = new SolverSession(new Time(8, 0), new Time(11, 0), 100000);
+        session.setStepList(steps);
+        Map<Integer, int[]> tasks = new TreeMap<Integer, int[]>();
+        List<int[]> constraints = new ArrayList<int[]>();
+        for (int edit = 0; edit < 150; edit++) {
+            List<Integer> keys = new ArrayList<Integer>(tasks.keySet());
+            int action = keys.size() < 2 ? 0 : random.nextInt(6);
+            int key1 = keys.isEmpty() ? -1 : keys.get(random.nextInt(keys.size()));
+            int key2 = keys.isEmpty() ? -1 : keys.get(random.nextInt(keys.size()));
+            int duration = 30 * (1 + random.nextInt(2));
+            if (action == 0 && keys.size() < 4) {
+                if (random.nextInt(4) == 0) {
+                    int start = 8 * 60 + 30 * random.nextInt(5);
+                    tasks.put(session.addFixedTask(Time.fromMinutes(start),
+                            Time.fromMinutes(start + 30)), new int[]{1, 30, start});
+                } else {
+                    tasks.put(session.addFlexibleTask(Time.fromMinutes(duration)),
+                            new int[]{0, duration, 0});
+                }
+            } else if (action == 1) {
+                session.removeTask(key1);
+                tasks.remove(key1);
+                for (int i = constraints.size() - 1; i >= 0; i--) {
+                    if (constraints.get(i)[0] == key1 || constraints.get(i)[1] == key1) {
+                        constraints.remove(i);
+                    }
+                }
+            } else if (action == 2 && tasks.get(key1)[0] == 0) {
+                session.changeFlexibleTask(key1, Time.fromMinutes(duration));
+                tasks.put(key1, new int[]{0, duration, 0});
+            } else if (action == 3 && key1 != key2) {
+                int minGap = 30 * random.nextInt(2);
+                int maxGap = random.nextInt(3) == 0 ? minGap + 30 * random.nextInt(2) : -1;
+                if (maxGap < 0) {
+                    session.addConstraint(key1, key2, minGap);
+                } else {
+                    session.addConstraint(key1, key2, minGap, maxGap);
+                }
+                int[] constraint = null;
+                for (int[] other : constraints) {
+                    if (other[0] == key1 && other[1] == key2 && other[2] == minGap) {
+                        constraint = other;
+                    }
+                }
+                if (constraint == null) {
+                    constraints.add(new int[]{key1, key2, minGap, maxGap});
+                } else if (maxGap >= 0) {
+                    constraint[3] = maxGap;
+                }
+            } else if (action >= 4) {
+                for (int i = constraints.size() - 1; i >= 0; i--) {
+                    if (constraints.get(i)[0] == key1 && constraints.get(i)[1] == key2) {
+                        session.removeConstraint(key1, key2, constraints.get(i)[2]);
+                        constraints.remove(i);
+                    }
+                }
+            }
+            if (edit % 3 == 0) {
+                assertEquals(newSolutions(tasks, constraints, steps),
+                        toStrings(session.getSolutions()));
+            }
+        }
+    }
+
+    // the solutions of the day made anew, as by toStrings()
+    private static Set<String> newSolutions(Map<Integer, int[]> tasks, List<int[]> constraints,
+                                            List<Time> steps) {
+        CSP problem = new CSP(new Time(8, 0), new Time(11, 0));
+        Map<Integer, Integer> ids = new TreeMap<Integer, Integer>();
+        for (Map.Entry<Integer, int[]> entry : tasks.entrySet()) {
+            int[] task = entry.getValue();
+            if (task[0] == 1) {
+                problem.addFixedTask(Time.fromMinutes(task[2]),
+                        Time.fromMinutes(task[2] + task[1]));
+            } else {
+                problem.addFlexibleTask(Time.fromMinutes(task[1]));
+            }
+            ids.put(entry.getKey(), ids.size());
+        }
+        problem.createConstraintGraph();
+        for (int[] constraint : constraints) {
+            if (constraint[3] < 0) {
+                problem.addConstraint(ids.get(constraint[0]), ids.get(constraint[1]),
+                        constraint[2]);
+            } else {
+                problem.addConstraint(ids.get(constraint[0]), ids.get(constraint[1]),
+                        constraint[2], constraint[3]);
+            }
+        }
+        if (tasks.isEmpty()) {
+            return new HashSet<String>();
+        }
+        CSP_Solver solver = new CSP_Solver(problem, 100000);
+        solver.setStepList(steps);
+        List<Integer> keys = new ArrayList<Integer>(ids.keySet());
+        List<List<TaskAssignment>> solutions = new ArrayList<List<TaskAssignment>>();
+        for (List<TaskAssignment> solution : solver.getSolutions()) {
+            List<TaskAssignment> renamed = new ArrayList<TaskAssignment>();
+            for (TaskAssignment assignment : solution) {
+                renamed.add(new TaskAssignment(keys.get(assignment.getTaskId()),
+                        assignment.getAssignment()));
+            }
+            solutions.add(renamed);
+        }
+        return toStrings(solutions);
+    }
+
+    // each solution as "key start end" of its tasks in ascending order of key
+    private static Set<String> toStrings(List<List<TaskAssignment>> solutions) {
+        Set<String> strings = new HashSet<String>();
+        for (List<TaskAssignment> solution : solutions) {
+            Map<Integer, String> slices = new TreeMap<Integer, String>();
+            for (TaskAssignment assignment : solution) {
+                slices.put(assignment.getTaskId(),
+                        assignment.getAssignment().getStartTime().toMinutes() + " "
+                                + assignment.getAssignment().getEndTime().toMinutes());
+            }
+            assertEquals(false, strings.contains(slices.toString()));
+            strings.add(slices.toString());
+        }
+        return strings;
+    }
+
+    @Test
+    public void testKnownDomainsKeptUntilRelaxed() throws Exception {
+        SolverSession session = new SolverSession(new Time(8, 0), new Time(12, 0));
+        session.setStepList(Arrays.asList(new Time(0, 30)));
+        int a = session.addFlexibleTask(new Time(1, 0));
+        int b = session.addFlexibleTask(new Time(0, 30));
+        int c = session.addFlexibleTask(new Time(0, 30));
+        session.getSolutions();
+        assertEquals(3, session.getKnownDomainCount());
+
+        // a new constraint only makes its tasks be propagated again
+        session.addConstraint(a, b, 0);
+        assertEquals(false, session.isConstraintsConflict());
+        assertEquals(1, session.getKnownDomainCount());
+        session.getSolutions();
+        assertEquals(3, session.getKnownDomainCount());
+
+        // a removed constraint may widen the domains of every task
+        session.removeConstraint(a, b, 0);
+        assertEquals(false, session.isConstraintsConflict());
+        assertEquals(0, session.getKnownDomainCount());
+        session.addFlexibleTask(new Time(0, 30));
+        session.getSolutions();
+        assertEquals(4, session.getKnownDomainCount());
+        session.removeTask(c);
+        assertEquals(false, session.isConstraintsConflict());
+        assertEquals(0, session.getKnownDomainCount());
+    }
+
+    @Test
+    public void testBudgetedIteratorGoesOn() throws Exception {
+        SolverSession session = new SolverSession(new Time(8, 0), new Time(12, 0), 20);
+        int a = session.addFlexibleTask(new Time(1, 0));
+        int b = session.addFlexibleTask(new Time(0, 45));
+        session.addConstraint(a, b, 0);
+        List<List<TaskAssignment>> found = new ArrayList<List<TaskAssignment>>();
+        Iterator<List<TaskAssignment>> iterator = session.solutionIterator(0);
+        for (int pull = 0; pull < 100000; pull++) {
+            if (iterator.hasNext()) {
+                found.add(iterator.next());
+            } else if (!session.isTruncated()) {
+                break;
+            }
+        }
+        assertEquals(false, iterator.hasNext());
+        assertEquals(false, session.isTruncated());
+        assertEquals(20, found.size());
+        // the day is solved, so the solutions are not searched for again
+        assertEquals(found, session.getSolutions());
+
+        assertEquals(20, new HashSet<List<TaskAssignment>>(found).size());
+        AlgorithmTestUtils.noOverLap(found);
+        for (List<TaskAssignment> solution : found) {
+            assertEquals(true, getSlice(solution, a).isBefore(getSlice(solution, b)));
+        }
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testIteratorFailsAfterEdit() throws Exception {
+        SolverSession session = new SolverSession(new Time(8, 0), new Time(12, 0));
+        session.addFlexibleTask(new Time(1, 0));
+        Iterator<List<TaskAssignment>> iterator = session.solutionIterator(10000);
+        iterator.next();
+        session.addFlexibleTask(new Time(0, 30));
+        iterator.hasNext();
+    }
+
+    @Test
+    public void testSymmetryBreakingByEquivalenceKey() throws Exception {
+        SolverSession session = new SolverSession(new Time(8, 0), new Time(11, 0), 1000);
+        session.setStepList(Arrays.asList(new Time(0, 30)));
+        int a = session.addFlexibleTask(new Time(1, 0));
+        int b = session.addFlexibleTask(new Time(1, 0));
+        int all = session.getSolutions().size();
+
+        // tasks with different keys are not interchangeable
+        session.setSymmetryBreaking(true);
+        session.setEquivalenceKey(a, "mail");
+        session.setEquivalenceKey(b, "call");
+        assertEquals(all, session.getSolutions().size());
+
+        session.setEquivalenceKey(b, "mail");
+        List<List<TaskAssignment>> solutions = session.getSolutions();
+        assertEquals(all, 2 * solutions.size());
+        for (List<TaskAssignment> solution : solutions) {
+            assertEquals(true, getSlice(solution, a).isBefore(getSlice(solution, b)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownKey() throws Exception {
+        SolverSession session = new SolverSession(new Time(8, 0), new Time(12, 0));
+        session.removeTask(3);
+    }
+}
@@ -0,0 +1,119 @@
+package com.algorithm;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SolverStatsTest {
+
+    private static CSP createProblem() {
+        CSP problem = new CSP(new Time(8, 0), new Time(12, 0));
+        problem.addFlexibleTask(new Time(1, 0)); // 0
+        problem.addFixedTask(new Time(9, 0), new Time(10, 0)); // 1
+        problem.addFlexibleTask(new Time(0, 30)); // 2
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 2, 0);
+        return problem;
+    }
+
+    /*
+     * records the calls of the listener
+     */
+    private static class RecordingListener implements SolverListener {
+        final List<Integer> steps = new ArrayList<Integer>();
+        int finished = 0;
+        SolverStats finishedStats;
+
+        public void onStepFinished(Time step, SolverStats stats) {
+            steps.add(step.toMinutes());
+        }
+
+        public void onSearchFinished(SolverStats stats) {
+            finished++;
+            finishedStats = stats;
+        }
+    }
+
+    @Test
+    public void testCounters() throws Exception {
+        CSP_Solver solver = new CSP_Solver(createProblem(), 1000);
+        List<List<TaskAssignment>> solutions = solver.getSolutions();
+        SolverStats stats = solver.getStats();
+        assertEquals(true, stats.getSolutions() >= solutions.size());
+        // the last task of every solution is assigned at a node of its own
+        assertEquals(true, stats.getNodes() >= stats.getSolutions());
+        assertEquals(true, stats.getBacktracks() > 0);
+        assertEquals(true, stats.getValuesPrunedByOverlap() > 0);
+        assertEquals(true, stats.getValuesPrunedByConsistency() > 0);
+        assertEquals(true, stats.getPeakDomainBytes() > 0);
+        assertEquals(stats.getTotalNanos(),
+                stats.getDomainNanos() + stats.getPropagationNanos() + stats.getSearchNanos());
+    }
+
+    @Test
+    public void testListener() throws Exception {
+        CSP_Solver solver = new CSP_Solver(createProblem(), 1000);
+        solver.setStepList(Arrays.asList(new Time(1, 0), new Time(0, 30)));
+        RecordingListener listener = new RecordingListener();
+        solver.setListener(listener);
+        solver.getSolutions();
+        assertEquals(Arrays.asList(60, 30), listener.steps);
+        assertEquals(1, listener.finished);
+        assertEquals(true, listener.finishedStats == solver.getStats());
+        assertEquals(Arrays.asList(60, 30),
+                new ArrayList<Integer>(solver.getStats().getStepNanos().keySet()));
+    }
+
+    @Test
+    public void testListenerOfIteratorAndBestSolution() throws Exception {
+        CSP_Solver solver = new CSP_Solver(createProblem());
+        solver.setStepList(Arrays.asList(new Time(0, 30)));
+        RecordingListener listener = new RecordingListener();
+        solver.setListener(listener);
+        Iterator<List<TaskAssignment>> iterator = solver.solutionIterator();
+        iterator.next();
+        assertEquals(0, listener.finished);
+        while (iterator.hasNext()) {
+            iterator.next();
+        }
+        assertEquals(1, listener.finished);
+
+        solver = new CSP_Solver(createProblem());
+        solver.setStepList(Arrays.asList(new Time(0, 30)));
+        listener = new RecordingListener();
+        solver.setListener(listener);
+        solver.getBestSolution(new FinishEarliestObjective());
+        assertEquals(Arrays.asList(30), listener.steps);
+        assertEquals(1, listener.finished);
+        assertEquals(true, solver.getStats().getNodes() > 0);
+    }
+
+    @Test
+    public void testParallelWorkersAreCounted() throws Exception {
+        CSP_Solver sequential = new CSP_Solver(createProblem(), 100000);
+        sequential.getSolutions();
+        CSP_Solver parallel = new CSP_Solver(createProblem(), 100000);
+        parallel.setParallelism(3);
+        parallel.getSolutions();
+        assertEquals(sequential.getStats().getSolutions(), parallel.getStats().getSolutions());
+        assertEquals(true, parallel.getStats().getNodes() >= parallel.getStats().getSolutions());
+    }
+
+    @Test
+    public void testNoSearch() throws Exception {
+        CSP problem = new CSP(new Time(8, 0), new Time(9, 0));
+        problem.createConstraintGraph();
+        CSP_Solver solver = new CSP_Solver(problem);
+        RecordingListener listener = new RecordingListener();
+        solver.setListener(listener);
+        assertEquals(0, solver.getSolutions().size());
+        assertEquals(1, listener.finished);
+        assertEquals(0L, solver.getStats().getNodes());
+        assertEquals(0L, solver.getStats().getTotalNanos());
+    }
+}
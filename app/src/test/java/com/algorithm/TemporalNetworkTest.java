@@ -0,0 +1,61 @@
+package com.algorithm;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TemporalNetworkTest {
+
+    @Test
+    public void testPrecedencesWithGap() throws Exception {
+        // task 0 (60 minutes) before task 1 with 15 minutes between, task 1 (30 minutes)
+        // before task 2, in a day from 0 to 240
+        TemporalNetwork network = new TemporalNetwork(3);
+        network.addEdge(0, 1, 60 + 15);
+        network.addEdge(1, 2, 30);
+        int[] earliestStart = {0, 0, 0};
+        int[] latestStart = {180, 210, 200};
+        assertEquals(true, network.tightenBounds(new int[]{0, 1, 2}, earliestStart, latestStart));
+        assertEquals(75, earliestStart[1]);
+        assertEquals(105, earliestStart[2]);
+        assertEquals(170, latestStart[1]);
+        assertEquals(95, latestStart[0]);
+    }
+
+    @Test
+    public void testMaxGapGoesBack() throws Exception {
+        // task 1 starts at most 30 minutes after task 0 (60 minutes) ends, and not before 200
+        TemporalNetwork network = new TemporalNetwork(2);
+        network.addEdge(0, 1, 60);
+        network.addEdge(1, 0, -(60 + 30));
+        int[] earliestStart = {0, 200};
+        int[] latestStart = {180, 210};
+        assertEquals(true, network.tightenBounds(new int[]{0, 1}, earliestStart, latestStart));
+        assertEquals(110, earliestStart[0]);
+        assertEquals(150, latestStart[0]);
+        assertEquals(200, earliestStart[1]);
+        assertEquals(210, latestStart[1]);
+    }
+
+    @Test
+    public void testGapsWhichCannotHold() throws Exception {
+        // task 1 starts at least 30 and at most 20 minutes after task 0 starts
+        TemporalNetwork network = new TemporalNetwork(2);
+        network.addEdge(0, 1, 30);
+        network.addEdge(1, 0, -20);
+        int[] earliestStart = {0, 0};
+        int[] latestStart = {1000, 1000};
+        assertEquals(false, network.tightenBounds(new int[]{0, 1}, earliestStart, latestStart));
+    }
+
+    @Test
+    public void testAddEdge() throws Exception {
+        TemporalNetwork network = new TemporalNetwork(2);
+        network.addEdge(0, 1, 60);
+        assertEquals(1, network.getSuccessors(0).length);
+        assertEquals(60, network.getSuccessorOffsets(0)[0]);
+        assertEquals(0, network.getPredecessors(1)[0]);
+        assertEquals(60, network.getPredecessorOffsets(1)[0]);
+        assertEquals(0, network.getSuccessors(1).length);
+    }
+}
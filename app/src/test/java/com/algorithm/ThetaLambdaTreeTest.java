@@ -0,0 +1,51 @@
+package com.algorithm;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ThetaLambdaTreeTest {
+    // task 0 from 0 for 5, task 1 from 2 for 3, task 2 from 10 for 1, sorted by start
+    private final int[] start = {0, 2, 10};
+    private final int[] duration = {5, 3, 1};
+    private final int[] order = {0, 1, 2};
+
+    @Test
+    public void testEarliestCompletionTime() throws Exception {
+        ThetaLambdaTree tree = new ThetaLambdaTree(3);
+        tree.reset(order, 3, start, duration, false);
+        assertEquals(ThetaLambdaTree.NEG_INF, tree.getEct());
+        tree.insert(1);
+        assertEquals(5, tree.getEct());
+        tree.insert(0);
+        // task 0 and task 1 one after the other from 0
+        assertEquals(8, tree.getEct());
+        tree.insert(2);
+        assertEquals(11, tree.getEct());
+        tree.remove(2);
+        tree.remove(0);
+        assertEquals(5, tree.getEct());
+    }
+
+    @Test
+    public void testGrayTask() throws Exception {
+        ThetaLambdaTree tree = new ThetaLambdaTree(3);
+        tree.reset(order, 3, start, duration, true);
+        tree.insertAll(order, 3);
+        assertEquals(11, tree.getEct());
+        assertEquals(-1, tree.getResponsible());
+
+        tree.gray(2);
+        assertEquals(8, tree.getEct());
+        assertEquals(11, tree.getEctBar());
+        assertEquals(2, tree.getResponsible());
+
+        tree.gray(0);
+        // task 1 alone ends at 5, with task 0 at 8, with task 2 at 11
+        assertEquals(5, tree.getEct());
+        assertEquals(11, tree.getEctBar());
+        tree.remove(2);
+        assertEquals(8, tree.getEctBar());
+        assertEquals(0, tree.getResponsible());
+    }
+}
@@ -80,4 +80,11 @@ public class TimeTest {
         assertEquals(false ,t1.equals(t3));
 
     }
+
+    @Test
+    public void testMinutes() throws Exception {
+        assertEquals(90, time.toMinutes());
+        assertEquals(time, Time.fromMinutes(90));
+        assertEquals(new Time(23, 59), Time.fromMinutes(23 * 60 + 59));
+    }
 }
\ No newline at end of file
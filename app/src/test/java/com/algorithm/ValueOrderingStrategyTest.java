@@ -0,0 +1,88 @@
+package com.algorithm;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ValueOrderingStrategyTest {
+    private CSP problem;
+
+    @Before
+    public void setUp() throws Exception {
+        problem = new CSP(new Time(8, 0), new Time(18, 0));
+        problem.addFlexibleTask(new Time(1, 0)); // 0
+        problem.addFixedTask(new Time(12, 0), new Time(13, 0)); // 1
+        problem.addFlexibleTask(new Time(2, 0)); // 2
+        problem.addFlexibleTask(new Time(0, 30)); // 3
+        problem.createConstraintGraph();
+        problem.addConstraint(0, 2, 0);
+    }
+
+    private List<List<TaskAssignment>> solve(ValueOrderingStrategy strategy) {
+        CSP_Solver solver = new CSP_Solver(problem);
+        solver.setValueOrderingStrategy(strategy);
+        List<List<TaskAssignment>> solutions = solver.getSolutions();
+        assertEquals(5, solutions.size());
+        AlgorithmTestUtils.noOverLap(solutions);
+        AlgorithmTestUtils.checkConstraints(solutions, problem);
+        return solutions;
+    }
+
+    private int startOf(List<TaskAssignment> solution, int id) {
+        for (TaskAssignment assignment : solution) {
+            if (assignment.getTaskId() == id) {
+                return assignment.getAssignment().getStartTime().toMinutes();
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void testEarliestStart() throws Exception {
+        List<List<TaskAssignment>> solutions = solve(new EarliestStartValueOrdering());
+        // the first solution starts the day with a flexible task
+        assertEquals(8 * 60, solutions.get(0).get(0).getAssignment().getStartTime().toMinutes());
+    }
+
+    @Test
+    public void testLatestStart() throws Exception {
+        List<List<TaskAssignment>> solutions = solve(new LatestStartValueOrdering());
+        List<TaskAssignment> first = solutions.get(0);
+        // the last task of the first solution finishes at the end of the day
+        assertEquals(18 * 60, first.get(first.size() - 1).getAssignment().getEndTime().toMinutes());
+    }
+
+    @Test
+    public void testLeastConstrainingValue() throws Exception {
+        solve(new LeastConstrainingValueOrdering());
+    }
+
+    @Test
+    public void testClosestToSolution() throws Exception {
+        List<TaskAssignment> previous = solve(new LatestStartValueOrdering()).get(2);
+        List<List<TaskAssignment>> solutions = solve(new ClosestToSolutionValueOrdering(previous));
+        for (int id = 0; id < 4; id++) {
+            assertEquals(startOf(previous, id), startOf(solutions.get(0), id));
+        }
+    }
+
+    @Test
+    public void testDeterministic() throws Exception {
+        assertEquals(solve(new LeastConstrainingValueOrdering()),
+                solve(new LeastConstrainingValueOrdering()));
+        assertEquals(solve(new EarliestStartValueOrdering()),
+                solve(new EarliestStartValueOrdering()));
+    }
+
+    @Test
+    public void testDomainOrder() throws Exception {
+        assertEquals(1, new EarliestStartValueOrdering().getDomainOrder());
+        assertEquals(-1, new LatestStartValueOrdering().getDomainOrder());
+        assertEquals(0, new LeastConstrainingValueOrdering().getDomainOrder());
+        assertEquals(0, new ClosestToSolutionValueOrdering(
+                new java.util.ArrayList<TaskAssignment>()).getDomainOrder());
+    }
+}
@@ -0,0 +1,86 @@
+package com.algorithm;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class VariableOrderingStrategyTest {
+    private CSP problem;
+
+    @Before
+    public void setUp() throws Exception {
+        problem = new CSP(new Time(1, 0), new Time(23, 0));
+        problem.addFixedTask(new Time(1, 30), new Time(2, 30)); // 0
+        problem.addFixedTask(new Time(3, 30), new Time(5, 30)); // 1
+        problem.addFixedTask(new Time(6, 30), new Time(12, 30)); // 2
+        problem.addFlexibleTask(new Time(5, 30)); // 3
+        problem.addFlexibleTask(new Time(1, 0)); // 4
+        problem.addFlexibleTask(new Time(0, 15)); // 5
+        problem.addFlexibleTask(new Time(0, 45)); // 6
+        problem.createConstraintGraph();
+        problem.addConstraint(5, 0, 0);
+        problem.addConstraint(4, 2, 0);
+        problem.addConstraint(6, 4, 0);
+    }
+
+    private void checkStrategy(VariableOrderingStrategy strategy) {
+        CSP_Solver solver = new CSP_Solver(problem);
+        solver.setVariableOrderingStrategy(strategy);
+        List<List<TaskAssignment>> solutions = solver.getSolutions();
+        assertEquals(5, solutions.size());
+        AlgorithmTestUtils.noOverLap(solutions);
+        AlgorithmTestUtils.checkConstraints(solutions, problem);
+    }
+
+    @Test
+    public void testTopologicalOrdering() throws Exception {
+        checkStrategy(new TopologicalOrdering());
+    }
+
+    @Test
+    public void testMinimumRemainingValuesOrdering() throws Exception {
+        checkStrategy(new MinimumRemainingValuesOrdering());
+    }
+
+    @Test
+    public void testMaxDegreeOrdering() throws Exception {
+        checkStrategy(new MaxDegreeOrdering());
+    }
+
+    @Test
+    public void testWeightedDegreeOrdering() throws Exception {
+        checkStrategy(new WeightedDegreeOrdering());
+    }
+
+    @Test
+    public void testUnsatisfiableWithEveryStrategy() throws Exception {
+        problem = new CSP(new Time(1, 0), new Time(23, 0));
+        problem.addFixedTask(new Time(1, 0), new Time(12, 0));
+        problem.addFixedTask(new Time(13, 45), new Time(22, 30));
+        problem.addFlexibleTask(new Time(1, 0));
+        problem.createConstraintGraph();
+        problem.addConstraint(1, 2, 0);
+        VariableOrderingStrategy[] strategies = {new TopologicalOrdering(),
+                new MinimumRemainingValuesOrdering(), new MaxDegreeOrdering(),
+                new WeightedDegreeOrdering()};
+        for (VariableOrderingStrategy strategy : strategies) {
+            CSP_Solver solver = new CSP_Solver(problem);
+            solver.setVariableOrderingStrategy(strategy);
+            assertEquals(true, solver.getSolutions().isEmpty());
+        }
+    }
+
+    @Test
+    public void testMinimumRemainingValuesPicksFixedTaskFirst() throws Exception {
+        CSP_Solver solver = new CSP_Solver(problem);
+        solver.domainInitializationForAllTasks(new Time(0, 15));
+        VariableOrderingStrategy strategy = new MinimumRemainingValuesOrdering();
+        strategy.initialize(solver, problem.getConstraints().GetTopologicalSort());
+        // fixed tasks have a single value; tasks 0 and 2 are the ones which are also constrained
+        int id = strategy.selectVariable(solver);
+        assertEquals(true, id == 0 || id == 2);
+    }
+}
@@ -0,0 +1,40 @@
+package com.algorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * Class DomainBenchmark is used to time building the domain of a flexible task.
+ */
+@State(Scope.Thread)
+public class DomainBenchmark {
+    @Param({"8", "12", "16"})
+    public int dayHours;
+    @Param({"15", "60", "120"})
+    public int durationMinutes;
+    @Param({"5", "15", "60"})
+    public int stepMinutes;
+
+    private Time dayStart;
+    private Time dayEnd;
+    private Time duration;
+    private Time step;
+
+    @Setup
+    public void setUp() {
+        dayStart = new Time(8, 0);
+        dayEnd = Time.fromMinutes(8 * 60 + dayHours * 60);
+        duration = Time.fromMinutes(durationMinutes);
+        step = Time.fromMinutes(stepMinutes);
+    }
+
+    @Benchmark
+    public Domain initializeDomainSet() {
+        Domain domain = new Domain();
+        domain.initializeDomainSet(dayStart, dayEnd, duration, step);
+        return domain;
+    }
+}
@@ -0,0 +1,45 @@
+package com.algorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/*
+ * Class GetSolutionsBenchmark is used to time getSolutions() as TasklistFragment calls it,
+ * with the steps of CSP_Solver.defaultStepList(), on days made by WorkloadGenerator.
+ */
+@State(Scope.Thread)
+public class GetSolutionsBenchmark {
+    @Param({"4", "8", "12"})
+    public int taskCount;
+    @Param({"0.0", "0.25"})
+    public double fixedFraction;
+    @Param({"NONE", "CHAIN", "LAYERED"})
+    public WorkloadGenerator.Shape shape;
+    @Param({"0.5", "0.8"})
+    public double tightness;
+    @Param({"12"})
+    public int dayHours;
+
+    private CSP problem;
+
+    @Setup
+    public void setUp() {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        generator.setDay(new Time(8, 0), Time.fromMinutes(8 * 60 + dayHours * 60));
+        generator.setTaskCount(taskCount);
+        generator.setFixedFraction(fixedFraction);
+        generator.setShape(shape);
+        generator.setTightness(tightness);
+        problem = generator.generate(42L).toCSP();
+    }
+
+    @Benchmark
+    public List<List<TaskAssignment>> getSolutions() {
+        return new CSP_Solver(problem).getSolutions();
+    }
+}
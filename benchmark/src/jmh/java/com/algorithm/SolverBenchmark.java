@@ -0,0 +1,81 @@
+package com.algorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Class SolverBenchmark is used to time the parts of the solver at a single step on
+ * days made by WorkloadGenerator: the pre-processing of the domains and the search.
+ */
+@State(Scope.Thread)
+public class SolverBenchmark {
+    @Param({"4", "8", "12"})
+    public int taskCount;
+    @Param({"0.0", "0.25"})
+    public double fixedFraction;
+    @Param({"NONE", "CHAIN", "LAYERED"})
+    public WorkloadGenerator.Shape shape;
+    @Param({"0.5", "0.8"})
+    public double tightness;
+    @Param({"12"})
+    public int dayHours;
+    @Param({"5", "15", "60"})
+    public int stepMinutes;
+
+    private CSP problem;
+    private Time step;
+
+    @Setup
+    public void setUp() {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        generator.setDay(new Time(8, 0), Time.fromMinutes(8 * 60 + dayHours * 60));
+        generator.setTaskCount(taskCount);
+        generator.setFixedFraction(fixedFraction);
+        generator.setShape(shape);
+        generator.setTightness(tightness);
+        problem = generator.generate(42L).toCSP();
+        step = Time.fromMinutes(stepMinutes);
+    }
+
+    /*
+     * a solver set up for the search, whose steps can be pre-processed again and again
+     */
+    @State(Scope.Thread)
+    public static class Prepared {
+        CSP_Solver solver;
+        Time step;
+
+        @Setup(Level.Trial)
+        public void setUp(SolverBenchmark benchmark) {
+            solver = new CSP_Solver(benchmark.problem);
+            step = benchmark.step;
+            solver.prepareSearch();
+        }
+    }
+
+    /*
+     * the pre-processing of one step as a whole: the domains are initialized, restricted to
+     * the start bounds and to the gaps between fixed tasks, and made consistent with the
+     * constraints. constraintConsistencyCheck() alone takes too little time to be timed
+     * without the set up of its domains distorting the result
+     */
+    @Benchmark
+    public boolean prepareStep(Prepared prepared) {
+        return prepared.solver.prepareStep(prepared.step);
+    }
+
+    // the search at one step, up to the default 5 solutions
+    @Benchmark
+    public List<List<TaskAssignment>> search() {
+        CSP_Solver solver = new CSP_Solver(problem);
+        solver.setStepList(Collections.singletonList(step));
+        return solver.getSolutions();
+    }
+}
@@ -0,0 +1,160 @@
+package com.algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Class ProblemInstance is used to describe a generated scheduling problem independently of
+ * CSP, so that it can be exported, read by other tools and turned into a CSP again.
+ * Times are minutes since midnight. Task i of the instance becomes task i of the CSP.
+ */
+class ProblemInstance {
+    private final long seed;
+    private final int dayStart;
+    private final int dayEnd;
+    // start of each task, -1 for a flexible task
+    private final List<Integer> starts;
+    private final List<Integer> durations;
+    // constraints as {task before, task after}
+    private final List<int[]> constraints;
+
+    ProblemInstance(long seed, int dayStart, int dayEnd) {
+        this.seed = seed;
+        this.dayStart = dayStart;
+        this.dayEnd = dayEnd;
+        starts = new ArrayList<Integer>();
+        durations = new ArrayList<Integer>();
+        constraints = new ArrayList<int[]>();
+    }
+
+    // return the id of the new task
+    int addFlexibleTask(int duration) {
+        starts.add(-1);
+        durations.add(duration);
+        return starts.size() - 1;
+    }
+
+    int addFixedTask(int start, int end) {
+        starts.add(start);
+        durations.add(end - start);
+        return starts.size() - 1;
+    }
+
+    void addConstraint(int before, int after) {
+        constraints.add(new int[]{before, after});
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    int getTaskCount() {
+        return starts.size();
+    }
+
+    int getConstraintCount() {
+        return constraints.size();
+    }
+
+    boolean isFixed(int id) {
+        return starts.get(id) >= 0;
+    }
+
+    int getStart(int id) {
+        return starts.get(id);
+    }
+
+    int getDuration(int id) {
+        return durations.get(id);
+    }
+
+    List<int[]> getConstraints() {
+        return constraints;
+    }
+
+    // total time of the tasks divided by the length of the day
+    double getTightness() {
+        int total = 0;
+        for (int duration : durations) {
+            total += duration;
+        }//for
+        return (double) total / (dayEnd - dayStart);
+    }
+
+    CSP toCSP() {
+        CSP problem = new CSP(Time.fromMinutes(dayStart), Time.fromMinutes(dayEnd));
+        for (int id = 0; id < starts.size(); id++) {
+            if (isFixed(id)) {
+                problem.addFixedTask(Time.fromMinutes(starts.get(id)),
+                        Time.fromMinutes(starts.get(id) + durations.get(id)));
+            } else {
+                problem.addFlexibleTask(Time.fromMinutes(durations.get(id)));
+            }
+        }//for
+        problem.createConstraintGraph();
+        for (int[] constraint : constraints) {
+            problem.addConstraint(constraint[0], constraint[1], 0);
+        }//for
+        return problem;
+    }
+
+    /**
+     * the instance as one JSON object:
+     * {"seed":1,"dayStart":480,"dayEnd":1200,"tasks":[{"id":0,"type":"fixed","start":540,
+     * "duration":60},{"id":1,"type":"flexible","duration":45}],"constraints":[[1,0]]}
+     */
+    String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"seed\":").append(seed)
+                .append(",\"dayStart\":").append(dayStart)
+                .append(",\"dayEnd\":").append(dayEnd)
+                .append(",\"tasks\":[");
+        for (int id = 0; id < starts.size(); id++) {
+            if (id > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(id);
+            if (isFixed(id)) {
+                json.append(",\"type\":\"fixed\",\"start\":").append(starts.get(id));
+            } else {
+                json.append(",\"type\":\"flexible\"");
+            }
+            json.append(",\"duration\":").append(durations.get(id)).append('}');
+        }//for
+        json.append("],\"constraints\":[");
+        for (int i = 0; i < constraints.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('[').append(constraints.get(i)[0]).append(',')
+                    .append(constraints.get(i)[1]).append(']');
+        }//for
+        return json.append("]}").toString();
+    }
+
+    /**
+     * the tasks as CSV with header id,type,start,duration; start is empty for flexible tasks
+     */
+    String toTaskCsv() {
+        StringBuilder csv = new StringBuilder("id,type,start,duration\n");
+        for (int id = 0; id < starts.size(); id++) {
+            csv.append(id).append(',').append(isFixed(id) ? "fixed" : "flexible").append(',');
+            if (isFixed(id)) {
+                csv.append(starts.get(id));
+            }
+            csv.append(',').append(durations.get(id)).append('\n');
+        }//for
+        return csv.toString();
+    }
+
+    /**
+     * the constraints as CSV with header before,after
+     */
+    String toConstraintCsv() {
+        StringBuilder csv = new StringBuilder("before,after\n");
+        for (int[] constraint : constraints) {
+            csv.append(constraint[0]).append(',').append(constraint[1]).append('\n');
+        }//for
+        return csv.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package com.algorithm;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/*
+ * Class ScalingReport is used to show how the solve time of getSolutions() grows with the
+ * size of the problem. For every task count, constraint shape and tightness it solves
+ * generated problems of a few seeds and prints one CSV row per problem.
+ * run with ./gradlew :benchmark:scalingReport, which writes
+ * benchmark/build/reports/scaling/scaling.csv and every problem as JSON next to it.
+ */
+public class ScalingReport {
+    private static final int[] TASK_COUNTS = {2, 4, 6, 8, 10, 12, 14, 16};
+    private static final double[] TIGHTNESS = {0.5, 0.8};
+    private static final int SEEDS = 3;
+    private static final int RUNS = 3;// timed runs per problem, the median is reported
+    private static final long BUDGET_MILLIS = 10000;// time budget of one run
+
+    private ScalingReport() {
+    }
+
+    /**
+     * @param args optional: directory the report and the problems are written to,
+     *             without it the report is printed
+     */
+    public static void main(String[] args) throws IOException {
+        File directory = null;
+        PrintStream out = System.out;
+        if (args.length > 0) {
+            directory = new File(args[0]);
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("cannot create " + directory);
+            }
+            out = new PrintStream(new File(directory, "scaling.csv"), "UTF-8");
+        }
+        try {
+            out.println("tasks,shape,tightness,seed,constraints,solutions,truncated,millis");
+            WorkloadGenerator generator = new WorkloadGenerator();
+            for (int taskCount : TASK_COUNTS) {
+                for (WorkloadGenerator.Shape shape : WorkloadGenerator.Shape.values()) {
+                    for (double tightness : TIGHTNESS) {
+                        generator.setTaskCount(taskCount);
+                        generator.setShape(shape);
+                        generator.setTightness(tightness);
+                        for (long seed = 1; seed <= SEEDS; seed++) {
+                            ProblemInstance instance = generator.generate(seed);
+                            if (directory != null) {
+                                String name = String.format(Locale.US, "%d-%s-%.1f-%d.json",
+                                        taskCount, shape, tightness, seed);
+                                write(new File(directory, name), instance.toJson());
+                            }
+                            out.println(measure(instance, shape));
+                        }//for
+                    }//for
+                }//for
+            }//for
+        } finally {
+            if (out != System.out) {
+                out.close();
+            }
+        }
+    }
+
+    private static String measure(ProblemInstance instance, WorkloadGenerator.Shape shape) {
+        CSP problem = instance.toCSP();
+        // warm up the JIT on this problem
+        new CSP_Solver(problem).getSolutions(BUDGET_MILLIS);
+        long[] millis = new long[RUNS];
+        int solutions = 0;
+        boolean truncated = false;
+        for (int run = 0; run < RUNS; run++) {
+            CSP_Solver solver = new CSP_Solver(problem);
+            long start = System.nanoTime();
+            solutions = solver.getSolutions(BUDGET_MILLIS).size();
+            millis[run] = (System.nanoTime() - start) / 1000000;
+            truncated |= solver.isTruncated();
+        }//for
+        Arrays.sort(millis);
+        return instance.getTaskCount() + "," + shape + ","
+                + String.format(Locale.US, "%.2f", instance.getTightness()) + ","
+                + instance.getSeed() + "," + instance.getConstraintCount() + "," + solutions + ","
+                + truncated + "," + millis[RUNS / 2];
+    }
+
+    private static void write(File file, String text) throws IOException {
+        Writer writer = new FileWriter(file);
+        try {
+            writer.write(text);
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Class WorkloadGenerator is used to generate scheduling problems for benchmarks and scaling
+ * reports. The same settings and seed always generate the same problem.
+ * The tasks take tightness times the length of the day. Fixed tasks are spread over the day
+ * without overlapping each other. Precedence constraints are only added between flexible
+ * tasks, in the shape of a chain, a tree or layers, so that the constraint graph has no cycle
+ * and does not contradict the fixed times.
+ */
+class WorkloadGenerator {
+    enum Shape {
+        NONE,// no constraint
+        CHAIN,// every flexible task before the next one
+        TREE,// every flexible task but the first after one task generated before it
+        LAYERED// a task of a layer before each task of the next layer with edgeProbability
+    }
+
+    private static final int UNIT = 5;// durations and fixed times are multiples of 5 minutes
+
+    private int dayStart;
+    private int dayEnd;
+    private int taskCount;
+    private double fixedFraction;
+    private double tightness;
+    private double durationSpread;
+    private Shape shape;
+    private int layerCount;
+    private double edgeProbability;
+
+    WorkloadGenerator() {
+        dayStart = 8 * 60;
+        dayEnd = 20 * 60;
+        taskCount = 8;
+        fixedFraction = 0.25;
+        tightness = 0.6;
+        durationSpread = 4;
+        shape = Shape.NONE;
+        layerCount = 3;
+        edgeProbability = 0.3;
+    }
+
+    void setDay(Time start, Time end) {
+        if (end.toMinutes() - start.toMinutes() < UNIT) {
+            throw new IllegalArgumentException("the day is too short");
+        }
+        dayStart = start.toMinutes();
+        dayEnd = end.toMinutes();
+    }
+
+    void setTaskCount(int taskCount) {
+        this.taskCount = taskCount;
+    }
+
+    // share of the tasks which are fixed, between 0 and 1
+    void setFixedFraction(double fixedFraction) {
+        this.fixedFraction = fixedFraction;
+    }
+
+    /**
+     * total time of the tasks divided by the length of the day, at most 1.
+     * durations are rounded to 5 minutes, so the generated tightness is close to it
+     */
+    void setTightness(double tightness) {
+        if (tightness <= 0 || tightness > 1) {
+            throw new IllegalArgumentException("tightness has to be in (0, 1]");
+        }
+        this.tightness = tightness;
+    }
+
+    // ratio of the longest to the shortest task duration before rounding, at least 1
+    void setDurationSpread(double durationSpread) {
+        this.durationSpread = Math.max(1, durationSpread);
+    }
+
+    void setShape(Shape shape) {
+        this.shape = shape;
+    }
+
+    void setLayerCount(int layerCount) {
+        this.layerCount = Math.max(1, layerCount);
+    }
+
+    void setEdgeProbability(double edgeProbability) {
+        this.edgeProbability = edgeProbability;
+    }
+
+    ProblemInstance generate(long seed) {
+        Random random = new Random(seed);
+        ProblemInstance instance = new ProblemInstance(seed, dayStart, dayEnd);
+        int[] durations = createDurations(random);
+
+        int fixedCount = (int) Math.round(taskCount * fixedFraction);
+        // fixed task i lies somewhere in the i-th part of the day
+        int part = fixedCount == 0 ? 0 : (dayEnd - dayStart) / fixedCount / UNIT * UNIT;
+        List<Integer> flexible = new ArrayList<Integer>();
+        for (int i = 0; i < taskCount; i++) {
+            if (i < fixedCount && part >= UNIT) {
+                int duration = Math.min(durations[i], part);
+                int start = dayStart + i * part + UNIT * random.nextInt((part - duration) / UNIT + 1);
+                instance.addFixedTask(start, start + duration);
+            } else {
+                flexible.add(instance.addFlexibleTask(durations[i]));
+            }
+        }//for
+
+        // the shape is laid over the flexible tasks in random order
+        Collections.shuffle(flexible, random);
+        addConstraints(instance, flexible, random);
+        return instance;
+    }
+
+    /*
+     * durations in 5 minute units, summing up to about tightness times the day
+     */
+    private int[] createDurations(Random random) {
+        int[] durations = new int[taskCount];
+        if (taskCount == 0) {
+            return durations;
+        }
+        double[] weights = new double[taskCount];
+        double weightSum = 0;
+        for (int i = 0; i < taskCount; i++) {
+            weights[i] = 1 + random.nextDouble() * (durationSpread - 1);
+            weightSum += weights[i];
+        }//for
+        int units = (int) (tightness * (dayEnd - dayStart)) / UNIT;
+        int total = 0;
+        for (int i = 0; i < taskCount; i++) {
+            durations[i] = Math.max(1, (int) Math.round(units * weights[i] / weightSum));
+            total += durations[i];
+        }//for
+        // rounding up may exceed the day, take the excess from the longest tasks
+        while (total > units && total > taskCount) {
+            int longest = 0;
+            for (int i = 1; i < taskCount; i++) {
+                if (durations[i] > durations[longest]) {
+                    longest = i;
+                }
+            }//for
+            durations[longest]--;
+            total--;
+        }//while
+        for (int i = 0; i < taskCount; i++) {
+            durations[i] *= UNIT;
+        }//for
+        return durations;
+    }
+
+    private void addConstraints(ProblemInstance instance, List<Integer> order, Random random) {
+        int n = order.size();
+        switch (shape) {
+            case CHAIN:
+                for (int i = 1; i < n; i++) {
+                    instance.addConstraint(order.get(i - 1), order.get(i));
+                }//for
+                break;
+            case TREE:
+                for (int i = 1; i < n; i++) {
+                    instance.addConstraint(order.get(random.nextInt(i)), order.get(i));
+                }//for
+                break;
+            case LAYERED:
+                // task i is in layer i * layerCount / n
+                for (int i = 0; i < n; i++) {
+                    for (int j = i + 1; j < n; j++) {
+                        if (j * layerCount / n == i * layerCount / n + 1
+                                && random.nextDouble() < edgeProbability) {
+                            instance.addConstraint(order.get(i), order.get(j));
+                        }
+                    }//for
+                }//for
+                break;
+            default:
+                break;
+        }//switch
+    }
+}
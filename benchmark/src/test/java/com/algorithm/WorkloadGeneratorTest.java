@@ -0,0 +1,96 @@
+package com.algorithm;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class WorkloadGeneratorTest {
+
+    @Test
+    public void testSameSeedSameProblem() throws Exception {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        generator.setShape(WorkloadGenerator.Shape.LAYERED);
+        assertEquals(generator.generate(7).toJson(), generator.generate(7).toJson());
+        assertEquals(false, generator.generate(7).toJson().equals(generator.generate(8).toJson()));
+    }
+
+    @Test
+    public void testTightness() throws Exception {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        generator.setTaskCount(10);
+        generator.setFixedFraction(0);
+        generator.setTightness(0.8);
+        for (long seed = 0; seed < 20; seed++) {
+            ProblemInstance instance = generator.generate(seed);
+            assertEquals(10, instance.getTaskCount());
+            assertEquals(true, instance.getTightness() <= 0.8);
+            assertEquals(true, instance.getTightness() > 0.75);
+            for (int id = 0; id < 10; id++) {
+                assertEquals(0, instance.getDuration(id) % 5);
+            }
+        }
+    }
+
+    @Test
+    public void testFixedTasksDoNotOverlap() throws Exception {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        generator.setTaskCount(12);
+        generator.setFixedFraction(0.5);
+        for (long seed = 0; seed < 20; seed++) {
+            ProblemInstance instance = generator.generate(seed);
+            int end = 8 * 60;
+            for (int id = 0; id < 6; id++) {
+                assertEquals(true, instance.isFixed(id));
+                assertEquals(true, instance.getStart(id) >= end);
+                end = instance.getStart(id) + instance.getDuration(id);
+            }
+            assertEquals(true, end <= 20 * 60);
+            assertEquals(false, instance.isFixed(6));
+        }
+    }
+
+    @Test
+    public void testShapes() throws Exception {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        generator.setTaskCount(8);
+        generator.setFixedFraction(0.25);
+        generator.setShape(WorkloadGenerator.Shape.NONE);
+        assertEquals(0, generator.generate(1).getConstraintCount());
+        generator.setShape(WorkloadGenerator.Shape.CHAIN);
+        assertEquals(5, generator.generate(1).getConstraintCount());
+        generator.setShape(WorkloadGenerator.Shape.TREE);
+        assertEquals(5, generator.generate(1).getConstraintCount());
+        generator.setShape(WorkloadGenerator.Shape.LAYERED);
+        generator.setEdgeProbability(1);
+        generator.setLayerCount(2);
+        // 3 tasks before each of the other 3
+        assertEquals(9, generator.generate(1).getConstraintCount());
+
+        for (WorkloadGenerator.Shape shape : WorkloadGenerator.Shape.values()) {
+            generator.setShape(shape);
+            ProblemInstance instance = generator.generate(3);
+            for (int[] constraint : instance.getConstraints()) {
+                assertEquals(false, instance.isFixed(constraint[0]));
+                assertEquals(false, instance.isFixed(constraint[1]));
+            }
+            CSP problem = instance.toCSP();
+            assertEquals(8, problem.getTaskCount());
+            assertEquals(false, problem.isConstraintsConflict());
+        }
+    }
+
+    @Test
+    public void testExport() throws Exception {
+        ProblemInstance instance = new ProblemInstance(3, 480, 720);
+        instance.addFixedTask(540, 600);
+        instance.addFlexibleTask(45);
+        instance.addConstraint(1, 0);
+        assertEquals("{\"seed\":3,\"dayStart\":480,\"dayEnd\":720,\"tasks\":["
+                + "{\"id\":0,\"type\":\"fixed\",\"start\":540,\"duration\":60},"
+                + "{\"id\":1,\"type\":\"flexible\",\"duration\":45}],"
+                + "\"constraints\":[[1,0]]}", instance.toJson());
+        assertEquals("id,type,start,duration\n0,fixed,540,60\n1,flexible,,45\n",
+                instance.toTaskCsv());
+        assertEquals("before,after\n1,0\n", instance.toConstraintCsv());
+    }
+}